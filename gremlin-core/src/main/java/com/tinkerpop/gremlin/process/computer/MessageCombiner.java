@@ -0,0 +1,25 @@
+package com.tinkerpop.gremlin.process.computer;
+
+import java.io.Serializable;
+
+/**
+ * A {@link MessageCombiner} allows two messages in route to the same vertex to be aggregated into a single message.
+ * Message combining can reduce the number of messages sent between vertices and thus, the amount of memory and
+ * network traffic consumed by the computation. A combiner is only applicable when the receiving vertex does not care
+ * about how many messages it receives, but only about their aggregate (e.g. a sum or a minimum).
+ * As such, the combine() function must be commutative and associative.
+ * The messages provided to combine() may be shared with other receivers and must not be mutated.
+ *
+ * @author agent (agent@local)
+ */
+public interface MessageCombiner<M> extends Serializable {
+
+    /**
+     * Combine two messages into a single message.
+     *
+     * @param messageA the first message
+     * @param messageB the second message
+     * @return the aggregate of the two messages
+     */
+    public M combine(final M messageA, final M messageB);
+}
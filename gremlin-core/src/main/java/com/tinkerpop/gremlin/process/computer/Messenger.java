@@ -27,4 +27,15 @@ public interface Messenger<M> {
      */
     public void sendMessage(final MessageType messageType, final M message);
 
+    /**
+     * The currently executing vertex votes to halt. A vertex that voted to halt need not be executed in the next
+     * iteration unless it receives a message, so a {@link GraphComputer} can schedule only the active vertices.
+     * A vertex that executes again is active again until it votes to halt again. A GraphComputer is not required to
+     * honor the vote and the default implementation ignores it, so a halted vertex must behave as a no-op when it is
+     * executed without messages.
+     */
+    public default void voteToHalt() {
+
+    }
+
 }
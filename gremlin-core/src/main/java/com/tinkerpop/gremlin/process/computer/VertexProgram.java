@@ -5,6 +5,7 @@ import org.apache.commons.configuration.Configuration;
 
 import java.lang.reflect.Constructor;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -130,11 +131,16 @@ public interface VertexProgram<M> {
         return Collections.emptySet();
     }
 
-    /*
-     * DO NOT USE YET.
+    /**
+     * The {@link MessageCombiner} that the {@link GraphComputer} may use to aggregate the messages sent to the same vertex.
+     * A GraphComputer is not required to use the combiner and thus, the VertexProgram must still be able to
+     * process multiple received messages. The default is no combiner.
+     *
+     * @return the optional message combiner of the vertex program
+     */
     public default Optional<MessageCombiner<M>> getMessageCombiner() {
         return Optional.empty();
-    }*/
+    }
 
     /**
      * The set of {@link MapReduce} jobs that are associated with the {@link VertexProgram}.
@@ -227,5 +233,24 @@ public interface VertexProgram<M> {
         public default boolean requiresAdjacentVertexDeepReference() {
             return false;
         }
+
+        /**
+         * Whether the copies of the vertex program that are created from its stored state can be executed by
+         * multiple workers that share the same JVM at the same time.
+         */
+        public default boolean supportsConcurrentWorkers() {
+            return true;
+        }
+
+        /**
+         * Whether the vertex program can be executed with the {@link GraphComputer.Isolation}. With
+         * {@link GraphComputer.Isolation#DIRTY_BSP} isolation, messages may be received in the iteration they are
+         * sent in, so a vertex may receive the message of a sender of the previous iteration or of the current one.
+         * A vertex program that relies on receiving exactly the messages of the previous iteration, like one that
+         * sums the rank fractions of its senders, only supports {@link GraphComputer.Isolation#BSP}.
+         */
+        public default boolean supportsIsolation(final GraphComputer.Isolation isolation) {
+            return isolation.equals(GraphComputer.Isolation.BSP);
+        }
     }
 }
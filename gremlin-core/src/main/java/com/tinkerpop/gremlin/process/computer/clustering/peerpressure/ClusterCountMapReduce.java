@@ -43,7 +43,8 @@ public class ClusterCountMapReduce implements MapReduce<MapReduce.NullObject, Se
 
     @Override
     public boolean doStage(final Stage stage) {
-        return true;
+        // the cluster count of a part of the vertices can not be reduced with that of another part, so no combiner
+        return !stage.equals(Stage.COMBINE);
     }
 
     @Override
@@ -54,11 +55,6 @@ public class ClusterCountMapReduce implements MapReduce<MapReduce.NullObject, Se
         }
     }
 
-    @Override
-    public void combine(final NullObject key, final Iterator<Serializable> values, final ReduceEmitter<NullObject, Integer> emitter) {
-        this.reduce(key, values, emitter);
-    }
-
     @Override
     public void reduce(final NullObject key, final Iterator<Serializable> values, final ReduceEmitter<NullObject, Integer> emitter) {
         final Set<Serializable> set = new HashSet<>();
@@ -1,6 +1,7 @@
 package com.tinkerpop.gremlin.process.computer.clustering.peerpressure;
 
 import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.computer.GraphComputer;
 import com.tinkerpop.gremlin.process.computer.Memory;
 import com.tinkerpop.gremlin.process.computer.MessageType;
 import com.tinkerpop.gremlin.process.computer.Messenger;
@@ -189,6 +190,12 @@ public class PeerPressureVertexProgram implements VertexProgram<Pair<Serializabl
                 return true;
             }
 
+            @Override
+            public boolean supportsIsolation(final GraphComputer.Isolation isolation) {
+                // a vote is counted once per sender whether it is the vote of the previous or the current iteration
+                return true;
+            }
+
             @Override
             public boolean requiresVertexPropertyAddition() {
                 return true;
@@ -17,11 +17,20 @@ import com.tinkerpop.gremlin.util.StreamFactory;
 import org.apache.commons.configuration.Configuration;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
 /**
+ * Computes the PageRank of every vertex. By default the ranks are iterated a fixed number of times. With an epsilon,
+ * the total (L1) change of the ranks of an iteration is aggregated in the {@link Memory} and the computation
+ * terminates once it is no larger than the epsilon. With a delta threshold, the vertices send the change of their
+ * rank rather than their rank after the first iteration. The changes of the rank of a vertex are accumulated in a
+ * residual that is only sent once it reaches the threshold, so a vertex whose residual is smaller sends nothing and
+ * votes to halt and only the vertices whose ranks are still moving are executed. No change is discarded, so every
+ * rank differs from its exact value by no more than the residuals that are held back.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class PageRankVertexProgram implements VertexProgram<Double> {
@@ -30,18 +39,29 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
 
     public static final String PAGE_RANK = Graph.Key.hide("gremlin.pageRankVertexProgram.pageRank");
     public static final String EDGE_COUNT = Graph.Key.hide("gremlin.pageRankVertexProgram.edgeCount");
+    private static final String RESIDUAL = Graph.Key.hide("gremlin.pageRankVertexProgram.residual");
 
     private static final String VERTEX_COUNT = "gremlin.pageRankVertexProgram.vertexCount";
     private static final String ALPHA = "gremlin.pageRankVertexProgram.alpha";
     private static final String TOTAL_ITERATIONS = "gremlin.pageRankVertexProgram.totalIterations";
     private static final String INCIDENT_TRAVERSAL_SUPPLIER = "gremlin.pageRankVertexProgram.incidentTraversalSupplier";
+    private static final String EPSILON = "gremlin.pageRankVertexProgram.epsilon";
+    private static final String DELTA_THRESHOLD = "gremlin.pageRankVertexProgram.deltaThreshold";
+    private static final String L1_CHANGE = "gremlin.pageRankVertexProgram.l1Change";
+
+    // the memory only aggregates longs so the change of the ranks is aggregated in fixed point
+    private static final double L1_CHANGE_SCALE = 1.0e15d;
 
     private LambdaHolder<Supplier<CountTraversal<Vertex, Edge>>> traversalSupplier;
     private double vertexCountAsDouble = 1;
     private double alpha = 0.85d;
     private int totalIterations = 30;
+    private double epsilon = -1.0d;
+    private double deltaThreshold = -1.0d;
 
     private static final Set<String> COMPUTE_KEYS = new HashSet<>(Arrays.asList(PAGE_RANK, EDGE_COUNT));
+    private static final Set<String> DELTA_COMPUTE_KEYS = new HashSet<>(Arrays.asList(PAGE_RANK, EDGE_COUNT, RESIDUAL));
+    private static final Set<String> MEMORY_COMPUTE_KEYS = new HashSet<>(Arrays.asList(L1_CHANGE));
 
     private PageRankVertexProgram() {
 
@@ -57,6 +77,9 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
         this.vertexCountAsDouble = configuration.getDouble(VERTEX_COUNT, 1.0d);
         this.alpha = configuration.getDouble(ALPHA, 0.85d);
         this.totalIterations = configuration.getInt(TOTAL_ITERATIONS, 30);
+        this.deltaThreshold = configuration.getDouble(DELTA_THRESHOLD, -1.0d);
+        // the delta variant converges once no rank changes by the threshold
+        this.epsilon = configuration.getDouble(EPSILON, this.deltaThreshold < 0.0d ? -1.0d : 0.0d);
     }
 
     @Override
@@ -65,6 +88,8 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
         configuration.setProperty(VERTEX_COUNT, this.vertexCountAsDouble);
         configuration.setProperty(ALPHA, this.alpha);
         configuration.setProperty(TOTAL_ITERATIONS, this.totalIterations);
+        configuration.setProperty(EPSILON, this.epsilon);
+        configuration.setProperty(DELTA_THRESHOLD, this.deltaThreshold);
         if (null != this.traversalSupplier) {
             this.traversalSupplier.storeState(configuration);
         }
@@ -72,12 +97,18 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
 
     @Override
     public Set<String> getElementComputeKeys() {
-        return COMPUTE_KEYS;
+        return this.deltaThreshold < 0.0d ? COMPUTE_KEYS : DELTA_COMPUTE_KEYS;
     }
 
     @Override
-    public void setup(final Memory memory) {
+    public Set<String> getMemoryComputeKeys() {
+        return this.epsilon < 0.0d ? Collections.emptySet() : MEMORY_COMPUTE_KEYS;
+    }
 
+    @Override
+    public void setup(final Memory memory) {
+        if (this.epsilon >= 0.0d)
+            memory.set(L1_CHANGE, 0l);
     }
 
     @Override
@@ -88,22 +119,54 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             vertex.singleProperty(PAGE_RANK, initialPageRank);
             vertex.singleProperty(EDGE_COUNT, edgeCount);
             messenger.sendMessage(this.messageType, initialPageRank / edgeCount);
-        } else {
+        } else if (this.deltaThreshold < 0.0d || memory.getIteration() == 1) {
             double newPageRank = StreamFactory.stream(messenger.receiveMessages(this.messageType)).reduce(0.0d, (a, b) -> a + b);
             newPageRank = (this.alpha * newPageRank) + ((1.0d - this.alpha) / this.vertexCountAsDouble);
+            if (this.epsilon >= 0.0d)
+                memory.incr(L1_CHANGE, (long) (Math.abs(newPageRank - vertex.<Double>value(PAGE_RANK)) * L1_CHANGE_SCALE));
+            if (this.deltaThreshold < 0.0d)
+                messenger.sendMessage(this.messageType, newPageRank / vertex.<Double>property(EDGE_COUNT).orElse(0.0d));
+            else
+                this.sendDelta(vertex, messenger, newPageRank - vertex.<Double>value(PAGE_RANK));
             vertex.singleProperty(PAGE_RANK, newPageRank);
-            messenger.sendMessage(this.messageType, newPageRank / vertex.<Double>property(EDGE_COUNT).orElse(0.0d));
+        } else {
+            // the rank changes by the damped sum of the changes of the ranks of the senders
+            final double delta = this.alpha * StreamFactory.stream(messenger.receiveMessages(this.messageType)).reduce(0.0d, (a, b) -> a + b);
+            memory.incr(L1_CHANGE, (long) (Math.abs(delta) * L1_CHANGE_SCALE));
+            vertex.singleProperty(PAGE_RANK, vertex.<Double>value(PAGE_RANK) + delta);
+            this.sendDelta(vertex, messenger, delta);
+        }
+    }
+
+    private void sendDelta(final Vertex vertex, final Messenger<Double> messenger, final double delta) {
+        // the changes that were too small to send are held back until their sum reaches the threshold
+        final double residual = vertex.<Double>property(RESIDUAL).orElse(0.0d) + delta;
+        if (Math.abs(residual) >= this.deltaThreshold) {
+            messenger.sendMessage(this.messageType, residual / vertex.<Double>property(EDGE_COUNT).orElse(0.0d));
+            vertex.singleProperty(RESIDUAL, 0.0d);
+        } else {
+            vertex.singleProperty(RESIDUAL, residual);
+            messenger.voteToHalt();
         }
     }
 
     @Override
     public boolean terminate(final Memory memory) {
-        return memory.getIteration() >= this.totalIterations;
+        if (memory.getIteration() >= this.totalIterations)
+            return true;
+        if (this.epsilon >= 0.0d && memory.getIteration() > 0) {
+            if (memory.<Long>get(L1_CHANGE) / L1_CHANGE_SCALE <= this.epsilon)
+                return true;
+            memory.set(L1_CHANGE, 0l);
+        }
+        return false;
     }
 
     @Override
     public String toString() {
-        return StringFactory.vertexProgramString(this, "alpha=" + this.alpha + ",iterations=" + this.totalIterations);
+        return StringFactory.vertexProgramString(this, "alpha=" + this.alpha + ",iterations=" + this.totalIterations +
+                (this.epsilon >= 0.0d ? ",epsilon=" + this.epsilon : "") +
+                (this.deltaThreshold >= 0.0d ? ",deltaThreshold=" + this.deltaThreshold : ""));
     }
 
     //////////////////////////////
@@ -128,6 +191,24 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             return this;
         }
 
+        /**
+         * Terminate once the total change of the ranks of an iteration is no larger than the epsilon, or after the
+         * total iterations, whichever comes first.
+         */
+        public Builder epsilon(final double epsilon) {
+            this.configuration.setProperty(EPSILON, epsilon);
+            return this;
+        }
+
+        /**
+         * Send the change of the ranks rather than the ranks and hold the changes of a vertex back until their sum
+         * reaches the threshold. Unless an epsilon is given, the computation terminates once no rank changes.
+         */
+        public Builder deltaThreshold(final double deltaThreshold) {
+            this.configuration.setProperty(DELTA_THRESHOLD, deltaThreshold);
+            return this;
+        }
+
         public Builder incident(final String scriptEngine, final String traversalScript) {
             LambdaHolder.storeState(this.configuration, LambdaHolder.Type.SCRIPT, INCIDENT_TRAVERSAL_SUPPLIER, new String[]{scriptEngine, traversalScript});
             return this;
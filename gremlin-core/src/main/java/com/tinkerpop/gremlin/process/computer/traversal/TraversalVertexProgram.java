@@ -58,6 +58,9 @@ public final class TraversalVertexProgram implements VertexProgram<Traverser.Adm
     private Traversal traversal;
 
     private final Set<MapReduce> mapReducers = new HashSet<>();
+    // recycled between the vertices as the vertices are executed one at a time, see supportsConcurrentWorkers()
+    private final TraverserSet<Object> aliveTraversers = new TraverserSet<>();
+    private final TraverserSet<Object> toProcessTraversers = new TraverserSet<>();
     private static final Set<String> MEMORY_COMPUTE_KEYS = new HashSet<String>() {{
         add(VOTE_TO_HALT);
     }};
@@ -145,8 +148,10 @@ public final class TraversalVertexProgram implements VertexProgram<Traverser.Adm
             });
             memory.and(VOTE_TO_HALT, voteToHalt.get());
         } else {
-            memory.and(VOTE_TO_HALT, TraverserExecutor.execute(vertex, messenger, this.traversal));
+            memory.and(VOTE_TO_HALT, TraverserExecutor.execute(vertex, messenger, this.traversal, this.aliveTraversers, this.toProcessTraversers));
         }
+        // the traversers only move by messages so a vertex without incoming traversers has nothing to do
+        messenger.voteToHalt();
     }
 
     @Override
@@ -193,6 +198,12 @@ public final class TraversalVertexProgram implements VertexProgram<Traverser.Adm
             public boolean requiresVertexPropertyAddition() {
                 return true;
             }
+
+            @Override
+            public boolean supportsConcurrentWorkers() {
+                // the copies share the side-effects, lambdas and branch traversals of the submitted traversal
+                return false;
+            }
         };
     }
 
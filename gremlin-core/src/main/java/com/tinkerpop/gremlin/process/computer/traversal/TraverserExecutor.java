@@ -22,11 +22,22 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class TraverserExecutor {
 
     public static boolean execute(final Vertex vertex, final Messenger<Traverser.Admin<?>> messenger, final Traversal traversal) {
+        return execute(vertex, messenger, traversal, new TraverserSet<>(), new TraverserSet<>());
+    }
+
+    /**
+     * Execute the traversers at the vertex with two traverser sets that are recycled between vertices rather than
+     * allocated per vertex. The sets are cleared before they are used and emptied when the method returns.
+     */
+    public static boolean execute(final Vertex vertex, final Messenger<Traverser.Admin<?>> messenger, final Traversal traversal,
+                                  final TraverserSet<Object> aliveTraversers, final TraverserSet<Object> toProcessTraversers) {
 
         final TraverserSet<Object> haltedTraversers = vertex.value(TraversalVertexProgram.HALTED_TRAVERSERS);
         final AtomicBoolean voteToHalt = new AtomicBoolean(true);
+        // the sets may hold the traversers of a vertex that failed
+        aliveTraversers.clear();
+        toProcessTraversers.clear();
 
-        final TraverserSet<Object> aliveTraversers = new TraverserSet<>();
         // gather incoming traversers into a traverser set and gain the 'weighted-set' optimization
         messenger.receiveMessages(MessageType.Global.of()).forEach(traverser -> {
             traverser.attach(vertex);
@@ -36,7 +47,7 @@ public final class TraverserExecutor {
 
         // while there are still local traversers, process them until they leave the vertex or halt (i.e. isHalted()).
         while (!aliveTraversers.isEmpty()) {
-            final TraverserSet<Object> toProcessTraversers = new TraverserSet<>();
+            toProcessTraversers.clear();
             // process all the local objects and send messages or store locally again
             aliveTraversers.forEach(traverser -> {
                 if (traverser.get() instanceof Element || traverser.get() instanceof Property) {      // GRAPH OBJECT
@@ -66,6 +77,7 @@ public final class TraverserExecutor {
                 });
             });
         }
+        toProcessTraversers.clear();
         return voteToHalt.get();
     }
 
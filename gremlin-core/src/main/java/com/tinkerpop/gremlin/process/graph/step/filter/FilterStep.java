@@ -5,6 +5,8 @@ import com.tinkerpop.gremlin.process.Traverser;
 import com.tinkerpop.gremlin.process.util.AbstractStep;
 import com.tinkerpop.gremlin.process.util.TraversalMetrics;
 
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 
 /**
@@ -34,4 +36,26 @@ public class FilterStep<S> extends AbstractStep<S, S> {
             if (PROFILING_ENABLED) TraversalMetrics.stop(this);
         }
     }
+
+    @Override
+    protected int processNextBatch(final Traverser.Admin<S>[] ends) {
+        // the starts are filtered in place
+        final int size = this.starts.next(ends);
+        if (size == 0)
+            return -1;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            final Traverser.Admin<S> traverser = ends[i];
+            ends[i] = null;
+            try {
+                if (this.predicate.test(traverser))
+                    ends[count++] = traverser;
+            } catch (final NoSuchElementException e) {
+                // a predicate that ends the step drops the rest of the batch as it would drop the next starts
+                Arrays.fill(ends, i, size, null);
+                return count == 0 ? -1 : count;
+            }
+        }
+        return count;
+    }
 }
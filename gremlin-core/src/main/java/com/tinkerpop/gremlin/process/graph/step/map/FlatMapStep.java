@@ -7,6 +7,7 @@ import com.tinkerpop.gremlin.process.util.TraversalMetrics;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 /**
@@ -17,6 +18,10 @@ public class FlatMapStep<S, E> extends AbstractStep<S, E> {
     private Function<Traverser<S>, Iterator<E>> function = null;
     private Traverser.Admin<S> head = null;
     private Iterator<E> iterator = Collections.emptyIterator();
+    // the starts pulled by a batching step that were not yet flat mapped
+    private Traverser.Admin<S>[] heads = null;
+    private int headsIndex = 0;
+    private int headsSize = 0;
 
     public FlatMapStep(final Traversal traversal) {
         super(traversal);
@@ -43,9 +48,50 @@ public class FlatMapStep<S, E> extends AbstractStep<S, E> {
         }
     }
 
+    @Override
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) {
+        if (null == this.heads || this.heads.length != ends.length) {
+            this.heads = new Traverser.Admin[ends.length];
+            this.headsIndex = this.headsSize = 0;
+        }
+        int count = 0;
+        try {
+            while (count < ends.length) {
+                if (this.iterator.hasNext())
+                    ends[count++] = this.head.split(this.label, this.iterator.next());
+                else {
+                    if (this.headsIndex == this.headsSize) {
+                        this.headsIndex = 0;
+                        this.headsSize = this.starts.next(this.heads);
+                        if (this.headsSize == 0)
+                            return count == 0 ? -1 : count;
+                    }
+                    this.head = this.heads[this.headsIndex];
+                    this.heads[this.headsIndex++] = null;
+                    this.iterator = this.function.apply(this.head);
+                }
+            }
+            return count;
+        } catch (final NoSuchElementException e) {
+            return count == 0 ? -1 : count;
+        }
+    }
+
     @Override
     public void reset() {
         super.reset();
         this.iterator = Collections.emptyIterator();
+        this.heads = null;
+        this.headsIndex = this.headsSize = 0;
+    }
+
+    @Override
+    public FlatMapStep<S, E> clone() throws CloneNotSupportedException {
+        final FlatMapStep<S, E> clone = (FlatMapStep<S, E>) super.clone();
+        clone.head = null;
+        clone.iterator = Collections.emptyIterator();
+        clone.heads = null;
+        clone.headsIndex = clone.headsSize = 0;
+        return clone;
     }
 }
@@ -5,6 +5,8 @@ import com.tinkerpop.gremlin.process.Traverser;
 import com.tinkerpop.gremlin.process.util.AbstractStep;
 import com.tinkerpop.gremlin.process.util.TraversalMetrics;
 
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 /**
@@ -35,6 +37,31 @@ public class MapStep<S, E> extends AbstractStep<S, E> {
         }
     }
 
+    @Override
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) {
+        // the starts are mapped in place
+        final Traverser.Admin<S>[] starts = (Traverser.Admin[]) ends;
+        final int size = this.starts.next(starts);
+        if (size == 0)
+            return -1;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            final Traverser.Admin<S> traverser = starts[i];
+            starts[i] = null;
+            final E end;
+            try {
+                end = this.function.apply(traverser);
+            } catch (final NoSuchElementException e) {
+                // a function that ends the step drops the rest of the batch as it would drop the next starts
+                Arrays.fill(starts, i, size, null);
+                return count == 0 ? -1 : count;
+            }
+            if (NO_OBJECT != end)
+                ends[count++] = traverser.split(this.label, end);
+        }
+        return count;
+    }
+
     public void setFunction(final Function<Traverser<S>, E> function) {
         this.function = function;
     }
@@ -1,6 +1,7 @@
 package com.tinkerpop.gremlin.process.graph.step.map;
 
 import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.Traverser;
 import com.tinkerpop.gremlin.process.graph.marker.Reversible;
 import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
 import com.tinkerpop.gremlin.process.util.TraversalHelper;
@@ -18,14 +19,18 @@ public class PropertiesStep<E> extends FlatMapStep<Element, E> implements Revers
 
     protected final String[] propertyKeys;
     protected final PropertyType returnType;
-    private final ChainIterator chainIterator = new ChainIterator();
+    private ChainIterator chainIterator = new ChainIterator();
 
 
     public PropertiesStep(final Traversal traversal, final PropertyType propertyType, final String... propertyKeys) {
         super(traversal);
         this.returnType = propertyType;
         this.propertyKeys = propertyKeys;
-        this.setFunction(traverser -> this.chainIterator.set(traverser.get().iterators().propertyIterator(this.propertyKeys)));
+        this.setFunction(this::properties);
+    }
+
+    private Iterator<E> properties(final Traverser<Element> traverser) {
+        return this.chainIterator.set(traverser.get().iterators().propertyIterator(this.propertyKeys));
     }
 
     public PropertyType getReturnType() {
@@ -42,6 +47,15 @@ public class PropertiesStep<E> extends FlatMapStep<Element, E> implements Revers
         TraversalHelper.replaceStep(this, new PropertyElementStep(this.traversal), this.traversal);
     }
 
+    @Override
+    public PropertiesStep<E> clone() throws CloneNotSupportedException {
+        final PropertiesStep<E> clone = (PropertiesStep<E>) super.clone();
+        // the clone iterates the properties with its own chain iterator
+        clone.chainIterator = clone.new ChainIterator();
+        clone.setFunction(clone::properties);
+        return clone;
+    }
+
     @Override
     public String toString() {
         return this.propertyKeys.length == 0 ?
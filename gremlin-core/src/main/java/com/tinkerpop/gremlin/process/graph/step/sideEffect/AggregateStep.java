@@ -10,6 +10,7 @@ import com.tinkerpop.gremlin.process.graph.step.sideEffect.mapreduce.AggregateMa
 import com.tinkerpop.gremlin.process.graph.step.util.BarrierStep;
 import com.tinkerpop.gremlin.process.util.BulkSet;
 import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.process.util.TraverserSet;
 import com.tinkerpop.gremlin.structure.Graph;
 
 import java.util.Collection;
@@ -29,11 +30,14 @@ public final class AggregateStep<S> extends BarrierStep<S> implements SideEffect
         this.sideEffectKey = null == sideEffectKey ? this.getLabel() : sideEffectKey;
         TraversalHelper.verifySideEffectKeyIsNotAStepLabel(this.sideEffectKey, this.traversal);
         this.traversal.sideEffects().registerSupplierIfAbsent(this.sideEffectKey, BulkSet::new);
-        this.setConsumer(traverserSet ->
-                traverserSet.forEach(traverser ->
-                        TraversalHelper.addToCollection(this.getTraversal().sideEffects().get(this.sideEffectKey),
-                                null == this.preAggregateFunction ? traverser.get() : this.preAggregateFunction.apply(traverser),
-                                traverser.bulk())));
+        this.setConsumer(this::aggregate);
+    }
+
+    private void aggregate(final TraverserSet<S> traverserSet) {
+        traverserSet.forEach(traverser ->
+                TraversalHelper.addToCollection(this.getTraversal().sideEffects().get(this.sideEffectKey),
+                        null == this.preAggregateFunction ? traverser.get() : this.preAggregateFunction.apply(traverser),
+                        traverser.bulk()));
     }
 
     @Override
@@ -41,6 +45,14 @@ public final class AggregateStep<S> extends BarrierStep<S> implements SideEffect
         return this.sideEffectKey;
     }
 
+    @Override
+    public AggregateStep<S> clone() throws CloneNotSupportedException {
+        final AggregateStep<S> clone = (AggregateStep<S>) super.clone();
+        // the clone aggregates into the side-effects of its own traversal
+        clone.setConsumer(clone::aggregate);
+        return clone;
+    }
+
     @Override
     public String toString() {
         return Graph.System.isSystem(this.sideEffectKey) ? super.toString() : TraversalHelper.makeStepString(this, this.sideEffectKey);
@@ -29,12 +29,14 @@ public final class GroupCountStep<S> extends SideEffectStep<S> implements SideEf
         this.sideEffectKey = null == sideEffectKey ? this.getLabel() : sideEffectKey;
         TraversalHelper.verifySideEffectKeyIsNotAStepLabel(this.sideEffectKey, this.traversal);
         this.traversal.sideEffects().registerSupplierIfAbsent(this.sideEffectKey, HashMap<Object, Long>::new);
-        this.setConsumer(traverser -> {
-            final Map<Object, Long> groupCountMap = this.getTraversal().sideEffects().get(this.sideEffectKey);
-            MapHelper.incr(groupCountMap,
-                    null == this.preGroupFunction ? traverser.get() : this.preGroupFunction.apply(traverser),
-                    traverser.bulk());
-        });
+        this.setConsumer(this::groupCount);
+    }
+
+    private void groupCount(final Traverser<S> traverser) {
+        final Map<Object, Long> groupCountMap = this.getTraversal().sideEffects().get(this.sideEffectKey);
+        MapHelper.incr(groupCountMap,
+                null == this.preGroupFunction ? traverser.get() : this.preGroupFunction.apply(traverser),
+                traverser.bulk());
     }
 
     @Override
@@ -42,11 +44,23 @@ public final class GroupCountStep<S> extends SideEffectStep<S> implements SideEf
         return this.sideEffectKey;
     }
 
+    public Function<Traverser<S>, ?> getPreGroupFunction() {
+        return this.preGroupFunction;
+    }
+
     @Override
     public MapReduce<Object, Long, Object, Long, Map<Object, Long>> getMapReduce() {
         return new GroupCountMapReduce(this);
     }
 
+    @Override
+    public GroupCountStep<S> clone() throws CloneNotSupportedException {
+        final GroupCountStep<S> clone = (GroupCountStep<S>) super.clone();
+        // the clone counts into the side-effects of its own traversal
+        clone.setConsumer(clone::groupCount);
+        return clone;
+    }
+
     @Override
     public String toString() {
         return Graph.System.isSystem(this.sideEffectKey) ? super.toString() : TraversalHelper.makeStepString(this, this.sideEffectKey);
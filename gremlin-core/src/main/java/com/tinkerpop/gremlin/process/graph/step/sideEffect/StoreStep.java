@@ -28,11 +28,14 @@ public final class StoreStep<S> extends SideEffectStep<S> implements SideEffectC
         this.sideEffectKey = null == sideEffectKey ? this.getLabel() : sideEffectKey;
         TraversalHelper.verifySideEffectKeyIsNotAStepLabel(this.sideEffectKey, this.traversal);
         this.traversal.sideEffects().registerSupplierIfAbsent(this.sideEffectKey, BulkSet::new);
-        this.setConsumer(traverser ->
-                TraversalHelper.addToCollection(
-                        this.getTraversal().sideEffects().get(this.sideEffectKey),
-                        null == this.preStoreFunction ? traverser.get() : this.preStoreFunction.apply(traverser),
-                        traverser.bulk()));
+        this.setConsumer(this::store);
+    }
+
+    private void store(final Traverser<S> traverser) {
+        TraversalHelper.addToCollection(
+                this.getTraversal().sideEffects().get(this.sideEffectKey),
+                null == this.preStoreFunction ? traverser.get() : this.preStoreFunction.apply(traverser),
+                traverser.bulk());
     }
 
     @Override
@@ -40,6 +43,18 @@ public final class StoreStep<S> extends SideEffectStep<S> implements SideEffectC
         return this.sideEffectKey;
     }
 
+    public Function<Traverser<S>, ?> getPreStoreFunction() {
+        return this.preStoreFunction;
+    }
+
+    @Override
+    public StoreStep<S> clone() throws CloneNotSupportedException {
+        final StoreStep<S> clone = (StoreStep<S>) super.clone();
+        // the clone stores into the side-effects of its own traversal
+        clone.setConsumer(clone::store);
+        return clone;
+    }
+
     @Override
     public String toString() {
         return Graph.System.isSystem(this.sideEffectKey) ? super.toString() : TraversalHelper.makeStepString(this, this.sideEffectKey);
@@ -0,0 +1,61 @@
+package com.tinkerpop.gremlin.process.graph.step.util;
+
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.Traverser;
+import com.tinkerpop.gremlin.process.util.AbstractStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.process.util.TraversalMetrics;
+import com.tinkerpop.gremlin.process.util.TraverserSet;
+
+/**
+ * A bounded barrier that gathers its starts into a {@link TraverserSet} so that equal traversers are merged into a
+ * single traverser with their summed bulk. Unlike a {@link BarrierStep}, it does not drain its starts but emits its
+ * traversers once the set holds the maximum number of distinct traversers or there are no more starts.
+ *
+ * @author agent (agent@local)
+ */
+public final class CollapsingBarrierStep<S> extends AbstractStep<S, S> {
+
+    private final int maxBarrierSize;
+    private TraverserSet<S> barrier = new TraverserSet<>();
+
+    public CollapsingBarrierStep(final Traversal traversal, final int maxBarrierSize) {
+        super(traversal);
+        this.maxBarrierSize = maxBarrierSize;
+    }
+
+    @Override
+    protected Traverser<S> processNextStart() {
+        if (PROFILING_ENABLED) TraversalMetrics.start(this);
+        if (this.barrier.isEmpty()) {
+            while (this.barrier.size() < this.maxBarrierSize && this.starts.hasNext()) {
+                this.barrier.add(this.starts.next());
+            }
+        }
+        final Traverser.Admin<S> traverser = this.barrier.remove();
+        if (PROFILING_ENABLED) TraversalMetrics.finish(this, traverser);
+        return traverser;
+    }
+
+    public int getMaxBarrierSize() {
+        return this.maxBarrierSize;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.barrier.clear();
+    }
+
+    @Override
+    public CollapsingBarrierStep<S> clone() throws CloneNotSupportedException {
+        final CollapsingBarrierStep<S> clone = (CollapsingBarrierStep<S>) super.clone();
+        clone.barrier = new TraverserSet<>();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return TraversalHelper.makeStepString(this, this.maxBarrierSize);
+    }
+}
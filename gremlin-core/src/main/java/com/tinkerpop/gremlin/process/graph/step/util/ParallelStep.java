@@ -0,0 +1,179 @@
+package com.tinkerpop.gremlin.process.graph.step.util;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.Traverser;
+import com.tinkerpop.gremlin.process.graph.marker.Barrier;
+import com.tinkerpop.gremlin.process.graph.marker.SideEffectCapable;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.GroupCountStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.StartStep;
+import com.tinkerpop.gremlin.process.util.AbstractStep;
+import com.tinkerpop.gremlin.process.util.DefaultTraversal;
+import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
+import com.tinkerpop.gremlin.process.util.MapHelper;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.process.util.TraversalMetrics;
+import com.tinkerpop.gremlin.process.util.TraverserSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Execute a section of steps on partitions of the starts in parallel. The step reads its starts in rounds of up to
+ * {@link #PARTITIONS_PER_THREAD} * {@link #MIN_PARTITION_SIZE} starts per thread of the {@link ForkJoinPool}, splits
+ * every round into ranges and runs every range through its own clone of the steps on the pool. Every partition has
+ * its own side-effects, so that the steps of a partition can write to them without locking, and the side-effects of
+ * the {@link SideEffectCapable} steps are merged into the side-effects of the traversal once all partitions of a
+ * round are done. The ends of the partitions of a round are merged into a {@link TraverserSet} in the order of the
+ * partitions and are emitted before the next round is read, so a {@code limit()} or {@code next()} after the step
+ * reads at most a round ahead. Only if the section ends in a {@link Barrier} are all the starts processed before the
+ * first end is emitted.
+ * <p/>
+ * Only the side-effects of a {@link GroupCountStep} (a map of counts) and of the steps whose side-effect is a
+ * collection (e.g. {@code aggregate()} and {@code store()}) can be merged.
+ *
+ * @author agent (agent@local)
+ */
+public final class ParallelStep<S, E> extends AbstractStep<S, E> {
+
+    public static final int PARTITIONS_PER_THREAD = 4;
+    public static final int MIN_PARTITION_SIZE = 64;
+
+    private final List<Step> partitionSteps;
+    private final ForkJoinPool pool;
+    private final boolean barrier;
+    private TraverserSet<E> ends = new TraverserSet<>();
+
+    public ParallelStep(final Traversal traversal, final List<Step> partitionSteps, final ForkJoinPool pool) {
+        super(traversal);
+        this.partitionSteps = partitionSteps;
+        this.pool = pool;
+        this.barrier = !partitionSteps.isEmpty() && partitionSteps.get(partitionSteps.size() - 1) instanceof Barrier;
+    }
+
+    @Override
+    protected Traverser<E> processNextStart() {
+        while (this.ends.isEmpty()) {
+            if (!this.starts.hasNext())
+                throw FastNoSuchElementException.instance();
+            if (PROFILING_ENABLED) TraversalMetrics.start(this);
+            do {
+                this.processRound();
+            } while (this.barrier && this.starts.hasNext());
+            if (PROFILING_ENABLED) TraversalMetrics.stop(this);
+        }
+        return this.ends.remove();
+    }
+
+    public List<Step> getPartitionSteps() {
+        return Collections.unmodifiableList(this.partitionSteps);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.ends.clear();
+    }
+
+    @Override
+    public ParallelStep<S, E> clone() throws CloneNotSupportedException {
+        final ParallelStep<S, E> clone = (ParallelStep<S, E>) super.clone();
+        clone.ends = new TraverserSet<>();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return TraversalHelper.makeStepString(this, this.partitionSteps);
+    }
+
+    //////////////////////
+
+    private void processRound() {
+        final int roundSize = this.pool.getParallelism() * PARTITIONS_PER_THREAD * MIN_PARTITION_SIZE;
+        final List<Traverser.Admin<S>> starts = new ArrayList<>();
+        while (starts.size() < roundSize && this.starts.hasNext()) {
+            starts.add(this.starts.next());
+        }
+        final int partitionCount = Math.max(1, Math.min(this.pool.getParallelism() * PARTITIONS_PER_THREAD, starts.size() / MIN_PARTITION_SIZE));
+        final List<Traversal<S, E>> partitions = new ArrayList<>(partitionCount);
+        if (partitionCount == 1) {
+            partitions.add(this.createPartition());
+            this.ends.addAll(processPartition(partitions.get(0), starts));
+        } else {
+            final List<ForkJoinTask<TraverserSet<E>>> tasks = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                final Traversal<S, E> partition = this.createPartition();
+                final List<Traverser.Admin<S>> range = starts.subList(starts.size() * i / partitionCount, starts.size() * (i + 1) / partitionCount);
+                partitions.add(partition);
+                tasks.add(this.pool.submit(() -> processPartition(partition, range)));
+            }
+            tasks.forEach(task -> this.ends.addAll(task.join()));
+        }
+        partitions.forEach(this::mergeSideEffects);
+    }
+
+    /**
+     * A traversal of a {@link StartStep} and clones of the partition steps. The steps keep the labels they have in
+     * the traversal as the start step takes the place of the steps before them.
+     */
+    private Traversal<S, E> createPartition() {
+        final Traversal<S, E> partition = new DefaultTraversal<>(this.traversal.sideEffects().getGraph());
+        TraversalHelper.insertStep(new StartStep<>(partition), partition);
+        for (final Step<?, ?> step : this.partitionSteps) {
+            try {
+                final Step<?, ?> clonedStep = step.clone();
+                clonedStep.setTraversal(partition);
+                TraversalHelper.insertStep(clonedStep, partition);
+            } catch (final CloneNotSupportedException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            if (step instanceof SideEffectCapable) {
+                final String sideEffectKey = ((SideEffectCapable) step).getSideEffectKey();
+                this.traversal.sideEffects().getRegisteredSupplier(sideEffectKey).ifPresent(supplier -> partition.sideEffects().registerSupplier(sideEffectKey, supplier));
+            }
+        }
+        return partition;
+    }
+
+    private static <S, E> TraverserSet<E> processPartition(final Traversal<S, E> partition, final List<Traverser.Admin<S>> starts) {
+        TraversalHelper.getStart(partition).addStarts((Iterator) starts.iterator());
+        // drain the end step rather than the traversal as the strategies of the traversal were already applied
+        final Step<?, E> endStep = TraversalHelper.getEnd(partition);
+        final TraverserSet<E> ends = new TraverserSet<>();
+        try {
+            while (true) {
+                ends.add((Traverser.Admin<E>) endStep.next());
+            }
+        } catch (final NoSuchElementException ignored) {
+        }
+        return ends;
+    }
+
+    private void mergeSideEffects(final Traversal<S, E> partition) {
+        final Set<String> sideEffectKeys = new HashSet<>();
+        for (final Step<?, ?> step : this.partitionSteps) {
+            // steps may share a side-effect which is then merged once
+            if (!(step instanceof SideEffectCapable) || !sideEffectKeys.add(((SideEffectCapable) step).getSideEffectKey()))
+                continue;
+            final String sideEffectKey = ((SideEffectCapable) step).getSideEffectKey();
+            final Object value = partition.sideEffects().get(sideEffectKey);
+            if (step instanceof GroupCountStep) {
+                final Map<Object, Long> groupCountMap = this.traversal.sideEffects().get(sideEffectKey);
+                ((Map<Object, Long>) value).forEach((key, count) -> MapHelper.incr(groupCountMap, key, count));
+            } else if (value instanceof Collection) {
+                this.traversal.sideEffects().<Collection>get(sideEffectKey).addAll((Collection) value);
+            } else
+                throw new IllegalStateException("The side-effect of " + step + " can not be merged: " + value);
+        }
+    }
+}
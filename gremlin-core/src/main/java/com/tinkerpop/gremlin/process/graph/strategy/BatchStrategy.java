@@ -0,0 +1,94 @@
+package com.tinkerpop.gremlin.process.graph.strategy;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.TraversalEngine;
+import com.tinkerpop.gremlin.process.TraversalStrategy;
+import com.tinkerpop.gremlin.process.graph.marker.Ranging;
+import com.tinkerpop.gremlin.process.graph.marker.Reducing;
+import com.tinkerpop.gremlin.process.graph.step.filter.FilterStep;
+import com.tinkerpop.gremlin.process.graph.step.map.FlatMapStep;
+import com.tinkerpop.gremlin.process.graph.step.map.MapStep;
+import com.tinkerpop.gremlin.process.util.AbstractStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Has the unlabeled {@link FilterStep}, {@link MapStep} and {@link FlatMapStep} steps (e.g. {@code has()},
+ * {@code values()} and {@code out()}) of a standard traversal exchange their traversers in batches. A batching step
+ * pulls a batch of starts from the previous step and processes it in one loop, which saves the calls per traverser
+ * between the steps. As a batching step reads ahead of the next step, a lambda or a lazy side-effect is evaluated
+ * for up to a batch of traversers before the next step sees the first of them, so the strategy is not registered
+ * by default. Reducing steps like {@code fold()} and ranging steps like {@code limit()} are not batched. A labeled
+ * step sets its label in the side-effects per traverser, so neither it nor the steps after it are batched.
+ *
+ * @author agent (agent@local)
+ */
+public class BatchStrategy extends AbstractTraversalStrategy {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final BatchStrategy INSTANCE = new BatchStrategy(DEFAULT_BATCH_SIZE);
+    private static final Set<Class<? extends TraversalStrategy>> PRIORS = new HashSet<>();
+
+    static {
+        PRIORS.add(ChooseLinearStrategy.class);
+        PRIORS.add(CollapsingBarrierStrategy.class);
+        PRIORS.add(ComparingRemovalStrategy.class);
+        PRIORS.add(DedupOptimizerStrategy.class);
+        PRIORS.add(EngineDependentStrategy.class);
+        PRIORS.add(IdentityRemovalStrategy.class);
+        PRIORS.add(LabeledEndStepStrategy.class);
+        PRIORS.add(LocalRangeStrategy.class);
+        PRIORS.add(MatchWhereStrategy.class);
+        PRIORS.add(ReducingStrategy.class);
+        PRIORS.add(SideEffectCapStrategy.class);
+        PRIORS.add(TraverserSourceStrategy.class);
+        PRIORS.add(UnionLinearStrategy.class);
+        PRIORS.add(UnrollJumpStrategy.class);
+        PRIORS.add(UntilStrategy.class);
+    }
+
+    private final int batchSize;
+
+    private BatchStrategy(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void apply(final Traversal<?, ?> traversal, final TraversalEngine engine) {
+        if (engine.equals(TraversalEngine.COMPUTER))
+            return;
+
+        for (final Step<?, ?> step : traversal.getSteps()) {
+            // the steps after a labeled step would read ahead of the value of the label in the side-effects
+            if (TraversalHelper.isLabeled(step))
+                return;
+            // reducing steps consume their own starts and ranging steps must not read past their range
+            if ((step instanceof FilterStep || step instanceof MapStep || step instanceof FlatMapStep) &&
+                    !(step instanceof Reducing) && !(step instanceof Ranging))
+                ((AbstractStep) step).setBatchSize(this.batchSize);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends TraversalStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public static BatchStrategy instance() {
+        return INSTANCE;
+    }
+
+    public static BatchStrategy instance(final int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        return batchSize == DEFAULT_BATCH_SIZE ? INSTANCE : new BatchStrategy(batchSize);
+    }
+}
@@ -0,0 +1,118 @@
+package com.tinkerpop.gremlin.process.graph.strategy;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.TraversalEngine;
+import com.tinkerpop.gremlin.process.TraversalStrategy;
+import com.tinkerpop.gremlin.process.graph.step.filter.HasStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.IntervalStep;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.CountStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.GroupCountStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.IdentityStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.SideEffectCapStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.StoreStep;
+import com.tinkerpop.gremlin.process.graph.step.util.CollapsingBarrierStep;
+import com.tinkerpop.gremlin.process.util.EmptyStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Insert a {@link CollapsingBarrierStep} after every {@link VertexStep} of a standard traversal, and after the
+ * {@code has()} and {@code interval()} steps that follow it, if the next step is another vertex step or a
+ * {@code count()}, {@code groupCount()} or {@code store()} step. The traversers that reach the same element are then
+ * merged into one traverser before the next step processes them, so on a densely connected graph
+ * {@code g.V().out().out().out().groupCount()} processes a traverser per distinct vertex per step rather than a
+ * traverser per walk. A merged traverser stands for many walks, so a barrier is only inserted if the steps from it
+ * to the end of the traversal honour the bulk of a traverser. Neither {@code fold()}, which adds a merged traverser
+ * once, nor the steps with lambdas, like {@code groupBy()} and {@code groupCount(function)}, do.
+ * <p/>
+ * Traversers are only equal if they are at the same object, so the strategy does not apply to traversals that
+ * track paths or carry a sack. A step after a labeled step would read ahead of the value of the label in the
+ * side-effects, so no barrier is inserted after the first labeled step.
+ * <p/>
+ * A barrier reads up to {@link #MAX_BARRIER_SIZE} traversers ahead of the steps after it, so the strategy is not
+ * registered by default and is applied to the traversals that benefit from it.
+ *
+ * @author agent (agent@local)
+ */
+public class CollapsingBarrierStrategy extends AbstractTraversalStrategy {
+
+    public static final int MAX_BARRIER_SIZE = 1000;
+
+    private static final CollapsingBarrierStrategy INSTANCE = new CollapsingBarrierStrategy();
+    private static final Set<Class<? extends TraversalStrategy>> PRIORS = new HashSet<>();
+
+    static {
+        PRIORS.add(ChooseLinearStrategy.class);
+        PRIORS.add(ComparingRemovalStrategy.class);
+        PRIORS.add(DedupOptimizerStrategy.class);
+        PRIORS.add(EngineDependentStrategy.class);
+        PRIORS.add(IdentityRemovalStrategy.class);
+        PRIORS.add(LabeledEndStepStrategy.class);
+        PRIORS.add(LocalRangeStrategy.class);
+        PRIORS.add(MatchWhereStrategy.class);
+        PRIORS.add(ReducingStrategy.class);
+        PRIORS.add(SideEffectCapStrategy.class);
+        // the vendor strategies that rewrite vertex steps apply prior to the traverser source strategy
+        PRIORS.add(TraverserSourceStrategy.class);
+        PRIORS.add(UnionLinearStrategy.class);
+        PRIORS.add(UnrollJumpStrategy.class);
+        PRIORS.add(UntilStrategy.class);
+    }
+
+    private CollapsingBarrierStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal<?, ?> traversal, final TraversalEngine engine) {
+        if (engine.equals(TraversalEngine.COMPUTER))
+            return;
+        if (TraversalHelper.trackPaths(traversal) || traversal.sideEffects().getSackInitialValue().isPresent())
+            return;
+
+        for (final Step<?, ?> step : new ArrayList<>(traversal.getSteps())) {
+            if (TraversalHelper.isLabeled(step))
+                return;
+            if (step instanceof VertexStep) {
+                // collapse after the filters that have no lambdas so the barrier does not read ahead of user code
+                Step<?, ?> currentStep = step.getNextStep();
+                while ((currentStep instanceof HasStep || currentStep instanceof IntervalStep || currentStep instanceof IdentityStep) &&
+                        !TraversalHelper.isLabeled(currentStep)) {
+                    currentStep = currentStep.getNextStep();
+                }
+                if (honoursBulk(currentStep) && honoursBulkToTheEnd(currentStep.getNextStep()))
+                    TraversalHelper.insertBeforeStep(new CollapsingBarrierStep<>(traversal, MAX_BARRIER_SIZE), currentStep, traversal);
+            }
+        }
+    }
+
+    private static boolean honoursBulk(final Step<?, ?> step) {
+        if (step instanceof GroupCountStep)
+            return null == ((GroupCountStep) step).getPreGroupFunction();
+        if (step instanceof StoreStep)
+            return null == ((StoreStep) step).getPreStoreFunction();
+        return step instanceof VertexStep || step instanceof CountStep;
+    }
+
+    private static boolean honoursBulkToTheEnd(Step<?, ?> step) {
+        for (; !(step instanceof EmptyStep); step = step.getNextStep()) {
+            if (!honoursBulk(step) && !(step instanceof HasStep || step instanceof IntervalStep ||
+                    step instanceof IdentityStep || step instanceof SideEffectCapStep))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Class<? extends TraversalStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static CollapsingBarrierStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,140 @@
+package com.tinkerpop.gremlin.process.graph.strategy;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.TraversalEngine;
+import com.tinkerpop.gremlin.process.TraversalStrategy;
+import com.tinkerpop.gremlin.process.graph.marker.Barrier;
+import com.tinkerpop.gremlin.process.graph.marker.EngineDependent;
+import com.tinkerpop.gremlin.process.graph.marker.Ranging;
+import com.tinkerpop.gremlin.process.graph.marker.Reducing;
+import com.tinkerpop.gremlin.process.graph.step.branch.ChooseStep;
+import com.tinkerpop.gremlin.process.graph.step.branch.UntilStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.ExceptStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.FilterStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.RetainStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.TimeLimitStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.WhereStep;
+import com.tinkerpop.gremlin.process.graph.step.map.FlatMapStep;
+import com.tinkerpop.gremlin.process.graph.step.map.MapStep;
+import com.tinkerpop.gremlin.process.graph.step.map.PathStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.AggregateStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.GraphStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.GroupCountStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.IdentityStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.ProfileStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.StoreStep;
+import com.tinkerpop.gremlin.process.graph.step.util.CollapsingBarrierStep;
+import com.tinkerpop.gremlin.process.graph.step.util.ParallelStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Execute the partition-safe steps after the {@link GraphStep} of a standard traversal in parallel. The steps are
+ * moved into a {@link ParallelStep} that splits the elements of the graph step into ranges and runs every range
+ * through its own clone of the steps on a {@link ForkJoinPool}. The steps after them run on the merged ends.
+ * <p/>
+ * A step is partition-safe if it processes every traverser on its own and keeps no state that is shared by its
+ * clones: filter, map and flat map steps like {@code has()}, {@code out()} and {@code values()}, as well as
+ * {@code groupCount()}, {@code store()} and {@code aggregate()} whose side-effects are merged once all partitions
+ * are done. Reducing and ranging steps, steps that read side-effects or nest traversals, labeled steps and steps
+ * with lambdas that are not filters or maps end the parallel section, as does {@code aggregate()} as the steps
+ * after it read the whole aggregate. The lambdas of the parallel section are called concurrently and the elements
+ * of the graph are read by the threads of the pool, so the strategy is not registered by default, leaves the
+ * traversals of a graph that does not support concurrent access untouched and must only be used with thread-safe
+ * lambdas.
+ *
+ * @author agent (agent@local)
+ */
+public class ParallelStrategy extends AbstractTraversalStrategy {
+
+    private static final ParallelStrategy INSTANCE = new ParallelStrategy(ForkJoinPool.commonPool());
+    private static final Set<Class<? extends TraversalStrategy>> PRIORS = new HashSet<>();
+
+    static {
+        PRIORS.add(BatchStrategy.class);
+        PRIORS.add(ChooseLinearStrategy.class);
+        PRIORS.add(CollapsingBarrierStrategy.class);
+        PRIORS.add(ComparingRemovalStrategy.class);
+        PRIORS.add(DedupOptimizerStrategy.class);
+        PRIORS.add(EngineDependentStrategy.class);
+        PRIORS.add(IdentityRemovalStrategy.class);
+        PRIORS.add(LabeledEndStepStrategy.class);
+        PRIORS.add(LocalRangeStrategy.class);
+        PRIORS.add(MatchWhereStrategy.class);
+        PRIORS.add(ReducingStrategy.class);
+        PRIORS.add(SideEffectCapStrategy.class);
+        // the starts of the graph step are generated by the traverser source strategy
+        PRIORS.add(TraverserSourceStrategy.class);
+        PRIORS.add(UnionLinearStrategy.class);
+        PRIORS.add(UnrollJumpStrategy.class);
+        PRIORS.add(UntilStrategy.class);
+    }
+
+    private final ForkJoinPool pool;
+
+    private ParallelStrategy(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void apply(final Traversal<?, ?> traversal, final TraversalEngine engine) {
+        if (engine.equals(TraversalEngine.COMPUTER))
+            return;
+        // the partitions read the graph from the threads of the pool
+        if (!traversal.sideEffects().graphExists() || !traversal.sideEffects().getGraph().features().graph().supportsConcurrentAccess())
+            return;
+        // traversers with sacks are not merged and profiled steps are timed per thread
+        if (traversal.sideEffects().getSackInitialValue().isPresent() || TraversalHelper.hasStepOfClass(ProfileStep.class, traversal))
+            return;
+        final List<Step> steps = traversal.getSteps();
+        if (steps.isEmpty() || !(steps.get(0) instanceof GraphStep) || TraversalHelper.isLabeled(steps.get(0)))
+            return;
+
+        final List<Step> partitionSteps = new ArrayList<>();
+        for (int i = 1; i < steps.size() && isPartitionSafe(steps.get(i)); i++) {
+            partitionSteps.add(steps.get(i));
+            if (steps.get(i) instanceof Barrier)
+                break;
+        }
+        if (partitionSteps.isEmpty())
+            return;
+        partitionSteps.forEach(step -> TraversalHelper.removeStep(step, traversal));
+        TraversalHelper.insertStep(new ParallelStep<>(traversal, partitionSteps, this.pool), 1, traversal);
+    }
+
+    @Override
+    public Set<Class<? extends TraversalStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public ForkJoinPool getPool() {
+        return this.pool;
+    }
+
+    public static ParallelStrategy instance() {
+        return INSTANCE;
+    }
+
+    public static ParallelStrategy instance(final ForkJoinPool pool) {
+        return new ParallelStrategy(pool);
+    }
+
+    private static boolean isPartitionSafe(final Step<?, ?> step) {
+        if (TraversalHelper.isLabeled(step))
+            return false;
+        if (step instanceof GroupCountStep || step instanceof StoreStep || step instanceof AggregateStep ||
+                step instanceof CollapsingBarrierStep || step instanceof IdentityStep)
+            return true;
+        return (step instanceof FilterStep || step instanceof MapStep || step instanceof FlatMapStep) &&
+                !(step instanceof Reducing || step instanceof Ranging || step instanceof EngineDependent ||
+                        step instanceof ExceptStep || step instanceof RetainStep || step instanceof WhereStep ||
+                        step instanceof TimeLimitStep || step instanceof ChooseStep || step instanceof UntilStep ||
+                        step instanceof PathStep);
+    }
+}
@@ -6,6 +6,7 @@ import com.tinkerpop.gremlin.process.Traversal;
 import com.tinkerpop.gremlin.process.Traverser;
 import com.tinkerpop.gremlin.structure.Graph;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -24,7 +25,12 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
     protected Step<?, S> previousStep = EmptyStep.instance();
     protected Step<E, ?> nextStep = EmptyStep.instance();
     protected final static boolean PROFILING_ENABLED = "true".equals(System.getProperty(TraversalMetrics.PROFILING_ENABLED));
-    
+
+    // the ends of a batching step that were processed but not yet taken by the next step
+    private Traverser.Admin<E>[] batch = null;
+    private int batchHead = 0;
+    private int batchTail = 0;
+
     public AbstractStep(final Traversal traversal) {
         this.traversal = traversal;
         this.starts = new ExpandableStepIterator<S>((Step) this);
@@ -36,6 +42,24 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         this.starts.clear();
         this.available = false;
         this.nextEnd = null;
+        if (null != this.batch) {
+            Arrays.fill(this.batch, null);
+            this.batchHead = this.batchTail = 0;
+        }
+    }
+
+    /**
+     * Process the starts of the step in batches of the size rather than one traverser at a time. A batching step
+     * reads ahead of the next step by up to a batch, see {@link com.tinkerpop.gremlin.process.graph.strategy.BatchStrategy}.
+     * A size of 0 processes one traverser at a time. Batching is ignored while profiling.
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batch = batchSize > 0 && !PROFILING_ENABLED ? new Traverser.Admin[batchSize] : null;
+        this.batchHead = this.batchTail = 0;
+    }
+
+    public int getBatchSize() {
+        return null == this.batch ? 0 : this.batch.length;
     }
 
     @Override
@@ -80,7 +104,14 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
 
     @Override
     public Traverser<E> next() {
-        if (this.available) {
+        if (null != this.batch) {
+            if (this.batchHead == this.batchTail && !this.fillBatch())
+                throw FastNoSuchElementException.instance();
+            final Traverser.Admin<E> traverser = this.batch[this.batchHead];
+            this.batch[this.batchHead++] = null;
+            prepareTraversalForNextStep(traverser);
+            return traverser;
+        } else if (this.available) {
             this.available = false;
             prepareTraversalForNextStep(this.nextEnd);
             return this.nextEnd;
@@ -97,7 +128,9 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
 
     @Override
     public boolean hasNext() {
-        if (this.available)
+        if (null != this.batch)
+            return this.batchHead < this.batchTail || this.fillBatch();
+        else if (this.available)
             return true;
         else {
             try {
@@ -125,8 +158,55 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         this.traversal = traversal;
     }
 
+    /**
+     * Move the next ends of the step into the array, starting at the offset, until the array is full or the step
+     * has no more ends. A batching step hands over its processed batch at once.
+     *
+     * @return the offset after the last end moved into the array
+     */
+    public int nextBatch(final Traverser.Admin<E>[] ends, int offset) {
+        if (null == this.batch) {
+            while (offset < ends.length && this.hasNext()) {
+                ends[offset++] = (Traverser.Admin<E>) this.next();
+            }
+            return offset;
+        }
+        while (offset < ends.length && (this.batchHead < this.batchTail || this.fillBatch())) {
+            final int size = Math.min(ends.length - offset, this.batchTail - this.batchHead);
+            for (int i = 0; i < size; i++) {
+                final Traverser.Admin<E> traverser = this.batch[this.batchHead + i];
+                this.batch[this.batchHead + i] = null;
+                prepareTraversalForNextStep(traverser);
+                ends[offset + i] = traverser;
+            }
+            this.batchHead = this.batchHead + size;
+            offset = offset + size;
+        }
+        return offset;
+    }
+
     protected abstract Traverser<E> processNextStart() throws NoSuchElementException;
 
+    /**
+     * Process the next starts of a batching step into the array of ends. The default implementation calls
+     * {@link #processNextStart()} for every end. Steps that can process a batch of starts pulled with
+     * {@link ExpandableStepIterator#next(Traverser.Admin[])} in one loop override it.
+     *
+     * @return the number of ends processed into the array or -1 if there are no more starts
+     */
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) {
+        int size = 0;
+        try {
+            while (size < ends.length) {
+                ends[size] = (Traverser.Admin<E>) this.processNextStart();
+                size++;
+            }
+            return size;
+        } catch (final NoSuchElementException e) {
+            return size == 0 ? -1 : size;
+        }
+    }
+
     public String toString() {
         return TraversalHelper.makeStepString(this);
     }
@@ -139,9 +219,32 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         step.nextStep = EmptyStep.instance();
         step.available = false;
         step.nextEnd = null;
+        if (null != this.batch)
+            step.setBatchSize(this.batch.length);
         return step;
     }
 
+    private boolean fillBatch() {
+        this.batchHead = this.batchTail = 0;
+        while (true) {
+            final int size = this.processNextBatch(this.batch);
+            if (size < 0)
+                return false;
+            // traversers with a bulk of 0 are dropped as they are by next()
+            int tail = 0;
+            for (int i = 0; i < size; i++) {
+                final Traverser.Admin<E> traverser = this.batch[i];
+                this.batch[i] = null;
+                if (traverser.bulk() != 0)
+                    this.batch[tail++] = traverser;
+            }
+            if (tail > 0) {
+                this.batchTail = tail;
+                return true;
+            }
+        }
+    }
+
     private void prepareTraversalForNextStep(final Traverser<E> traverser) {
         if (!this.futureSetByChild)
             ((Traverser.Admin<E>) traverser).setFuture(this.nextStep.getLabel());
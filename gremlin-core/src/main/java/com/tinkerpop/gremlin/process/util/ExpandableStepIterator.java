@@ -40,6 +40,33 @@ public class ExpandableStepIterator<E> implements Iterator<Traverser.Admin<E>> {
 
     }
 
+    /**
+     * Move the next starts into the array until it is full or there are no more starts, pulling a batch from the
+     * previous step.
+     *
+     * @return the number of starts moved into the array
+     */
+    public int next(final Traverser.Admin<E>[] starts) {
+        int size = 0;
+        while (size < starts.length && !this.traverserSet.isEmpty()) {
+            starts[size++] = this.traverserSet.remove();
+        }
+        while (size < starts.length && this.traverserIterators.hasNext()) {
+            starts[size++] = this.traverserIterators.next();
+        }
+        if (size < starts.length) {
+            final Step<?, E> previousStep = (Step<?, E>) this.hostStep.getPreviousStep();
+            if (previousStep instanceof AbstractStep)
+                size = ((AbstractStep<?, E>) previousStep).nextBatch(starts, size);
+            else {
+                while (size < starts.length && previousStep.hasNext()) {
+                    starts[size++] = (Traverser.Admin<E>) previousStep.next();
+                }
+            }
+        }
+        return size;
+    }
+
     public void add(final Iterator<Traverser.Admin<E>> iterator) {
         this.traverserIterators.addIterator(iterator);
     }
@@ -4,18 +4,45 @@ import com.tinkerpop.gremlin.process.Path;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
+ * A path as a persistent list whose head is the last step of the path. Extending the path creates a new head that
+ * shares this path as its tail, so the traversers split from a traverser share the path up to their own steps and
+ * a split costs one object no matter the length of the path. The size of the path is kept at every head and a head
+ * with a single label keeps it as a singleton set.
+ * <p/>
+ * The objects and labels of the path and an index of the user labels of the path are built at a head the first
+ * time they are read and are kept with it, as the steps that read the path of a traverser, like {@code select()}
+ * and {@code back()}, read it once per label. {@link #objects()} and {@link #labels()} return mutable copies of the
+ * kept lists. A head takes the label index of the previous head over rather than walking the path again, so of a
+ * path that is read at every step only the index of the last head is kept. Adding a label to the head drops the
+ * label index and the labels of the head, but not those of the paths that extend it, so labels must be added before
+ * the path is extended.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class ImmutablePath implements Path, Serializable, Cloneable {
 
     private Path previousPath = EmptyPath.instance();
-    private Set<String> currentLabels = new HashSet<>();
+    private Set<String> currentLabels;
     private Object currentObject;
+    private int size;
+
+    private transient List<Object> objects = null;
+    private transient List<Set<String>> labels = null;
+    // the objects of the user labels of the path, a list of the objects in path order if a label repeats
+    private transient Map<String, Object> labelIndex = null;
+    private transient Boolean simple = null;
 
     protected ImmutablePath() {
 
@@ -39,18 +66,22 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
 
     private ImmutablePath(final Path previousPath, final String currentLabel, final Object currentObject) {
         this.previousPath = previousPath;
-        this.currentLabels.add(currentLabel);
+        this.currentLabels = Collections.singleton(currentLabel);
         this.currentObject = currentObject;
+        this.size = previousPath.size() + 1;
     }
 
     private ImmutablePath(final Path previousPath, final Set<String> currentLabels, final Object currentObject) {
         this.previousPath = previousPath;
-        this.currentLabels.addAll(currentLabels);
+        this.currentLabels = currentLabels.size() == 1 ?
+                Collections.singleton(currentLabels.iterator().next()) :
+                new HashSet<>(currentLabels);
         this.currentObject = currentObject;
+        this.size = previousPath.size() + 1;
     }
 
     public int size() {
-        return this.previousPath.size() + 1;
+        return this.size;
     }
 
     public Path extend(final String label, final Object object) {
@@ -62,33 +93,198 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
     }
 
     public <A> A get(final int index) {
-        return (this.size() - 1) == index ? (A) this.currentObject : this.previousPath.get(index);
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        ImmutablePath path = this;
+        for (int i = this.size - 1; i > index; i--) {
+            path = (ImmutablePath) path.previousPath;
+        }
+        return (A) path.currentObject;
+    }
+
+    public <A> A get(final String label) throws IllegalArgumentException {
+        if (TraversalHelper.isLabeled(label)) {
+            final Map<String, Object> labelIndex = this.getLabelIndex();
+            final Object object = labelIndex.get(label);
+            if (null == object && !labelIndex.containsKey(label))
+                throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
+            // the lists of the index are kept, so return a copy as the default get() returns a new list
+            return object instanceof LabelObjects ? (A) new ArrayList<>((List) object) : (A) object;
+        }
+        // the labels of the steps are looked up by walking the path as they are labels of a single step
+        Object object = null;
+        for (Path path = this; path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+            final ImmutablePath immutablePath = (ImmutablePath) path;
+            if (immutablePath.currentLabels.contains(label)) {
+                if (null == object) {
+                    object = immutablePath.currentObject;
+                } else if (object instanceof LabelObjects) {
+                    ((List) object).add(0, immutablePath.currentObject);
+                } else {
+                    object = new LabelObjects(immutablePath.currentObject, object);
+                }
+            }
+        }
+        if (null == object)
+            throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
+        return object instanceof LabelObjects ? (A) new ArrayList<>((List) object) : (A) object;
     }
 
     public boolean hasLabel(final String label) {
-        return this.currentLabels.contains(label) || this.previousPath.hasLabel(label);
+        if (TraversalHelper.isLabeled(label))
+            return this.getLabelIndex().containsKey(label);
+        for (Path path = this; path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+            if (((ImmutablePath) path).currentLabels.contains(label))
+                return true;
+        }
+        return false;
     }
 
     public void addLabel(final String label) {
-        if (TraversalHelper.isLabeled(label))
+        if (TraversalHelper.isLabeled(label) && !this.currentLabels.contains(label)) {
+            if (!(this.currentLabels instanceof HashSet))
+                this.currentLabels = new HashSet<>(this.currentLabels);
             this.currentLabels.add(label);
+            this.labels = null;
+            this.labelIndex = null;
+        }
     }
 
     public List<Object> objects() {
-        final List<Object> objectPath = new ArrayList<>();
-        objectPath.addAll(this.previousPath.objects());
-        objectPath.add(this.currentObject);
-        return objectPath;
+        return new ArrayList<>(this.getObjects());
     }
 
     public List<Set<String>> labels() {
-        final List<Set<String>> labelPath = new ArrayList<>();
-        labelPath.addAll(this.previousPath.labels());
-        labelPath.add(this.currentLabels);
-        return labelPath;
+        return new ArrayList<>(this.getLabels());
+    }
+
+    /**
+     * A simple path has a simple tail and the object of its head is not in its tail, which is kept with every head.
+     */
+    public boolean isSimple() {
+        if (null == this.simple) {
+            if (this.previousPath instanceof ImmutablePath && null == ((ImmutablePath) this.previousPath).simple) {
+                this.simple = new HashSet<>(this.getObjects()).size() == this.size;
+            } else {
+                boolean simple = this.previousPath.isSimple();
+                for (Path path = this.previousPath; simple && path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+                    if (Objects.equals(((ImmutablePath) path).currentObject, this.currentObject))
+                        simple = false;
+                }
+                this.simple = simple;
+            }
+        }
+        return this.simple;
+    }
+
+    public void forEach(final Consumer<Object> consumer) {
+        this.getObjects().forEach(consumer);
+    }
+
+    public void forEach(final BiConsumer<Set<String>, Object> consumer) {
+        final ImmutablePath[] paths = this.heads();
+        for (final ImmutablePath path : paths) {
+            consumer.accept(path.currentLabels, path.currentObject);
+        }
     }
 
     public String toString() {
-        return this.objects().toString();
+        return this.getObjects().toString();
+    }
+
+    //////////////////////
+
+    /**
+     * The heads of the path in path order, the first step of the path being the first head.
+     */
+    private ImmutablePath[] heads() {
+        final ImmutablePath[] paths = new ImmutablePath[this.size];
+        int i = this.size;
+        for (Path path = this; path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+            paths[--i] = (ImmutablePath) path;
+        }
+        return paths;
+    }
+
+    /**
+     * The objects of the path which are kept with the head of the path, so that {@link #objects()} returns a copy.
+     */
+    private List<Object> getObjects() {
+        if (null == this.objects) {
+            final Object[] objects = new Object[this.size];
+            int i = this.size;
+            for (Path path = this; path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+                objects[--i] = ((ImmutablePath) path).currentObject;
+            }
+            this.objects = Arrays.asList(objects);
+        }
+        return this.objects;
+    }
+
+    /**
+     * The labels of the path which are kept with the head of the path, so that {@link #labels()} returns a copy.
+     */
+    private List<Set<String>> getLabels() {
+        if (null == this.labels) {
+            final Set<String>[] labels = new Set[this.size];
+            int i = this.size;
+            for (Path path = this; path instanceof ImmutablePath; path = ((ImmutablePath) path).previousPath) {
+                labels[--i] = ((ImmutablePath) path).currentLabels;
+            }
+            this.labels = Arrays.asList(labels);
+        }
+        return this.labels;
+    }
+
+    private Map<String, Object> getLabelIndex() {
+        Map<String, Object> labelIndex = this.labelIndex;
+        if (null == labelIndex) {
+            final Map<String, Object> previousIndex = this.previousPath instanceof ImmutablePath ?
+                    ((ImmutablePath) this.previousPath).labelIndex :
+                    null;
+            if (null != previousIndex) {
+                // the lists of the previous index are not modified as another head may take the index over too
+                labelIndex = new HashMap<>(previousIndex);
+                ((ImmutablePath) this.previousPath).labelIndex = null;
+                index(labelIndex, this, true);
+            } else {
+                // the heads are indexed in turn so that the objects of a repeated label are in path order
+                labelIndex = new HashMap<>();
+                for (final ImmutablePath path : this.heads()) {
+                    index(labelIndex, path, false);
+                }
+            }
+            this.labelIndex = labelIndex;
+        }
+        return labelIndex;
+    }
+
+    private static void index(final Map<String, Object> labelIndex, final ImmutablePath path, final boolean shared) {
+        for (final String label : path.currentLabels) {
+            if (!TraversalHelper.isLabeled(label))
+                continue;
+            final Object object = labelIndex.get(label);
+            if (null == object && !labelIndex.containsKey(label))
+                labelIndex.put(label, path.currentObject);
+            else if (object instanceof LabelObjects && !shared)
+                ((List) object).add(path.currentObject);
+            else
+                labelIndex.put(label, new LabelObjects(object, path.currentObject));
+        }
+    }
+
+    /**
+     * The objects of a label that repeats in the path, told apart from an object of the path that is a list.
+     */
+    private static final class LabelObjects extends ArrayList<Object> {
+
+        private LabelObjects(final Object objects, final Object object) {
+            super(objects instanceof LabelObjects ? ((List) objects).size() + 4 : 4);
+            if (objects instanceof LabelObjects)
+                this.addAll((List) objects);
+            else
+                this.add(objects);
+            this.add(object);
+        }
     }
 }
@@ -2,56 +2,89 @@ package com.tinkerpop.gremlin.process.util;
 
 import com.tinkerpop.gremlin.process.Traverser;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
-import java.util.Spliterator;
 
 /**
+ * A set of traversers in insertion order where adding a traverser that is equal to a traverser of the set merges
+ * their bulks. The traversers are kept in an array in insertion order and found by an open addressing table of their
+ * indices, so adding a traverser creates no entry objects and polling the first traverser creates no iterator.
+ * Removed traversers leave holes in the array that are compacted away when the array is full. Clearing the set
+ * keeps its arrays, so a set can be reused for many batches of traversers.
+ * <p/>
+ * The iterators of the set are fail-fast for traversers that are added or removed other than by the iterator.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements Set<Traverser.Admin<S>>, Queue<Traverser.Admin<S>>, Serializable {
 
-    private final Map<Traverser.Admin<S>, Traverser.Admin<S>> map = new LinkedHashMap<>();
+    private static final int INITIAL_CAPACITY = 8;
+
+    // the traversers in insertion order with null holes for removed traversers, and their hash codes
+    private transient Traverser.Admin<S>[] traversers;
+    private transient int[] hashes;
+    // the index of the traverser plus one in the slot of its hash code, 0 marks a free slot
+    private transient int[] table;
+    private transient int head = 0;
+    private transient int tail = 0;
+    private transient int size = 0;
+    private transient int modCount = 0;
+
+    public TraverserSet() {
+        this.allocate(INITIAL_CAPACITY);
+    }
 
     @Override
     public Iterator<Traverser.Admin<S>> iterator() {
-        return this.map.keySet().iterator();
+        return new TraverserSetIterator();
     }
 
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.size;
     }
 
     @Override
     public boolean contains(final Object traverser) {
-        return this.map.containsKey(traverser);
+        return traverser instanceof Traverser.Admin && this.find(traverser, hash(traverser)) >= 0;
     }
 
     @Override
     public boolean add(final Traverser.Admin<S> traverser) {
-        final Traverser.Admin<S> existing = this.map.get(traverser);
-        if (null == existing) {
-            this.map.put(traverser, traverser);
-            return true;
-        } else {
-            existing.merge(traverser);
+        final int hash = hash(traverser);
+        int slot = this.find(traverser, hash);
+        if (slot >= 0) {
+            this.traversers[this.table[slot] - 1].merge(traverser);
             return false;
         }
+        if (this.tail == this.traversers.length) {
+            // compact the holes away if that frees a quarter of the array, else double the array
+            this.rebuild(this.size <= (this.traversers.length >> 1) + (this.traversers.length >> 2) ?
+                    this.traversers.length :
+                    this.traversers.length << 1);
+            slot = this.find(traverser, hash);
+        }
+        this.traversers[this.tail] = traverser;
+        this.hashes[this.tail] = hash;
+        this.table[-slot - 1] = ++this.tail;
+        this.size++;
+        this.modCount++;
+        return true;
     }
 
     @Override
@@ -61,49 +94,239 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     @Override
     public Traverser.Admin<S> remove() {  // pop, exception if empty
-        return this.map.remove(this.iterator().next());
+        if (0 == this.size)
+            throw FastNoSuchElementException.instance();
+        return this.poll();
     }
 
     @Override
     public Traverser.Admin<S> poll() {  // pop, null if empty
-        return this.map.isEmpty() ? null : this.remove();
+        if (0 == this.size)
+            return null;
+        this.skipHoles();
+        final Traverser.Admin<S> traverser = this.traversers[this.head];
+        this.removeIndex(this.head);
+        return traverser;
     }
 
     @Override
     public Traverser.Admin<S> element() { // peek, exception if empty
-        return this.iterator().next();
+        if (0 == this.size)
+            throw FastNoSuchElementException.instance();
+        return this.peek();
     }
 
     @Override
     public Traverser.Admin<S> peek() { // peek, null if empty
-        return this.map.isEmpty() ? null : this.iterator().next();
+        if (0 == this.size)
+            return null;
+        this.skipHoles();
+        return this.traversers[this.head];
     }
 
     @Override
     public boolean remove(final Object traverser) {
-        return this.map.remove(traverser) != null;
+        if (!(traverser instanceof Traverser.Admin))
+            return false;
+        final int slot = this.find(traverser, hash(traverser));
+        if (slot < 0)
+            return false;
+        this.removeIndex(this.table[slot] - 1);
+        return true;
     }
 
+    /**
+     * Remove all the traversers but keep the arrays of the set for the traversers added next. Only the slots of the
+     * traversers are freed unless the traversers fill much of the table, so clearing a set that grew large for one
+     * batch does not cost the size of its table for every small batch after it.
+     */
     @Override
     public void clear() {
-        this.map.clear();
+        if (0 != this.tail) {
+            if (this.size > (this.table.length >> 3)) {
+                Arrays.fill(this.table, 0);
+            } else {
+                final int mask = this.table.length - 1;
+                for (int i = this.head; i < this.tail; i++) {
+                    if (null != this.traversers[i]) {
+                        // every slot is freed so the probe sequences need not be repaired
+                        int slot = this.hashes[i] & mask;
+                        while (this.table[slot] != i + 1) {
+                            slot = (slot + 1) & mask;
+                        }
+                        this.table[slot] = 0;
+                    }
+                }
+            }
+            Arrays.fill(this.traversers, this.head, this.tail, null);
+            this.head = this.tail = this.size = 0;
+            this.modCount++;
+        }
     }
 
-    @Override
-    public Spliterator<Traverser.Admin<S>> spliterator() {
-        return this.map.keySet().spliterator();
+    /**
+     * Sort the traversers in place.
+     */
+    public void sort(final Comparator<Traverser<S>> comparator) {
+        this.rebuild(this.traversers.length);
+        Arrays.sort(this.traversers, 0, this.size, comparator);
+        // the traversers moved so their hash codes and slots must follow
+        for (int i = 0; i < this.size; i++) {
+            this.hashes[i] = hash(this.traversers[i]);
+        }
+        this.rebuild(this.traversers.length);
     }
 
-    @Override
-    public String toString() {
-        return this.map.keySet().toString();
+    //////////////////////
+
+    private static int hash(final Object traverser) {
+        final int hash = traverser.hashCode();
+        return hash ^ (hash >>> 16);
     }
 
-    public void sort(final Comparator<Traverser<S>> comparator) {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.keySet());
-        Collections.sort(list, comparator);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+    private void allocate(final int capacity) {
+        this.traversers = new Traverser.Admin[capacity];
+        this.hashes = new int[capacity];
+        // the table is at most half full as it has twice the slots of the array
+        this.table = new int[capacity << 1];
+    }
+
+    /**
+     * The slot of the traverser that is equal to the given one or, if there is none, -1 minus the free slot to put it.
+     */
+    private int find(final Object traverser, final int hash) {
+        final int mask = this.table.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while (0 != (entry = this.table[slot])) {
+            if (this.hashes[entry - 1] == hash && this.traversers[entry - 1].equals(traverser))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private void removeIndex(final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.hashes[index] & mask;
+        while (this.table[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        // shift the following entries of the probe sequence back into the hole
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            final int entry = this.table[next];
+            if (0 == entry)
+                break;
+            final int ideal = this.hashes[entry - 1] & mask;
+            if (((next - ideal) & mask) >= ((next - slot) & mask)) {
+                this.table[slot] = entry;
+                slot = next;
+            }
+        }
+        this.table[slot] = 0;
+        this.traversers[index] = null;
+        this.modCount++;
+        if (0 == --this.size)
+            this.head = this.tail = 0;
+        else if (index == this.head)
+            this.head++;
+    }
+
+    private void skipHoles() {
+        while (null == this.traversers[this.head]) {
+            this.head++;
+        }
+    }
+
+    /**
+     * Move the traversers to the front of arrays of the capacity and rebuild the table.
+     */
+    private void rebuild(final int capacity) {
+        final Traverser.Admin<S>[] traversers = this.traversers;
+        final int[] hashes = this.hashes;
+        if (capacity != traversers.length)
+            this.allocate(capacity);
+        else
+            Arrays.fill(this.table, 0);
+        int index = 0;
+        for (int i = this.head; i < this.tail; i++) {
+            if (null != traversers[i]) {
+                this.traversers[index] = traversers[i];
+                this.hashes[index] = hashes[i];
+                index++;
+            }
+        }
+        if (traversers == this.traversers)
+            Arrays.fill(this.traversers, index, this.tail, null);
+        final int mask = this.table.length - 1;
+        for (int i = 0; i < index; i++) {
+            int slot = this.hashes[i] & mask;
+            while (0 != this.table[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = i + 1;
+        }
+        this.head = 0;
+        this.tail = index;
     }
 
+    private void writeObject(final ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        outputStream.writeInt(this.size);
+        for (int i = this.head; i < this.tail; i++) {
+            if (null != this.traversers[i])
+                outputStream.writeObject(this.traversers[i]);
+        }
+    }
+
+    private void readObject(final ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        final int size = inputStream.readInt();
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < size) {
+            capacity = capacity << 1;
+        }
+        this.allocate(capacity);
+        for (int i = 0; i < size; i++) {
+            this.add((Traverser.Admin<S>) inputStream.readObject());
+        }
+    }
+
+    private final class TraverserSetIterator implements Iterator<Traverser.Admin<S>> {
+
+        private int index = head;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            while (this.index < tail && null == traversers[this.index]) {
+                this.index++;
+            }
+            return this.index < tail;
+        }
+
+        @Override
+        public Traverser.Admin<S> next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            this.last = this.index;
+            return traversers[this.index++];
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0)
+                throw new IllegalStateException();
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            removeIndex(this.last);
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
 }
@@ -316,6 +316,7 @@ public interface Graph extends AutoCloseable {
             public static final String FEATURE_TRANSACTIONS = "Transactions";
             public static final String FEATURE_PERSISTENCE = "Persistence";
             public static final String FEATURE_THREADED_TRANSACTIONS = "ThreadedTransactions";
+            public static final String FEATURE_CONCURRENT_ACCESS = "ConcurrentAccess";
 
             /**
              * Determines if the {@code Graph} implementation supports
@@ -354,6 +355,16 @@ public interface Graph extends AutoCloseable {
                 return true;
             }
 
+            /**
+             * Determines if the {@code Graph} implementation allows elements to be added, removed and connected
+             * by multiple threads at the same time. Unlike the other features this one is not assumed, so it is
+             * {@code false} unless the implementation declares it.
+             */
+            @FeatureDescriptor(name = FEATURE_CONCURRENT_ACCESS)
+            public default boolean supportsConcurrentAccess() {
+                return false;
+            }
+
             /**
              * Gets the features related to "graph sideEffects" operation.
              */
@@ -1,6 +1,7 @@
 package com.tinkerpop.gremlin.structure.util.detached;
 
 import com.tinkerpop.gremlin.process.Path;
+import com.tinkerpop.gremlin.process.util.ImmutablePath;
 import com.tinkerpop.gremlin.process.util.MutablePath;
 import com.tinkerpop.gremlin.structure.Edge;
 import com.tinkerpop.gremlin.structure.Graph;
@@ -8,6 +9,8 @@ import com.tinkerpop.gremlin.structure.Property;
 import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.structure.VertexProperty;
 
+import java.util.HashSet;
+
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
@@ -21,41 +24,42 @@ public class DetachedPath extends MutablePath {
         path.forEach((as, object) -> {
             if (object instanceof DetachedElement || object instanceof DetachedProperty) {
                 this.objects.add(object);
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             } else if (object instanceof Vertex) {
                 this.objects.add(DetachedVertex.detach((Vertex) object));
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             } else if (object instanceof Edge) {
                 this.objects.add(DetachedEdge.detach((Edge) object));
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             } else if (object instanceof VertexProperty) {
                 this.objects.add(DetachedVertexProperty.detach((VertexProperty) object));
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             } else if (object instanceof Property) {
                 this.objects.add(DetachedProperty.detach((Property) object));
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             } else {
                 this.objects.add(object);
-                this.labels.add(as);
+                this.labels.add(new HashSet<>(as));
             }
         });
     }
 
     public Path attach(final Graph graph) {
-        final Path path = MutablePath.make();
-        this.forEach((as, object) -> {
+        Path path = ImmutablePath.make();
+        for (int i = 0; i < this.objects.size(); i++) {
+            final Object object = this.objects.get(i);
             if (object instanceof DetachedVertex) {
-                path.extend(as, ((DetachedVertex) object).attach(graph));
+                path = path.extend(this.labels.get(i), ((DetachedVertex) object).attach(graph));
             } else if (object instanceof DetachedEdge) {
-                path.extend(as, ((DetachedEdge) object).attach(graph));
+                path = path.extend(this.labels.get(i), ((DetachedEdge) object).attach(graph));
             } else if (object instanceof DetachedVertexProperty) {
-                path.extend(as, ((DetachedVertexProperty) object).attach(graph));
+                path = path.extend(this.labels.get(i), ((DetachedVertexProperty) object).attach(graph));
             } else if (object instanceof DetachedProperty) {
-                path.extend(as, ((DetachedProperty) object).attach(graph));
+                path = path.extend(this.labels.get(i), ((DetachedProperty) object).attach(graph));
             } else {
-                path.extend(as, object);
+                path = path.extend(this.labels.get(i), object);
             }
-        });
+        }
         return path;
     }
 
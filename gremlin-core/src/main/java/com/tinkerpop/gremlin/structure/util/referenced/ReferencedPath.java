@@ -1,6 +1,7 @@
 package com.tinkerpop.gremlin.structure.util.referenced;
 
 import com.tinkerpop.gremlin.process.Path;
+import com.tinkerpop.gremlin.process.util.ImmutablePath;
 import com.tinkerpop.gremlin.process.util.MutablePath;
 import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.structure.Graph;
@@ -9,6 +10,7 @@ import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.structure.util.detached.Attachable;
 
 import java.io.Serializable;
+import java.util.HashSet;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -22,68 +24,41 @@ public class ReferencedPath extends MutablePath implements Attachable, Serializa
     public ReferencedPath(final Path path) {
         path.forEach((labels, object) -> {
             if (object instanceof ReferencedElement || object instanceof ReferencedProperty || object instanceof ReferencedPath) {
-                this.labels.add(labels);
+                this.labels.add(new HashSet<>(labels));
                 this.objects.add(object);
             } else if (object instanceof Element) {
-                this.labels.add(labels);
+                this.labels.add(new HashSet<>(labels));
                 this.objects.add(ReferencedFactory.detach((Element) object));
             } else if (object instanceof Property) {
-                this.labels.add(labels);
+                this.labels.add(new HashSet<>(labels));
                 this.objects.add(ReferencedFactory.detach((Property) object));
             } else if (object instanceof Path) {
-                this.labels.add(labels);
+                this.labels.add(new HashSet<>(labels));
                 this.objects.add(ReferencedFactory.detach((Path) object));
             } else {
-                this.labels.add(labels);
+                this.labels.add(new HashSet<>(labels));
                 this.objects.add(object);
             }
         });
     }
 
     public Path attach(final Graph hostGraph) {
-        /*Path path = EmptyPath.instance();
+        // the attached path is immutable so that the traversers split from its traverser share it
+        Path path = ImmutablePath.make();
         for (int i = 0; i < this.objects.size(); i++) {
-            if (this.objects.get(i) instanceof Attachable) {
-                path.extend(this.labels.get(i), ((Attachable) this.objects.get(i)).attach(hostGraph));
-            } else {
-                path.extend(this.labels.get(i), this.objects.get(i));
-            }
-
-            path = path.extend(this.labels.get(i), this.objects.get(i));
+            final Object object = this.objects.get(i);
+            path = path.extend(this.labels.get(i), object instanceof Attachable ? ((Attachable) object).attach(hostGraph) : object);
         }
-        return path;*/
-
-        final Path path = MutablePath.make();
-        this.forEach((labels, object) -> {
-            if (object instanceof Attachable) {
-                path.extend(labels, ((Attachable) object).attach(hostGraph));
-            } else {
-                path.extend(labels, object);
-            }
-        });
         return path;
     }
 
     public Path attach(final Vertex hostVertex) {
-        /*Path path = EmptyPath.instance();
+        // the attached path is immutable so that the traversers split from its traverser share it
+        Path path = ImmutablePath.make();
         for (int i = 0; i < this.objects.size(); i++) {
-            if (this.objects.get(i) instanceof Attachable) {
-                path.extend(this.labels.get(i), ((Attachable) this.objects.get(i)).attach(hostVertex));
-            } else {
-                path.extend(this.labels.get(i), this.objects.get(i));
-            }
-
-            path = path.extend(this.labels.get(i), this.objects.get(i));
+            final Object object = this.objects.get(i);
+            path = path.extend(this.labels.get(i), object instanceof Attachable ? ((Attachable) object).attach(hostVertex) : object);
         }
-        return path;*/
-        final Path path = MutablePath.make();
-        this.forEach((labels, object) -> {
-            if (object instanceof Attachable) {
-                path.extend(labels, ((Attachable) object).attach(hostVertex));
-            } else {
-                path.extend(labels, object);
-            }
-        });
         return path;
     }
 
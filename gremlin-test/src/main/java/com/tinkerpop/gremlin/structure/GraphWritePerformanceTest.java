@@ -7,6 +7,7 @@ import com.carrotsearch.junitbenchmarks.annotation.BenchmarkHistoryChart;
 import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
 import com.carrotsearch.junitbenchmarks.annotation.LabelType;
 import com.tinkerpop.gremlin.AbstractGremlinTest;
+import com.tinkerpop.gremlin.FeatureRequirement;
 import com.tinkerpop.gremlin.LoadGraphWith;
 import com.tinkerpop.gremlin.structure.io.GraphWriter;
 import com.tinkerpop.gremlin.structure.io.graphml.GraphMLWriter;
@@ -20,7 +21,12 @@ import org.junit.runner.RunWith;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Stephen Mallette (http://stephen.genoprime.com)
@@ -64,6 +70,39 @@ public class GraphWritePerformanceTest {
 
             assertVertexEdgeCounts(verticesToGenerate, verticesToGenerate - 1).accept(g);
         }
+
+        @Test
+        @FeatureRequirement(featureClass = Graph.Features.GraphFeatures.class, feature = Graph.Features.GraphFeatures.FEATURE_CONCURRENT_ACCESS)
+        @FeatureRequirement(featureClass = Graph.Features.VertexFeatures.class, feature = Graph.Features.VertexFeatures.FEATURE_ADD_VERTICES)
+        @FeatureRequirement(featureClass = Graph.Features.EdgeFeatures.class, feature = Graph.Features.EdgeFeatures.FEATURE_ADD_EDGES)
+        @BenchmarkOptions(benchmarkRounds = 10, warmupRounds = 0, concurrency = BenchmarkOptions.CONCURRENCY_SEQUENTIAL)
+        public void writeEmptyVerticesAndEdgesConcurrently() throws Exception {
+            final int threads = Runtime.getRuntime().availableProcessors();
+            final int verticesPerThread = 100000 / threads;
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Optional<Vertex> lastVertex = Optional.empty();
+                    for (int ix = 0; ix < verticesPerThread; ix++) {
+                        final Vertex v = g.addVertex();
+                        if (lastVertex.isPresent())
+                            v.addEdge("parent", lastVertex.get());
+
+                        lastVertex = Optional.of(v);
+                        tryBatchCommit(g, ix);
+                    }
+                    if (g.features().graph().supportsTransactions())
+                        g.tx().commit();
+                }));
+            }
+            executor.shutdown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+
+            assertVertexEdgeCounts(threads * verticesPerThread, threads * (verticesPerThread - 1)).accept(g);
+        }
     }
 
     @AxisRange(min = 0, max = 1)
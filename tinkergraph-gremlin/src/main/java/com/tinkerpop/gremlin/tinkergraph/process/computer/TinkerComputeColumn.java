@@ -0,0 +1,126 @@
+package com.tinkerpop.gremlin.tinkergraph.process.computer;
+
+/**
+ * The values of one element compute key for all the vertices of a {@link TinkerGraphView}, indexed by the ordinal
+ * the view assigned to each vertex. The type of the column is chosen by the first value written to it: {@link Double}
+ * and {@link Long} values are kept in primitive arrays and any other value in an object array. A slot holds at most
+ * one value and a value that does not fit the type of the column is rejected, so that the view keeps it elsewhere.
+ * <p/>
+ * A slot is only written by the worker that executes its vertex and the workers of an iteration are joined before
+ * the next iteration, so the slots need no locking.
+ *
+ * @author agent (agent@local)
+ */
+abstract class TinkerComputeColumn {
+
+    public static TinkerComputeColumn create(final int size, final Object value) {
+        if (value instanceof Double)
+            return new DoubleColumn(size);
+        else if (value instanceof Long)
+            return new LongColumn(size);
+        else
+            return new ObjectColumn(size);
+    }
+
+    /**
+     * Store the value in the slot of the ordinal.
+     *
+     * @return whether the value fits the type of the column
+     */
+    public abstract boolean set(final int ordinal, final Object value);
+
+    /**
+     * The value in the slot of the ordinal or {@code null} if the slot is empty.
+     */
+    public abstract Object get(final int ordinal);
+
+    public abstract void remove(final int ordinal);
+
+    //////////////////////
+
+    private static final class DoubleColumn extends TinkerComputeColumn {
+
+        private final double[] values;
+        // a flag per slot rather than a bit set as neighbouring slots are written by different workers
+        private final boolean[] present;
+
+        private DoubleColumn(final int size) {
+            this.values = new double[size];
+            this.present = new boolean[size];
+        }
+
+        @Override
+        public boolean set(final int ordinal, final Object value) {
+            if (!(value instanceof Double))
+                return false;
+            this.values[ordinal] = (Double) value;
+            this.present[ordinal] = true;
+            return true;
+        }
+
+        @Override
+        public Object get(final int ordinal) {
+            return this.present[ordinal] ? this.values[ordinal] : null;
+        }
+
+        @Override
+        public void remove(final int ordinal) {
+            this.present[ordinal] = false;
+        }
+    }
+
+    private static final class LongColumn extends TinkerComputeColumn {
+
+        private final long[] values;
+        private final boolean[] present;
+
+        private LongColumn(final int size) {
+            this.values = new long[size];
+            this.present = new boolean[size];
+        }
+
+        @Override
+        public boolean set(final int ordinal, final Object value) {
+            if (!(value instanceof Long))
+                return false;
+            this.values[ordinal] = (Long) value;
+            this.present[ordinal] = true;
+            return true;
+        }
+
+        @Override
+        public Object get(final int ordinal) {
+            return this.present[ordinal] ? this.values[ordinal] : null;
+        }
+
+        @Override
+        public void remove(final int ordinal) {
+            this.present[ordinal] = false;
+        }
+    }
+
+    private static final class ObjectColumn extends TinkerComputeColumn {
+
+        private final Object[] values;
+
+        private ObjectColumn(final int size) {
+            this.values = new Object[size];
+        }
+
+        @Override
+        public boolean set(final int ordinal, final Object value) {
+            this.values[ordinal] = value;
+            return true;
+        }
+
+        @Override
+        public Object get(final int ordinal) {
+            return this.values[ordinal];
+        }
+
+        @Override
+        public void remove(final int ordinal) {
+            this.values[ordinal] = null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import com.tinkerpop.gremlin.process.graph.GraphTraversal;
+import com.tinkerpop.gremlin.structure.Property;
+import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.structure.VertexProperty;
+import com.tinkerpop.gremlin.structure.util.ElementHelper;
+import com.tinkerpop.gremlin.structure.util.StringFactory;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertexProperty;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * A vertex property whose value is held in a {@link TinkerComputeColumn} of a {@link TinkerGraphView}. The property
+ * is created when it is read, so it does not take an identifier from the graph and its identifier is derived from
+ * its vertex and key. A column holds no properties on a vertex property, so setting a property on this one moves its
+ * value out of the column into a {@link TinkerVertexProperty} of the view, which then backs this property.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerComputeProperty<V> implements VertexProperty<V>, VertexProperty.Iterators {
+
+    private final TinkerGraphView view;
+    private final TinkerVertex vertex;
+    private final String key;
+    private final V value;
+    private VertexProperty<V> backing;
+
+    TinkerComputeProperty(final TinkerGraphView view, final TinkerVertex vertex, final String key, final V value) {
+        this.view = view;
+        this.vertex = vertex;
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public Object id() {
+        return this.vertex.id() + ":" + this.key;
+    }
+
+    @Override
+    public String key() {
+        return this.key;
+    }
+
+    @Override
+    public V value() {
+        return this.value;
+    }
+
+    @Override
+    public boolean isPresent() {
+        return true;
+    }
+
+    @Override
+    public Vertex element() {
+        return this.vertex;
+    }
+
+    @Override
+    public <U> Property<U> property(final String key, final U value) {
+        if (null == this.backing)
+            this.backing = this.view.moveColumnValue(this.vertex, this.key, this.value);
+        return this.backing.property(key, value);
+    }
+
+    @Override
+    public void remove() {
+        if (null == this.backing)
+            this.view.removeColumnValue(this.vertex, this.key, this.value);
+        else
+            this.backing.remove();
+    }
+
+    @Override
+    public GraphTraversal<VertexProperty, VertexProperty> start() {
+        return new TinkerElementTraversal<>(this, (TinkerGraph) this.vertex.graph());
+    }
+
+    @Override
+    public VertexProperty.Iterators iterators() {
+        return this;
+    }
+
+    @Override
+    public <U> Iterator<Property<U>> propertyIterator(final String... propertyKeys) {
+        return null == this.backing ? Collections.emptyIterator() : this.backing.iterators().propertyIterator(propertyKeys);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        return ElementHelper.areEqual(this, object);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.vertex.hashCode() + this.key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.propertyString(this);
+    }
+}
@@ -3,32 +3,107 @@ package com.tinkerpop.gremlin.tinkergraph.process.computer;
 import com.tinkerpop.gremlin.process.computer.ComputerResult;
 import com.tinkerpop.gremlin.process.computer.GraphComputer;
 import com.tinkerpop.gremlin.process.computer.MapReduce;
+import com.tinkerpop.gremlin.process.computer.MessageCombiner;
 import com.tinkerpop.gremlin.process.computer.VertexProgram;
 import com.tinkerpop.gremlin.process.computer.util.GraphComputerHelper;
+import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.structure.util.StringFactory;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 /**
+ * A {@link GraphComputer} that executes the supersteps of a {@link VertexProgram} on a pool of worker threads.
+ * The vertices are split into chunks and every worker executes the chunks it takes until all vertices of the
+ * iteration are done, calling {@link VertexProgram#workerIterationStart} and {@link VertexProgram#workerIterationEnd}
+ * around its share. Every worker has its own copy of the {@link VertexProgram} and the next iteration only starts
+ * once every worker is done, so the computation keeps its bulk synchronous semantics. The number of workers is
+ * configured with {@link TinkerGraph#CONFIG_COMPUTER_WORKERS} or {@link #workers(int)}. A vertex program whose
+ * copies do not support concurrent workers is executed by a single worker.
+ * <p/>
+ * Once a vertex votes to halt through its {@link com.tinkerpop.gremlin.process.computer.Messenger}, an iteration
+ * only executes the active frontier, i.e. the vertices that did not vote to halt and the vertices that receive
+ * messages. A vertex program that never votes to halt is executed on every vertex in every iteration. Every worker
+ * updates the {@link TinkerMemory} through its own {@link TinkerWorkerMemory}, which is merged when the iteration
+ * completes.
+ * <p/>
+ * With {@link Isolation#DIRTY_BSP} isolation, a vertex program that supports it receives the messages sent in the
+ * current iteration as soon as they are sent, which lets programs like label propagation converge in fewer
+ * iterations. The iterations themselves, the {@link TinkerMemory} and the votes to halt stay bulk synchronous.
+ * <p/>
+ * The map stage of a {@link MapReduce} job is executed on the same workers, each with its own copy of the job, and
+ * the combine stage of the job is applied to the output of every worker. The output of a job that exceeds
+ * {@link TinkerGraph#CONFIG_COMPUTER_SPILL_SIZE} values is spilled to disk as sorted runs which are merged into the
+ * reduce stage.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TinkerGraphComputer implements GraphComputer {
 
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraphComputer.class);
+
+    private static final int CHUNK_SIZE = 1024;
+
     private Isolation isolation = Isolation.BSP;
     private VertexProgram vertexProgram;
     private final TinkerGraph graph;
     private TinkerMemory memory;
-    private final TinkerMessageBoard messageBoard = new TinkerMessageBoard();
+    private TinkerMessageBoard messageBoard;
     private boolean executed = false;
     private final Set<MapReduce> mapReduces = new HashSet<>();
+    private int workers;
+    private long spillSize;
+    private File spillDirectory;
+    private ExecutorService executor;
 
     public TinkerGraphComputer(final TinkerGraph graph) {
         this.graph = graph;
+        this.workers = graph.configuration().getInt(TinkerGraph.CONFIG_COMPUTER_WORKERS, Runtime.getRuntime().availableProcessors());
+        this.spillSize = graph.configuration().getLong(TinkerGraph.CONFIG_COMPUTER_SPILL_SIZE, Long.MAX_VALUE);
+        this.spillDirectory = new File(graph.configuration().getString(TinkerGraph.CONFIG_COMPUTER_SPILL_DIRECTORY, System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Set the number of threads that execute the vertex program. With one worker the vertices are executed by the
+     * thread of the computation itself.
+     */
+    public TinkerGraphComputer workers(final int workers) {
+        if (workers < 1)
+            throw new IllegalArgumentException("The number of workers must be at least 1: " + workers);
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Set the number of map output values a {@link MapReduce} job holds in memory before its output is spilled to
+     * sorted runs in the directory.
+     */
+    public TinkerGraphComputer spill(final long spillSize, final File spillDirectory) {
+        if (spillSize < 1)
+            throw new IllegalArgumentException("The spill size must be at least 1: " + spillSize);
+        this.spillSize = spillSize;
+        this.spillDirectory = spillDirectory;
+        return this;
     }
 
     @Override
@@ -68,45 +143,49 @@ public class TinkerGraphComputer implements GraphComputer {
         this.memory = new TinkerMemory(this.vertexProgram, this.mapReduces);
         return CompletableFuture.<ComputerResult>supplyAsync(() -> {
             final long time = System.currentTimeMillis();
-            if (null != this.vertexProgram) {
-                TinkerHelper.createGraphView(this.graph, this.isolation, this.vertexProgram.getElementComputeKeys());
-                // execute the vertex program
-                this.vertexProgram.setup(this.memory);
-                this.memory.completeSubRound();
-                while (true) {
-                    this.vertexProgram.workerIterationStart(this.memory);
-                    TinkerHelper.getVertices(this.graph).stream().forEach(vertex ->
-                            this.vertexProgram.execute(vertex, new TinkerMessenger(vertex, this.messageBoard), this.memory));
-                    this.vertexProgram.workerIterationEnd(this.memory);
-                    this.messageBoard.completeIteration();
+            this.executor = this.workers > 1 ? Executors.newFixedThreadPool(this.workers) : null;
+            try {
+                if (null != this.vertexProgram) {
+                    final TinkerGraphView view = TinkerHelper.createGraphView(this.graph, this.isolation, this.vertexProgram.getElementComputeKeys());
+                    // execute the vertex program
+                    this.vertexProgram.setup(this.memory);
                     this.memory.completeSubRound();
-                    if (this.vertexProgram.terminate(this.memory)) {
-                        this.memory.incrIteration();
-                        this.memory.completeSubRound();
-                        break;
-                    } else {
-                        this.memory.incrIteration();
+                    // the vertices are executed in the order of their ordinals so the workers walk the columns of the view
+                    final Vertex[] vertices = view.getVertices();
+                    final int workers = this.vertexProgram.getFeatures().supportsConcurrentWorkers() ?
+                            Math.max(1, Math.min(this.workers, vertices.length)) : 1;
+                    final VertexProgram[] workerPrograms = this.createWorkerPrograms(workers);
+                    final TinkerWorkerMemory[] workerMemories = new TinkerWorkerMemory[workers];
+                    for (int i = 0; i < workers; i++) {
+                        workerMemories[i] = this.memory.createWorkerMemory();
+                    }
+                    // a vertex program that does not support dirty isolation is executed with bulk synchronous isolation
+                    this.messageBoard = new TinkerMessageBoard(vertices, this.isolation.equals(Isolation.DIRTY_BSP) &&
+                            this.vertexProgram.getFeatures().supportsIsolation(Isolation.DIRTY_BSP));
+                    Vertex[] frontier = vertices;
+                    while (true) {
+                        this.executeIteration(frontier, workerPrograms, workerMemories);
+                        frontier = this.messageBoard.completeIteration(frontier);
                         this.memory.completeSubRound();
+                        if (this.vertexProgram.terminate(this.memory)) {
+                            this.memory.incrIteration();
+                            this.memory.completeSubRound();
+                            break;
+                        } else {
+                            this.memory.incrIteration();
+                            this.memory.completeSubRound();
+                        }
                     }
                 }
-            }
 
-            // execute mapreduce jobs
-            for (final MapReduce mapReduce : this.mapReduces) {
-                if (mapReduce.doStage(MapReduce.Stage.MAP)) {
-                    final TinkerMapEmitter<?, ?> mapEmitter = new TinkerMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE));
-                    TinkerHelper.getVertices(this.graph).stream().forEach(vertex -> mapReduce.map(vertex, mapEmitter));
-                    mapEmitter.complete(mapReduce); // sort results if a map output sort is defined
-                    // no need to run combiners as this is single machine
-                    if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
-                        final TinkerReduceEmitter<?, ?> reduceEmitter = new TinkerReduceEmitter<>();
-                        mapEmitter.reduceMap.entrySet().parallelStream().forEach(entry -> mapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter));
-                        reduceEmitter.complete(mapReduce); // sort results if a reduce output sort is defined
-                        mapReduce.addResultToMemory(this.memory, reduceEmitter.reduceQueue.iterator());
-                    } else {
-                        mapReduce.addResultToMemory(this.memory, mapEmitter.mapQueue.iterator());
-                    }
+                // execute mapreduce jobs
+                for (final MapReduce mapReduce : this.mapReduces) {
+                    if (mapReduce.doStage(MapReduce.Stage.MAP))
+                        this.executeMapReduce(mapReduce);
                 }
+            } finally {
+                if (null != this.executor)
+                    this.executor.shutdownNow();
             }
             // update runtime and return the newly computed graph
             this.memory.setRuntime(System.currentTimeMillis() - time);
@@ -115,6 +194,157 @@ public class TinkerGraphComputer implements GraphComputer {
         });
     }
 
+    /**
+     * The fields of a {@link VertexProgram} are local to the vertices of one worker so every worker executes its own
+     * copy of the vertex program, which is created from the stored state of the vertex program like it would be on
+     * a remote machine. A single worker executes the vertex program itself.
+     */
+    private VertexProgram[] createWorkerPrograms(final int workers) {
+        if (workers == 1)
+            return new VertexProgram[]{this.vertexProgram};
+        final Configuration configuration = new BaseConfiguration();
+        this.vertexProgram.storeState(configuration);
+        final VertexProgram[] workerPrograms = new VertexProgram[workers];
+        for (int i = 0; i < workers; i++) {
+            workerPrograms[i] = VertexProgram.createVertexProgram(configuration);
+        }
+        return workerPrograms;
+    }
+
+    /**
+     * Map the vertices on the workers, each into its own {@link TinkerMapEmitter} with its own copy of the
+     * {@link MapReduce} job, and reduce the merged output in parallel. If the output of the job does not fit
+     * {@link TinkerGraph#CONFIG_COMPUTER_SPILL_SIZE} it is spilled to disk and reduced while the spilled runs are merged.
+     */
+    private void executeMapReduce(final MapReduce mapReduce) {
+        final Vertex[] vertices = TinkerHelper.getVertices(this.graph).toArray(new Vertex[0]);
+        final MapReduce[] workerMapReduces = this.createWorkerMapReduces(mapReduce, Math.max(1, Math.min(this.workers, vertices.length)));
+        final TinkerReduceSpill spill = this.spillSize < Long.MAX_VALUE ? new TinkerReduceSpill(this.spillDirectory, mapReduce.getMapKeySort()) : null;
+        final long budget = null == spill ? Long.MAX_VALUE : Math.max(1l, this.spillSize / workerMapReduces.length);
+        final List<TinkerMapEmitter> mapEmitters = new ArrayList<>(workerMapReduces.length);
+        for (final MapReduce workerMapReduce : workerMapReduces) {
+            mapEmitters.add(new TinkerMapEmitter(workerMapReduce, spill, budget));
+        }
+        try {
+            final AtomicInteger cursor = new AtomicInteger(0);
+            final int chunkSize = Math.max(1, Math.min(CHUNK_SIZE, vertices.length / (workerMapReduces.length * 4)));
+            this.executeWorkers(workerMapReduces.length, worker -> {
+                int start;
+                while ((start = cursor.getAndAdd(chunkSize)) < vertices.length) {
+                    for (int i = start; i < Math.min(start + chunkSize, vertices.length); i++) {
+                        workerMapReduces[worker].map(vertices[i], mapEmitters.get(worker));
+                    }
+                }
+                mapEmitters.get(worker).complete();
+            });
+            if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
+                final TinkerReduceEmitter<?, ?> reduceEmitter = new TinkerReduceEmitter<>();
+                if (null != spill && !spill.isEmpty()) {
+                    // once part of the output is on disk all of it is merged from disk so every key is reduced once
+                    this.executeWorkers(mapEmitters.size(), worker -> mapEmitters.get(worker).spill());
+                    spill.merge((key, values) -> mapReduce.reduce(key, (Iterator) values, reduceEmitter));
+                } else {
+                    final Map<?, List<?>> reduceMap = TinkerMapEmitter.mergeReduceMaps((List) mapEmitters, mapReduce);
+                    reduceMap.entrySet().parallelStream().forEach(entry -> mapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter));
+                }
+                reduceEmitter.complete(mapReduce); // sort results if a reduce output sort is defined
+                mapReduce.addResultToMemory(this.memory, reduceEmitter.reduceQueue.iterator());
+            } else {
+                mapReduce.addResultToMemory(this.memory, TinkerMapEmitter.mergeMapLists((List) mapEmitters, mapReduce).iterator());
+            }
+        } finally {
+            if (null != spill)
+                spill.delete();
+        }
+    }
+
+    /**
+     * The map stage of a {@link MapReduce} job may keep state, like the traversal of the side-effect map reducers,
+     * so every worker maps with its own copy of the job, which is created from the stored state of the vertex program
+     * and the job. A job that can not be created from its stored state, e.g. an anonymous class, is mapped by a
+     * single worker. Any other failure to load the stored state is thrown.
+     */
+    private MapReduce[] createWorkerMapReduces(final MapReduce mapReduce, final int workers) {
+        if (workers == 1)
+            return new MapReduce[]{mapReduce};
+        final Configuration configuration = new BaseConfiguration();
+        if (null != this.vertexProgram)
+            this.vertexProgram.storeState(configuration);
+        mapReduce.storeState(configuration);
+        final MapReduce[] workerMapReduces = new MapReduce[workers];
+        try {
+            final Constructor<? extends MapReduce> constructor = mapReduce.getClass().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            for (int i = 0; i < workers; i++) {
+                workerMapReduces[i] = constructor.newInstance();
+                workerMapReduces[i].loadState(configuration);
+            }
+        } catch (final ReflectiveOperationException e) {
+            logger.warn("{} can not be created from its stored state and is mapped by a single worker: {}", mapReduce, e.toString());
+            return new MapReduce[]{mapReduce};
+        }
+        return workerMapReduces;
+    }
+
+    /**
+     * Execute one superstep. The workers take chunks of vertices off a shared cursor so that a worker with cheap
+     * vertices does not wait for a worker with expensive ones.
+     */
+    private void executeIteration(final Vertex[] vertices, final VertexProgram[] workerPrograms, final TinkerWorkerMemory[] workerMemories) {
+        final int chunkSize = Math.max(1, Math.min(CHUNK_SIZE, vertices.length / (workerPrograms.length * 4)));
+        final AtomicInteger cursor = new AtomicInteger(0);
+        this.executeWorkers(workerPrograms.length, worker -> {
+            workerPrograms[worker].workerIterationStart(workerMemories[worker]);
+            int start;
+            while ((start = cursor.getAndAdd(chunkSize)) < vertices.length) {
+                this.execute(workerPrograms[worker], workerMemories[worker], vertices, start, Math.min(start + chunkSize, vertices.length));
+            }
+            workerPrograms[worker].workerIterationEnd(workerMemories[worker]);
+        });
+    }
+
+    /**
+     * Run the task of every worker on the pool and wait for all of them. A single worker runs on the thread of the
+     * computation itself.
+     */
+    private void executeWorkers(final int workers, final IntConsumer task) {
+        if (workers == 1 || null == this.executor) {
+            for (int i = 0; i < workers; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        final List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            futures.add(this.executor.submit(() -> task.accept(worker)));
+        }
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e.getMessage(), e);
+            } catch (final ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    private void execute(final VertexProgram workerProgram, final TinkerWorkerMemory workerMemory, final Vertex[] vertices, final int start, final int end) {
+        final Optional<MessageCombiner> combiner = workerProgram.getMessageCombiner();
+        final boolean dirty = this.messageBoard.isDirty();
+        for (int i = start; i < end; i++) {
+            workerProgram.execute(vertices[i], new TinkerMessenger(vertices[i], this.messageBoard, combiner), workerMemory);
+            if (dirty)
+                this.messageBoard.publishLocalMessages(vertices[i]);
+        }
+    }
+
     @Override
     public String toString() {
         return StringFactory.graphComputerString(this);
@@ -4,6 +4,7 @@ import com.tinkerpop.gremlin.process.computer.GraphComputer;
 import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.structure.Property;
 import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.structure.VertexProperty;
 import com.tinkerpop.gremlin.structure.util.ElementHelper;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerElement;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
@@ -11,41 +12,70 @@ import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertexProperty;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerProperty;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 
-import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
+ * The compute key properties of the elements during a {@link TinkerGraphComputer} job. Every vertex of the graph is
+ * given an ordinal when the view is created and a single value of a vertex compute key is kept in the slot of that
+ * ordinal in the {@link TinkerComputeColumn} of the key, so that a vertex program writing a double or a long per
+ * vertex per iteration creates no property objects. The properties are created when they are read.
+ * <p/>
+ * Edge properties, the properties of vertices added after the view was created, multiple properties for the same
+ * key, vertex properties with properties and values that do not fit their column are kept in a concurrent map of
+ * property lists instead. The workers of the computer write to the view in parallel, so the property lists of one
+ * element are updated under the lock of its map.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TinkerGraphView {
 
     protected final Set<String> computeKeys;
     protected final GraphComputer.Isolation isolation;
+    private final Vertex[] vertices;
+    private final Map<String, TinkerComputeColumn> columns = new ConcurrentHashMap<>();
     private Map<Element, Map<String, List<Property>>> computeProperties;
 
-    public TinkerGraphView(final GraphComputer.Isolation isolation, final Set<String> computeKeys) {
+    public TinkerGraphView(final GraphComputer.Isolation isolation, final Set<String> computeKeys, final Collection<Vertex> vertices) {
         this.isolation = isolation;
         this.computeKeys = computeKeys;
-        this.computeProperties = new HashMap<>();
+        this.computeProperties = new ConcurrentHashMap<>();
+        this.vertices = vertices.toArray(new Vertex[vertices.size()]);
+        for (int i = 0; i < this.vertices.length; i++) {
+            TinkerHelper.setComputeOrdinal((TinkerVertex) this.vertices[i], i);
+        }
+    }
+
+    /**
+     * The vertices of the view in the order of their ordinals.
+     */
+    public Vertex[] getVertices() {
+        return this.vertices;
     }
 
-    public <V> Property<V> setProperty(final TinkerElement element, final String key, final V value) {
+    public <V> Property<V> setProperty(final TinkerElement element, final String key, final V value, final Object... propertyKeyValues) {
         ElementHelper.validateProperty(key, value);
         if (isComputeKey(key)) {
             if (element instanceof Vertex) {
-                final TinkerVertexProperty<V> property = new TinkerVertexProperty<V>((TinkerVertex) element, key, value) {
-                    @Override
-                    public void remove() {
-                        removeProperty(element, key, this);
+                final int ordinal = this.getOrdinal(element);
+                if (ordinal >= 0) {
+                    final Object previous = this.getColumnValue(ordinal, key);
+                    if (null != previous) {
+                        // a second property for the key so both are kept in the property list of the vertex
+                        this.columns.get(key).remove(ordinal);
+                        this.setValue(element, key, this.createVertexProperty((TinkerVertex) element, key, previous));
+                    } else if (propertyKeyValues.length == 0 && !this.hasValue(element, key) && this.getColumn(key, value).set(ordinal, value)) {
+                        return new TinkerComputeProperty<>(this, (TinkerVertex) element, key, value);
                     }
-                };
+                }
+                final Property<V> property = this.createVertexProperty((TinkerVertex) element, key, value, propertyKeyValues);
                 this.setValue(element, key, property);
                 return property;
             } else {
@@ -63,21 +93,72 @@ public class TinkerGraphView {
         }
     }
 
+    /**
+     * Replace the properties of the vertex for the key with a single property. Unlike removing the properties and
+     * setting a new one, the value is written straight into the column of the key if it fits.
+     */
+    public <V> Property<V> setSingleProperty(final TinkerVertex vertex, final String key, final V value) {
+        ElementHelper.validateProperty(key, value);
+        if (isComputeKey(key)) {
+            final int ordinal = this.getOrdinal(vertex);
+            if (ordinal >= 0) {
+                this.removeValue(vertex, key);
+                if (this.getColumn(key, value).set(ordinal, value))
+                    return new TinkerComputeProperty<>(this, vertex, key, value);
+                this.columns.get(key).remove(ordinal);
+            } else {
+                this.removeValue(vertex, key);
+            }
+            final Property<V> property = this.createVertexProperty(vertex, key, value);
+            this.setValue(vertex, key, property);
+            return property;
+        } else {
+            throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
+        }
+    }
 
     public List<Property> getProperty(final TinkerElement element, final String key) {
         if (isComputeKey(key)) {
+            final int ordinal = this.getOrdinal(element);
+            if (ordinal >= 0) {
+                final Object value = this.getColumnValue(ordinal, key);
+                if (null != value)
+                    return Collections.singletonList(new TinkerComputeProperty<>(this, (TinkerVertex) element, key, value));
+            }
             return this.getValue(element, key);
         } else {
             return (List) TinkerHelper.getProperties(element).getOrDefault(key, Collections.emptyList());
         }
     }
 
+    /**
+     * The value of the compute key in the column slot of the vertex or {@code null} if the value is not kept in a
+     * column, so that reading the value of a vertex creates no property.
+     */
+    public Object getColumnValue(final TinkerElement element, final String key) {
+        if (!isComputeKey(key))
+            return null;
+        final int ordinal = this.getOrdinal(element);
+        return ordinal >= 0 ? this.getColumnValue(ordinal, key) : null;
+    }
+
     public List<Property> getProperties(final TinkerElement element) {
-        final Stream<Property> a = TinkerHelper.getProperties(element).values().stream().flatMap(list -> list.stream());
-        final Stream<Property> b = this.computeProperties.containsKey(element) ?
-                this.computeProperties.get(element).values().stream().flatMap(list -> list.stream()) :
-                Stream.empty();
-        return Stream.concat(a, b).collect(Collectors.toList());
+        final List<Property> properties = TinkerHelper.getProperties(element).values().stream().flatMap(list -> list.stream()).collect(Collectors.toList());
+        final int ordinal = this.getOrdinal(element);
+        if (ordinal >= 0) {
+            this.columns.forEach((key, column) -> {
+                final Object value = column.get(ordinal);
+                if (null != value)
+                    properties.add(new TinkerComputeProperty<>(this, (TinkerVertex) element, key, value));
+            });
+        }
+        final Map<String, List<Property>> map = this.computeProperties.get(element);
+        if (null != map) {
+            synchronized (map) {
+                map.values().forEach(properties::addAll);
+            }
+        }
+        return properties;
     }
 
     public void removeProperty(final TinkerElement element, final String key, final Property property) {
@@ -91,43 +172,123 @@ public class TinkerGraphView {
         }
     }
 
+    protected void removeColumnValue(final TinkerVertex vertex, final String key, final Object value) {
+        final int ordinal = this.getOrdinal(vertex);
+        final TinkerComputeColumn column = this.columns.get(key);
+        // the property is stale if the slot was written since the property was read
+        if (ordinal >= 0 && null != column && value.equals(column.get(ordinal)))
+            column.remove(ordinal);
+    }
+
+    /**
+     * Move the value in the column slot of the vertex into a vertex property in the property list of the vertex, so
+     * that the property can hold properties. If the slot was written since the value was read, the returned property
+     * is stale and is not kept in the view.
+     */
+    protected <V> VertexProperty<V> moveColumnValue(final TinkerVertex vertex, final String key, final V value) {
+        final TinkerVertexProperty<V> property = this.createVertexProperty(vertex, key, value);
+        final int ordinal = this.getOrdinal(vertex);
+        final TinkerComputeColumn column = this.columns.get(key);
+        if (ordinal >= 0 && null != column && value.equals(column.get(ordinal))) {
+            column.remove(ordinal);
+            this.setValue(vertex, key, property);
+        }
+        return property;
+    }
+
     //////////////////////
 
+    /**
+     * The ordinal of the vertex in this view or -1 if the element is not a vertex of this view.
+     */
+    private int getOrdinal(final Element element) {
+        if (!(element instanceof TinkerVertex))
+            return -1;
+        final int ordinal = TinkerHelper.getComputeOrdinal((TinkerVertex) element);
+        // the ordinal may have been assigned by a later view
+        return ordinal >= 0 && ordinal < this.vertices.length && this.vertices[ordinal] == element ? ordinal : -1;
+    }
+
+    private TinkerComputeColumn getColumn(final String key, final Object value) {
+        final TinkerComputeColumn column = this.columns.get(key);
+        return null == column ?
+                this.columns.computeIfAbsent(key, k -> TinkerComputeColumn.create(this.vertices.length, value)) :
+                column;
+    }
+
+    private Object getColumnValue(final int ordinal, final String key) {
+        final TinkerComputeColumn column = this.columns.get(key);
+        return null == column ? null : column.get(ordinal);
+    }
+
+    private <V> TinkerVertexProperty<V> createVertexProperty(final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
+        return new TinkerVertexProperty<V>(vertex, key, value, propertyKeyValues) {
+            @Override
+            public void remove() {
+                removeProperty(vertex, key, this);
+            }
+        };
+    }
+
+    private boolean hasValue(final Element element, final String key) {
+        final Map<String, List<Property>> map = this.computeProperties.get(element);
+        if (null == map)
+            return false;
+        synchronized (map) {
+            final List<Property> list = map.get(key);
+            return null != list && !list.isEmpty();
+        }
+    }
+
     private void setValue(final Element element, final String key, final Property property) {
-        final Map<String, List<Property>> nextMap = this.computeProperties.getOrDefault(element, new HashMap<>());
-        this.computeProperties.put(element, nextMap);
-        if (nextMap.containsKey(key)) {
-            if (element instanceof Vertex) {
-                nextMap.get(key).add(property);
+        final Map<String, List<Property>> nextMap = this.computeProperties.computeIfAbsent(element, e -> new HashMap<>());
+        synchronized (nextMap) {
+            final List<Property> list = nextMap.get(key);
+            if (null == list) {
+                final List<Property> newList = new ArrayList<>();
+                newList.add(property);
+                nextMap.put(key, newList);
             } else {
-                nextMap.get(key).clear();
-                nextMap.get(key).add(property);
+                if (!(element instanceof Vertex))
+                    list.clear();
+                list.add(property);
             }
-        } else {
-            final List<Property> list = new ArrayList<>();
-            list.add(property);
-            nextMap.put(key, list);
         }
     }
 
     private void removeValue(final Element element, final String key) {
         final Map<String, List<Property>> map = this.computeProperties.get(element);
-        if (null != map)
-            map.remove(key);
+        if (null != map) {
+            synchronized (map) {
+                map.remove(key);
+            }
+        }
     }
 
     private void removeValue(final Element element, final String key, final Property property) {
         final Map<String, List<Property>> map = this.computeProperties.get(element);
-        if (null != map)
-            map.get(key).remove(property);
+        if (null != map) {
+            synchronized (map) {
+                final List<Property> list = map.get(key);
+                if (null != list)
+                    list.remove(property);
+            }
+        }
     }
 
     private List<Property> getValue(final Element element, final String key) {
         final Map<String, List<Property>> map = this.computeProperties.get(element);
-        return (null == map) ? Collections.emptyList() : map.getOrDefault(key, Collections.emptyList());
+        if (null == map)
+            return Collections.emptyList();
+        synchronized (map) {
+            final List<Property> list = map.get(key);
+            if (null == list || list.isEmpty())
+                return Collections.emptyList();
+            return list.size() == 1 ? Collections.singletonList(list.get(0)) : new ArrayList<>(list);
+        }
     }
 
     public boolean isComputeKey(final String key) {
         return this.computeKeys.contains(key);
     }
-}
\ No newline at end of file
+}
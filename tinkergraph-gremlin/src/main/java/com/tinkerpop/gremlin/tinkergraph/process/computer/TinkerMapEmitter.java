@@ -1,58 +1,140 @@
 package com.tinkerpop.gremlin.tinkergraph.process.computer;
 
 import com.tinkerpop.gremlin.process.computer.MapReduce;
-import com.tinkerpop.gremlin.process.util.MapHelper;
 import org.javatuples.Pair;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
+ * The map output of one worker of a {@link TinkerGraphComputer}. Every worker maps its share of the vertices into
+ * its own emitter so the output is collected without locking. If the {@link MapReduce} job has a combine stage, the
+ * values of every key are combined whenever the number of values held has doubled, and if the output exceeds the
+ * budget of the worker it is combined and spilled to the {@link TinkerReduceSpill} of the job.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 class TinkerMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
 
-    public Map<K, Queue<V>> reduceMap;
-    public Queue<Pair<K, V>> mapQueue;
+    private static final int COMBINE_SIZE = 1024;
+
+    public Map<K, List<V>> reduceMap;
+    public List<Pair<K, V>> mapList;
+    private final MapReduce<K, V, K, V, ?> mapReduce;
     private final boolean doReduce;
+    private final boolean doCombine;
+    private final TinkerReduceSpill<K, V> spill;
+    private final long budget;
+    private long size = 0l;
+    private long combineSize = COMBINE_SIZE;
 
-    public TinkerMapEmitter(final boolean doReduce) {
-        this.doReduce = doReduce;
+    public TinkerMapEmitter(final MapReduce<K, V, K, V, ?> mapReduce, final TinkerReduceSpill<K, V> spill, final long budget) {
+        this.mapReduce = mapReduce;
+        this.doReduce = mapReduce.doStage(MapReduce.Stage.REDUCE);
+        this.doCombine = this.doReduce && mapReduce.doStage(MapReduce.Stage.COMBINE);
+        this.spill = spill;
+        this.budget = budget;
         if (this.doReduce)
-            this.reduceMap = new ConcurrentHashMap<>();
+            this.reduceMap = new HashMap<>();
         else
-            this.mapQueue = new ConcurrentLinkedQueue<>();
+            this.mapList = new ArrayList<>();
     }
 
     @Override
-    public void emit(K key, V value) {
-        if (this.doReduce)
-            MapHelper.concurrentIncr(this.reduceMap, key, value);
-        else
-            this.mapQueue.add(new Pair<>(key, value));
+    public void emit(final K key, final V value) {
+        if (this.doReduce) {
+            List<V> values = this.reduceMap.get(key);
+            if (null == values) {
+                values = new ArrayList<>(1);
+                this.reduceMap.put(key, values);
+            }
+            values.add(value);
+            if (++this.size >= this.combineSize && this.doCombine) {
+                this.combine();
+                // combine again once the combined output has doubled, so keys that do not combine cost linear time
+                this.combineSize = Math.max(COMBINE_SIZE, this.size * 2);
+            }
+            if (this.size >= this.budget)
+                this.spill();
+        } else
+            this.mapList.add(new Pair<>(key, value));
     }
 
-    protected void complete(final MapReduce<K, V, ?, ?, ?> mapReduce) {
-        if (!this.doReduce && mapReduce.getMapKeySort().isPresent()) {
-            final Comparator<K> comparator = mapReduce.getMapKeySort().get();
-            final List<Pair<K, V>> list = new ArrayList<>(this.mapQueue);
-            Collections.sort(list, Comparator.comparing(Pair::getValue0, comparator));
-            this.mapQueue.clear();
-            this.mapQueue.addAll(list);
-        } else if (mapReduce.getMapKeySort().isPresent()) {
+    /**
+     * Combine the output of the worker once its share of the vertices is mapped.
+     */
+    protected void complete() {
+        if (this.doCombine)
+            this.combine();
+    }
+
+    /**
+     * Write the output of the worker to the spill of the job.
+     */
+    protected void spill() {
+        if (this.doCombine)
+            this.combine();
+        this.spill.spill(this.reduceMap);
+        this.reduceMap = new HashMap<>();
+        this.size = 0l;
+        this.combineSize = COMBINE_SIZE;
+    }
+
+    private void combine() {
+        final Map<K, List<V>> combined = new HashMap<>();
+        this.reduceMap.forEach((key, values) -> {
+            if (values.size() == 1)
+                combined.merge(key, values, (a, b) -> {
+                    a.addAll(b);
+                    return a;
+                });
+            else
+                this.mapReduce.combine(key, values.iterator(), (k, v) -> combined.computeIfAbsent(k, x -> new ArrayList<>(1)).add(v));
+        });
+        this.reduceMap = combined;
+        this.size = 0l;
+        combined.values().forEach(values -> this.size += values.size());
+    }
+
+    /**
+     * Merge the output of the workers into a single map, sorted by the map key sort of the job if it has one.
+     */
+    protected static <K, V> Map<K, List<V>> mergeReduceMaps(final List<TinkerMapEmitter<K, V>> emitters, final MapReduce<K, V, ?, ?, ?> mapReduce) {
+        Map<K, List<V>> reduceMap = emitters.get(0).reduceMap;
+        for (int i = 1; i < emitters.size(); i++) {
+            final Map<K, List<V>> map = reduceMap;
+            emitters.get(i).reduceMap.forEach((key, values) -> map.merge(key, values, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+        }
+        if (mapReduce.getMapKeySort().isPresent()) {
             final Comparator<K> comparator = mapReduce.getMapKeySort().get();
-            final List<Map.Entry<K, Queue<V>>> list = new ArrayList<>();
-            list.addAll(this.reduceMap.entrySet());
+            final List<Map.Entry<K, List<V>>> list = new ArrayList<>(reduceMap.entrySet());
             Collections.sort(list, Comparator.comparing(Map.Entry::getKey, comparator));
-            this.reduceMap = new LinkedHashMap<>();
-            list.forEach(entry -> this.reduceMap.put(entry.getKey(), entry.getValue()));
+            reduceMap = new LinkedHashMap<>();
+            for (final Map.Entry<K, List<V>> entry : list) {
+                reduceMap.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return reduceMap;
+    }
+
+    /**
+     * Concatenate the output of the workers of a map-only job, sorted by the map key sort of the job if it has one.
+     */
+    protected static <K, V> List<Pair<K, V>> mergeMapLists(final List<TinkerMapEmitter<K, V>> emitters, final MapReduce<K, V, ?, ?, ?> mapReduce) {
+        final List<Pair<K, V>> list = emitters.get(0).mapList;
+        for (int i = 1; i < emitters.size(); i++) {
+            list.addAll(emitters.get(i).mapList);
         }
+        if (mapReduce.getMapKeySort().isPresent())
+            Collections.sort(list, Comparator.comparing(Pair::getValue0, mapReduce.getMapKeySort().get()));
+        return list;
     }
 }
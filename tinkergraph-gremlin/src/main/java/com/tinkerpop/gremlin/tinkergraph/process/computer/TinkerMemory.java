@@ -7,7 +7,10 @@ import com.tinkerpop.gremlin.process.computer.VertexProgram;
 import com.tinkerpop.gremlin.process.computer.util.MemoryHelper;
 import com.tinkerpop.gremlin.structure.util.StringFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -15,12 +18,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * The memory of a {@link TinkerGraphComputer}. The vertices executed by the workers of the computer update the memory
+ * through a {@link TinkerWorkerMemory} per worker which accumulates {@link #incr}, {@link #and} and {@link #or} in
+ * primitive slots, one per memory key, and which is merged into the memory when the sub-round completes. The memory
+ * itself is only updated directly by the vertex program setup and terminate methods and by the MapReduce jobs.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 // TODO: add TinkerASPMemory
 public class TinkerMemory implements Memory.Admin {
 
     public final Set<String> memoryKeys = new HashSet<>();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<TinkerWorkerMemory> workerMemories = new ArrayList<>();
     public Map<String, Object> previousMap;
     public Map<String, Object> currentMap;
     private final AtomicInteger iteration = new AtomicInteger(0);
@@ -39,6 +49,18 @@ public class TinkerMemory implements Memory.Admin {
         for (final MapReduce mapReduce : mapReducers) {
             this.memoryKeys.add(mapReduce.getMemoryKey());
         }
+        for (final String key : this.memoryKeys) {
+            this.slots.put(key, this.slots.size());
+        }
+    }
+
+    /**
+     * Create the memory of a worker, which is merged into this memory whenever a sub-round completes.
+     */
+    protected TinkerWorkerMemory createWorkerMemory() {
+        final TinkerWorkerMemory workerMemory = new TinkerWorkerMemory(this, this.slots);
+        this.workerMemories.add(workerMemory);
+        return workerMemory;
     }
 
     @Override
@@ -74,6 +96,10 @@ public class TinkerMemory implements Memory.Admin {
     }
 
     protected void completeSubRound() {
+        // the workers are joined before a sub-round completes so their slots are read without locking
+        for (final TinkerWorkerMemory workerMemory : this.workerMemories) {
+            workerMemory.flush();
+        }
         this.previousMap = new ConcurrentHashMap<>(this.currentMap);
 
     }
@@ -95,8 +121,7 @@ public class TinkerMemory implements Memory.Admin {
     @Override
     public long incr(final String key, final long delta) {
         checkKeyValue(key, delta);
-        final Long currentValue = (Long) this.currentMap.getOrDefault(key, 0l);
-        this.currentMap.put(key, delta + currentValue);
+        this.mergeIncr(key, delta);
 
         final Long previousValue = (Long) this.previousMap.getOrDefault(key, 0l);
         return previousValue + delta;
@@ -105,8 +130,7 @@ public class TinkerMemory implements Memory.Admin {
     @Override
     public boolean and(final String key, final boolean bool) {
         checkKeyValue(key, bool);
-        final Boolean currentValue = (Boolean) this.currentMap.getOrDefault(key, true);
-        this.currentMap.put(key, bool && currentValue);
+        this.mergeAnd(key, bool);
 
         final Boolean previousValue = (Boolean) this.previousMap.getOrDefault(key, true);
         return previousValue && bool;
@@ -115,8 +139,7 @@ public class TinkerMemory implements Memory.Admin {
     @Override
     public boolean or(final String key, final boolean bool) {
         checkKeyValue(key, bool);
-        final Boolean currentValue = (Boolean) this.currentMap.getOrDefault(key, true);
-        this.currentMap.put(key, bool || currentValue);
+        this.mergeOr(key, bool);
 
         final Boolean previousValue = (Boolean) this.previousMap.getOrDefault(key, true);
         return previousValue || bool;
@@ -133,6 +156,29 @@ public class TinkerMemory implements Memory.Admin {
         return StringFactory.memoryString(this);
     }
 
+    protected void mergeIncr(final String key, final long delta) {
+        this.currentMap.merge(key, delta, (a, b) -> (Long) a + (Long) b);
+    }
+
+    protected void mergeAnd(final String key, final boolean bool) {
+        this.currentMap.merge(key, bool, (a, b) -> (Boolean) a && (Boolean) b);
+    }
+
+    protected void mergeOr(final String key, final boolean bool) {
+        this.currentMap.compute(key, (k, currentValue) -> bool || (null == currentValue || (Boolean) currentValue));
+    }
+
+    /**
+     * The slot of the memory key in the memory of a worker.
+     */
+    protected int getSlot(final String key) {
+        if (this.complete) throw Memory.Exceptions.memoryCompleteAndImmutable();
+        final Integer slot = this.slots.get(key);
+        if (null == slot)
+            throw GraphComputer.Exceptions.providedKeyIsNotAMemoryComputeKey(key);
+        return slot;
+    }
+
     private void checkKeyValue(final String key, final Object value) {
         if (this.complete) throw Memory.Exceptions.memoryCompleteAndImmutable();
         if (!this.memoryKeys.contains(key))
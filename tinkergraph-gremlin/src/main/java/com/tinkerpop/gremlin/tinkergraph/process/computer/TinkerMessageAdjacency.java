@@ -0,0 +1,72 @@
+package com.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.computer.MessageType;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
+import com.tinkerpop.gremlin.structure.Direction;
+import com.tinkerpop.gremlin.structure.Edge;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The incident traversal of a {@link MessageType.Local} compiled to the adjacency of the {@link TinkerVertex}. An
+ * incident traversal that is a single {@code outE()} or {@code inE()} step, with or without edge labels, is
+ * compiled once per job, so that the edges between the senders and the receivers of the local messages are read
+ * straight from the adjacency rather than through a traversal that is built for every vertex in every iteration.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerMessageAdjacency {
+
+    private final Direction direction;
+    private final String[] labels;
+
+    private TinkerMessageAdjacency(final Direction direction, final String... labels) {
+        this.direction = direction;
+        this.labels = labels;
+    }
+
+    /**
+     * Compile the incident traversal of the message type.
+     *
+     * @return the compiled adjacency or {@code null} if the incident traversal is not a single edge step
+     */
+    public static TinkerMessageAdjacency compile(final MessageType.Local<?, ?> messageType) {
+        final Traversal<?, ?> traversal = messageType.getIncidentTraversal().get();
+        final List<Step> steps = traversal.getSteps();
+        if (steps.size() != 1 || !steps.get(0).getClass().equals(VertexStep.class))
+            return null;
+        final VertexStep<?> step = (VertexStep<?>) steps.get(0);
+        // bothE() is left to the traversal as the edge alone does not tell which of its ends sent the message
+        return Edge.class.equals(step.getReturnClass()) && !step.getDirection().equals(Direction.BOTH) ?
+                new TinkerMessageAdjacency(step.getDirection(), step.getEdgeLabels()) :
+                null;
+    }
+
+    /**
+     * The edges over which the receiver receives local messages.
+     */
+    public Iterator<TinkerEdge> receivingEdges(final TinkerVertex receiver) {
+        return TinkerHelper.getEdges(receiver, this.direction.opposite(), this.labels);
+    }
+
+    /**
+     * The edges over which the sender sends local messages.
+     */
+    public Iterator<TinkerEdge> sendingEdges(final TinkerVertex sender) {
+        return TinkerHelper.getEdges(sender, this.direction, this.labels);
+    }
+
+    public TinkerVertex getSender(final TinkerEdge edge) {
+        return TinkerHelper.getVertex(edge, this.direction);
+    }
+
+    public TinkerVertex getReceiver(final TinkerEdge edge) {
+        return TinkerHelper.getVertex(edge, this.direction.opposite());
+    }
+}
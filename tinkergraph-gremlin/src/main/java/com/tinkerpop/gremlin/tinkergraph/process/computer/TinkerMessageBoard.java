@@ -1,21 +1,230 @@
 package com.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.computer.MessageType;
 import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
+ * The messages of the current and the previous iteration. The messages are sent by the workers of the
+ * {@link TinkerGraphComputer} in parallel so the queues of the global messages, which are stored at their receiving
+ * vertex, are looked up in a concurrent map. The local messages are stored at their sending vertex and as only the
+ * worker executing a vertex sends its local messages, their queues are kept in an array indexed by the ordinals of
+ * the {@link TinkerGraphView}. The incident traversals of the local message types are compiled to a
+ * {@link TinkerMessageAdjacency} once per job where possible.
+ * <p/>
+ * The board also keeps the votes to halt of the vertices, indexed by the ordinals of the {@link TinkerGraphView}.
+ * As long as no vertex is halted every vertex is executed in every iteration. Once a vertex votes to halt, only the
+ * active frontier is executed: the vertices that executed and did not vote to halt and the vertices that receive
+ * a message.
+ * <p/>
+ * With {@link com.tinkerpop.gremlin.process.computer.GraphComputer.Isolation#DIRTY_BSP} isolation the messages are
+ * visible as soon as they are sent. A global message is received by the first execution of its receiving vertex
+ * after it was sent, which may be in the same iteration, and a local message sent in the current iteration replaces
+ * the message of the previous iteration once its sending vertex is executed.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 class TinkerMessageBoard<M> {
 
-    public Map<Vertex, Queue<M>> sendMessages = new HashMap<>();
-    public Map<Vertex, Queue<M>> receiveMessages = new HashMap<>();
+    public Map<Vertex, Queue<M>> sendMessages = new ConcurrentHashMap<>();
+    public Map<Vertex, Queue<M>> receiveMessages = new ConcurrentHashMap<>();
+    public Queue<M>[] sendLocalMessages;
+    public Queue<M>[] receiveLocalMessages;
+    // the local message types sent in the current iteration which determine the receivers of the local messages
+    public Set<MessageType.Local> localMessageTypes = ConcurrentHashMap.newKeySet();
 
-    public void completeIteration() {
+    private static final int MAX_ADJACENCIES = 64;
+    private final Map<MessageType.Local, Optional<TinkerMessageAdjacency>> adjacencies = new ConcurrentHashMap<>();
+
+    private final Vertex[] vertices;
+    private final boolean dirty;
+    // the local messages of the vertices executed in the current iteration of a dirty computation
+    private AtomicReferenceArray<Queue<M>> publishedLocalMessages;
+    private final boolean[] votes;
+    private volatile boolean voted = false;
+    private final boolean[] scheduled;
+    private int[] frontier = new int[16];
+    private int frontierSize = 0;
+
+    public TinkerMessageBoard(final Vertex[] vertices, final boolean dirty) {
+        this.vertices = vertices;
+        this.dirty = dirty;
+        this.publishedLocalMessages = dirty ? new AtomicReferenceArray<>(vertices.length) : null;
+        this.votes = new boolean[vertices.length];
+        this.scheduled = new boolean[vertices.length];
+        this.sendLocalMessages = new Queue[vertices.length];
+        this.receiveLocalMessages = new Queue[vertices.length];
+    }
+
+    /**
+     * The ordinal of the vertex in the view or -1 if it is not a vertex of the view, e.g. a reference to a vertex.
+     */
+    public int getOrdinal(final Vertex vertex) {
+        if (!(vertex instanceof TinkerVertex))
+            return -1;
+        final int ordinal = TinkerHelper.getComputeOrdinal((TinkerVertex) vertex);
+        return ordinal >= 0 && ordinal < this.vertices.length && this.vertices[ordinal] == vertex ? ordinal : -1;
+    }
+
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    /**
+     * The local messages the sender sent in the previous iteration or, if the computation is dirty and the sender was
+     * already executed in the current iteration, the local messages it sent in the current iteration.
+     */
+    public Queue<M> getLocalMessages(final Vertex sender) {
+        final int ordinal = this.getOrdinal(sender);
+        if (ordinal < 0)
+            return null;
+        if (this.dirty) {
+            final Queue<M> published = this.publishedLocalMessages.get(ordinal);
+            if (null != published)
+                return published;
+        }
+        return this.receiveLocalMessages[ordinal];
+    }
+
+    /**
+     * Make the local messages the vertex sent visible to its receivers. The slot is only written by the worker that
+     * executes the vertex, so the messages are published once the vertex is executed.
+     */
+    public void publishLocalMessages(final Vertex vertex) {
+        final int ordinal = TinkerHelper.getComputeOrdinal((TinkerVertex) vertex);
+        if (null != this.sendLocalMessages[ordinal])
+            this.publishedLocalMessages.set(ordinal, this.sendLocalMessages[ordinal]);
+    }
+
+    /**
+     * The compiled incident traversal of the local message type or {@code null} if it can not be compiled. Message
+     * types are compared by identity, so a vertex program that creates a message type per message only keeps the
+     * first of them.
+     */
+    public TinkerMessageAdjacency getAdjacency(final MessageType.Local<?, ?> messageType) {
+        Optional<TinkerMessageAdjacency> adjacency = this.adjacencies.get(messageType);
+        if (null == adjacency) {
+            adjacency = Optional.ofNullable(TinkerMessageAdjacency.compile(messageType));
+            if (this.adjacencies.size() < MAX_ADJACENCIES)
+                this.adjacencies.put(messageType, adjacency);
+        }
+        return adjacency.orElse(null);
+    }
+
+    public void voteToHalt(final Vertex vertex) {
+        this.votes[TinkerHelper.getComputeOrdinal((TinkerVertex) vertex)] = true;
+        if (!this.voted)
+            this.voted = true;
+    }
+
+    /**
+     * Make the messages sent in the current iteration the messages received in the next one.
+     *
+     * @param executed the vertices that were executed in the current iteration
+     * @return the vertices to execute in the next iteration
+     */
+    public Vertex[] completeIteration(final Vertex[] executed) {
+        final Vertex[] next = this.voted || executed.length < this.vertices.length ?
+                this.nextFrontier(executed) :
+                this.vertices;
+        this.voted = false;
         this.receiveMessages = this.sendMessages;
-        this.sendMessages = new HashMap<>();
+        this.sendMessages = new ConcurrentHashMap<>();
+        final Queue<M>[] localMessages = this.receiveLocalMessages;
+        this.receiveLocalMessages = this.sendLocalMessages;
+        Arrays.fill(localMessages, null);
+        this.sendLocalMessages = localMessages;
+        if (this.dirty)
+            this.publishedLocalMessages = new AtomicReferenceArray<>(this.vertices.length);
+        this.localMessageTypes = ConcurrentHashMap.newKeySet();
+        return next;
+    }
+
+    //////////////////////
+
+    private Vertex[] nextFrontier(final Vertex[] executed) {
+        this.frontierSize = 0;
+        for (final Vertex vertex : executed) {
+            final int ordinal = TinkerHelper.getComputeOrdinal((TinkerVertex) vertex);
+            if (this.votes[ordinal])
+                this.votes[ordinal] = false;
+            else
+                this.schedule(ordinal);
+        }
+        for (final Vertex vertex : this.sendMessages.keySet()) {
+            if (!this.schedule(vertex))
+                return this.vertices;
+        }
+        for (final MessageType.Local<?, ?> messageType : this.localMessageTypes) {
+            final TinkerMessageAdjacency adjacency = this.getAdjacency(messageType);
+            for (int i = 0; i < this.sendLocalMessages.length; i++) {
+                if (null == this.sendLocalMessages[i])
+                    continue;
+                if (null != adjacency) {
+                    final Iterator<TinkerEdge> edges = adjacency.sendingEdges((TinkerVertex) this.vertices[i]);
+                    while (edges.hasNext()) {
+                        // a vertex added since the view was created has no ordinal in it
+                        if (!this.schedule(adjacency.getReceiver(edges.next())))
+                            return this.vertices;
+                    }
+                } else {
+                    for (final Vertex receiver : messageType.<Traversal<Vertex, Vertex>>vertices(this.vertices[i]).toList()) {
+                        if (!this.schedule(receiver))
+                            return this.vertices;
+                    }
+                }
+            }
+        }
+        // execute the frontier in the order of the ordinals to walk the columns of the view
+        Arrays.sort(this.frontier, 0, this.frontierSize);
+        final Vertex[] next = new Vertex[this.frontierSize];
+        for (int i = 0; i < this.frontierSize; i++) {
+            next[i] = this.vertices[this.frontier[i]];
+            this.scheduled[this.frontier[i]] = false;
+        }
+        return next;
+    }
+
+    /**
+     * Schedule the receiver of a message.
+     *
+     * @return false if the receiver is not a vertex of the view, e.g. a reference to a vertex
+     */
+    private boolean schedule(final Vertex vertex) {
+        final int ordinal = this.getOrdinal(vertex);
+        if (ordinal < 0) {
+            this.clearFrontier();
+            return false;
+        }
+        this.schedule(ordinal);
+        return true;
+    }
+
+    private void schedule(final int ordinal) {
+        if (this.scheduled[ordinal])
+            return;
+        this.scheduled[ordinal] = true;
+        if (this.frontierSize == this.frontier.length)
+            this.frontier = Arrays.copyOf(this.frontier, this.frontier.length * 2);
+        this.frontier[this.frontierSize++] = ordinal;
+    }
+
+    private void clearFrontier() {
+        for (int i = 0; i < this.frontierSize; i++) {
+            this.scheduled[this.frontier[i]] = false;
+        }
+        this.frontierSize = 0;
     }
 }
@@ -1,45 +1,82 @@
 package com.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import com.tinkerpop.gremlin.process.computer.MessageCombiner;
 import com.tinkerpop.gremlin.process.computer.MessageType;
 import com.tinkerpop.gremlin.process.computer.Messenger;
+import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
 import com.tinkerpop.gremlin.structure.Edge;
 import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import com.tinkerpop.gremlin.util.StreamFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiFunction;
 
 /**
+ * Routes the messages of a vertex through the {@link TinkerMessageBoard}. A {@link MessageType.Local} message is
+ * stored once at the sending vertex and read by the adjacent vertices through the reversed incident traversal or,
+ * if the incident traversal compiles to a {@link TinkerMessageAdjacency}, straight from the adjacency.
+ * A {@link MessageType.Global} message is stored at each receiving vertex. When the vertex program declares a
+ * {@link MessageCombiner}, a new message is combined with the message already stored at the vertex so that each
+ * vertex holds at most one message per iteration. The messages of a dirty computation are received as described by
+ * {@link TinkerMessageBoard}.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TinkerMessenger<M> implements Messenger<M> {
 
     private final Vertex vertex;
     private final TinkerMessageBoard<M> messageBoard;
-    //private final Optional<MessageCombiner<M>> combiner;
+    private final Optional<MessageCombiner<M>> combiner;
 
-
-    public TinkerMessenger(final Vertex vertex, final TinkerMessageBoard<M> messageBoard) {
+    public TinkerMessenger(final Vertex vertex, final TinkerMessageBoard<M> messageBoard, final Optional<MessageCombiner<M>> combiner) {
         this.vertex = vertex;
         this.messageBoard = messageBoard;
-        //this.combiner = combiner;
+        this.combiner = combiner;
     }
 
     @Override
     public Iterable<M> receiveMessages(final MessageType messageType) {
         if (messageType instanceof MessageType.Local) {
             final MessageType.Local<Object, M> localMessageType = (MessageType.Local) messageType;
+            final TinkerMessageAdjacency adjacency = this.messageBoard.getAdjacency(localMessageType);
+            if (null != adjacency)
+                return () -> new LocalMessageIterator(adjacency, localMessageType.getEdgeFunction());
+
             final Edge[] edge = new Edge[1]; // simulates storage side-effects available in Gremlin, but not Java8 streams
             return StreamFactory.iterable(StreamFactory.stream(localMessageType.edges(this.vertex).reverse())
                     .map(e -> {
                         edge[0] = e;
-                        return this.messageBoard.receiveMessages.get(e.toV(localMessageType.getDirection()).next());
+                        return this.messageBoard.getLocalMessages(e.toV(localMessageType.getDirection()).next());
                     })
                     .filter(q -> null != q)
                     .flatMap(q -> q.stream())
                     .map(message -> localMessageType.getEdgeFunction().apply(message, edge[0])));
 
+        } else if (this.messageBoard.isDirty()) {
+            // the messages sent to the vertex so far in this iteration are taken so they are not received again
+            final List<M> messages = new ArrayList<>();
+            final Queue<M> previous = this.messageBoard.receiveMessages.get(this.vertex);
+            if (null != previous)
+                messages.addAll(previous);
+            final Queue<M> current = this.messageBoard.sendMessages.get(this.vertex);
+            if (null != current) {
+                M message;
+                while (null != (message = current.poll())) {
+                    messages.add(message);
+                }
+            }
+            return messages;
         } else {
             return StreamFactory.iterable(Arrays.asList(this.vertex).stream()
                     .map(this.messageBoard.receiveMessages::get)
@@ -51,24 +88,76 @@ public class TinkerMessenger<M> implements Messenger<M> {
     @Override
     public void sendMessage(final MessageType messageType, final M message) {
         if (messageType instanceof MessageType.Local) {
-            getMessageList(this.vertex).add(message);
+            if (!this.messageBoard.localMessageTypes.contains(messageType))
+                this.messageBoard.localMessageTypes.add((MessageType.Local) messageType);
+            // only the worker executing the vertex writes the slot of the vertex
+            final int ordinal = this.messageBoard.getOrdinal(this.vertex);
+            if (null == this.messageBoard.sendLocalMessages[ordinal])
+                this.messageBoard.sendLocalMessages[ordinal] = new ArrayDeque<>(1);
+            this.addMessage(this.messageBoard.sendLocalMessages[ordinal], message);
         } else {
-            ((MessageType.Global) messageType).vertices().forEach(v -> {
-                final Queue<M> queue = getMessageList(v);
-                /*if (this.combiner.isPresent() && !queue.isEmpty()) {
-                    this.combiner.get().combine(queue.remove(), message).forEachRemaining(queue::add);
-                } else*/
-                queue.add(message);
-            });
+            ((MessageType.Global) messageType).vertices().forEach(v -> this.addMessage(getMessageList(this.messageBoard.sendMessages, v), message));
         }
     }
 
-    private Queue<M> getMessageList(final Vertex vertex) {
-        Queue<M> messages = this.messageBoard.sendMessages.get(vertex);
-        if (null == messages) {
-            messages = new ConcurrentLinkedQueue<>();
-            this.messageBoard.sendMessages.put(vertex, messages);
+    @Override
+    public void voteToHalt() {
+        this.messageBoard.voteToHalt(this.vertex);
+    }
+
+    private void addMessage(final Queue<M> queue, final M message) {
+        if (this.combiner.isPresent()) {
+            // the workers may send to the same vertex at the same time
+            synchronized (queue) {
+                final M previous = queue.poll();
+                queue.add(null == previous ? message : this.combiner.get().combine(previous, message));
+            }
+        } else
+            queue.add(message);
+    }
+
+    private static <M> Queue<M> getMessageList(final Map<Vertex, Queue<M>> messages, final Vertex vertex) {
+        final Queue<M> queue = messages.get(vertex);
+        return null == queue ?
+                messages.computeIfAbsent(vertex, v -> new ConcurrentLinkedQueue<>()) :
+                queue;
+    }
+
+    /**
+     * The local messages of the senders of the vertex, read over the compiled adjacency of the message type.
+     */
+    private final class LocalMessageIterator implements Iterator<M> {
+
+        private final TinkerMessageAdjacency adjacency;
+        private final BiFunction<Object, Edge, M> edgeFunction;
+        private final Iterator<TinkerEdge> edges;
+        private TinkerEdge edge;
+        private Iterator<M> messages = Collections.emptyIterator();
+
+        private LocalMessageIterator(final TinkerMessageAdjacency adjacency, final BiFunction<Object, Edge, M> edgeFunction) {
+            this.adjacency = adjacency;
+            this.edgeFunction = edgeFunction;
+            this.edges = adjacency.receivingEdges((TinkerVertex) vertex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.messages.hasNext()) {
+                if (!this.edges.hasNext())
+                    return false;
+                this.edge = this.edges.next();
+                final Queue<M> queue = messageBoard.getLocalMessages(this.adjacency.getSender(this.edge));
+                if (null != queue)
+                    this.messages = queue.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public M next() {
+            if (!this.hasNext())
+                throw FastNoSuchElementException.instance();
+            return this.edgeFunction.apply(this.messages.next(), this.edge);
         }
-        return messages;
     }
 }
@@ -0,0 +1,168 @@
+package com.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.tinkerpop.gremlin.process.computer.MapReduce;
+import com.tinkerpop.gremlin.structure.io.kryo.GremlinKryo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * The map output of a {@link MapReduce} job that did not fit its memory budget. The output is written to disk as
+ * runs sorted by key, either with the map key sort of the job or by the hash code of the keys, and the runs are
+ * merged so that the reduce stage gets every key with all its values while only holding the values of one key per
+ * run in memory. Keys that compare equal but are not equal, like keys with the same hash code, are grouped apart.
+ * <p/>
+ * Keys and values are written with {@link GremlinKryo} so they must be of a type it can serialize.
+ *
+ * @author agent (agent@local)
+ */
+class TinkerReduceSpill<K, V> {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final File directory;
+    private final Comparator<K> comparator;
+    private final List<File> runs = new ArrayList<>();
+
+    public TinkerReduceSpill(final File directory, final Optional<Comparator<K>> mapKeySort) {
+        this.directory = directory;
+        this.comparator = mapKeySort.orElse((a, b) -> Integer.compare(a.hashCode(), b.hashCode()));
+    }
+
+    public boolean isEmpty() {
+        synchronized (this.runs) {
+            return this.runs.isEmpty();
+        }
+    }
+
+    /**
+     * Write the map output as a run sorted by key. Workers spill concurrently, each with its own map.
+     */
+    public void spill(final Map<K, List<V>> map) {
+        if (map.isEmpty())
+            return;
+        final List<Map.Entry<K, List<V>>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Map.Entry.comparingByKey(this.comparator));
+        final Kryo kryo = createKryo();
+        try {
+            // workers spill concurrently so the directory may be created by another worker
+            if (!this.directory.mkdirs() && !this.directory.isDirectory())
+                throw new IOException("Could not create directory " + this.directory);
+            final File file = File.createTempFile("tinkergraph-", ".spill", this.directory);
+            synchronized (this.runs) {
+                this.runs.add(file);
+            }
+            try (final Output output = new Output(new FileOutputStream(file), BUFFER_SIZE)) {
+                for (final Map.Entry<K, List<V>> entry : entries) {
+                    output.writeBoolean(true);
+                    kryo.writeClassAndObject(output, entry.getKey());
+                    output.writeInt(entry.getValue().size(), true);
+                    for (final V value : entry.getValue()) {
+                        kryo.writeClassAndObject(output, value);
+                    }
+                }
+                output.writeBoolean(false);
+            }
+        } catch (final IOException | KryoException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not spill the map output to " + this.directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Merge the runs and hand every key with all its values to the consumer, in the order of the runs. The runs are
+     * deleted once they are merged.
+     */
+    public void merge(final BiConsumer<K, Iterator<V>> consumer) {
+        final PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> this.comparator.compare(a.key, b.key));
+        try {
+            for (final File file : this.runs) {
+                final Run run = new Run(file);
+                if (run.next())
+                    queue.add(run);
+                else
+                    run.close();
+            }
+            while (!queue.isEmpty()) {
+                final K first = queue.peek().key;
+                final Map<K, List<V>> group = new LinkedHashMap<>();
+                while (!queue.isEmpty() && this.comparator.compare(queue.peek().key, first) == 0) {
+                    final Run run = queue.poll();
+                    final List<V> values = group.get(run.key);
+                    if (null == values)
+                        group.put(run.key, run.values);
+                    else
+                        values.addAll(run.values);
+                    if (run.next())
+                        queue.add(run);
+                    else
+                        run.close();
+                }
+                group.forEach((key, values) -> consumer.accept(key, values.iterator()));
+            }
+        } catch (final IOException | KryoException e) {
+            throw new IllegalStateException("Could not merge the map output spilled to " + this.directory + ": " + e.getMessage(), e);
+        } finally {
+            queue.forEach(Run::close);
+            this.delete();
+        }
+    }
+
+    public void delete() {
+        synchronized (this.runs) {
+            this.runs.forEach(File::delete);
+            this.runs.clear();
+        }
+    }
+
+    //////////////////////
+
+    private static Kryo createKryo() {
+        return GremlinKryo.build().addCustom(MapReduce.NullObject.class).create().createKryo();
+    }
+
+    /**
+     * A cursor over the keys of a run that holds the values of the current key.
+     */
+    private final class Run {
+
+        private final Kryo kryo = createKryo();
+        private final Input input;
+        private K key;
+        private List<V> values;
+
+        private Run(final File file) throws IOException {
+            this.input = new Input(new FileInputStream(file), BUFFER_SIZE);
+        }
+
+        private boolean next() {
+            if (!this.input.readBoolean())
+                return false;
+            this.key = (K) this.kryo.readClassAndObject(this.input);
+            final int size = this.input.readInt(true);
+            this.values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                this.values.add((V) this.kryo.readClassAndObject(this.input));
+            }
+            return true;
+        }
+
+        private void close() {
+            this.input.close();
+        }
+    }
+}
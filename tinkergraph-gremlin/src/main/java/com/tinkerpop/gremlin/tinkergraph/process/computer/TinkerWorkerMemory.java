@@ -0,0 +1,132 @@
+package com.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import com.tinkerpop.gremlin.process.computer.Memory;
+import com.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The memory of one worker of a {@link TinkerGraphComputer}. Only the worker updates its memory, so {@link #incr},
+ * {@link #and} and {@link #or} accumulate into primitive slots indexed by memory key without locking or boxing. The
+ * slots are merged into the {@link TinkerMemory} when the sub-round completes, so like the memory itself, the values
+ * that are read are those of the previous sub-round.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerWorkerMemory implements Memory {
+
+    private final TinkerMemory memory;
+    private final Map<String, Integer> slots;
+    private final String[] keys;
+    private final long[] increments;
+    private final boolean[] incremented;
+    private final boolean[] ands;
+    private final boolean[] anded;
+    private final boolean[] ors;
+    private final boolean[] ored;
+
+    TinkerWorkerMemory(final TinkerMemory memory, final Map<String, Integer> slots) {
+        this.memory = memory;
+        this.slots = slots;
+        this.keys = new String[slots.size()];
+        slots.forEach((key, slot) -> this.keys[slot] = key);
+        this.increments = new long[this.keys.length];
+        this.incremented = new boolean[this.keys.length];
+        this.ands = new boolean[this.keys.length];
+        this.anded = new boolean[this.keys.length];
+        this.ors = new boolean[this.keys.length];
+        this.ored = new boolean[this.keys.length];
+    }
+
+    @Override
+    public Set<String> keys() {
+        return this.memory.keys();
+    }
+
+    @Override
+    public <R> R get(final String key) throws IllegalArgumentException {
+        return this.memory.get(key);
+    }
+
+    @Override
+    public void set(final String key, final Object value) {
+        // a value set after an update of the worker replaces the update
+        final Integer slot = this.slots.get(key);
+        if (null != slot) {
+            this.incremented[slot] = false;
+            this.anded[slot] = false;
+            this.ored[slot] = false;
+        }
+        this.memory.set(key, value);
+    }
+
+    @Override
+    public int getIteration() {
+        return this.memory.getIteration();
+    }
+
+    @Override
+    public long getRuntime() {
+        return this.memory.getRuntime();
+    }
+
+    @Override
+    public long incr(final String key, final long delta) {
+        final int slot = this.memory.getSlot(key);
+        if (this.incremented[slot])
+            this.increments[slot] = this.increments[slot] + delta;
+        else {
+            this.increments[slot] = delta;
+            this.incremented[slot] = true;
+        }
+        return (Long) this.memory.previousMap.getOrDefault(key, 0l) + delta;
+    }
+
+    @Override
+    public boolean and(final String key, final boolean bool) {
+        final int slot = this.memory.getSlot(key);
+        if (this.anded[slot])
+            this.ands[slot] = this.ands[slot] && bool;
+        else {
+            this.ands[slot] = bool;
+            this.anded[slot] = true;
+        }
+        return (Boolean) this.memory.previousMap.getOrDefault(key, true) && bool;
+    }
+
+    @Override
+    public boolean or(final String key, final boolean bool) {
+        final int slot = this.memory.getSlot(key);
+        if (this.ored[slot])
+            this.ors[slot] = this.ors[slot] || bool;
+        else {
+            this.ors[slot] = bool;
+            this.ored[slot] = true;
+        }
+        return (Boolean) this.memory.previousMap.getOrDefault(key, true) || bool;
+    }
+
+    /**
+     * Merge the slots into the memory and clear them.
+     */
+    protected void flush() {
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.incremented[slot])
+                this.memory.mergeIncr(this.keys[slot], this.increments[slot]);
+            if (this.anded[slot])
+                this.memory.mergeAnd(this.keys[slot], this.ands[slot]);
+            if (this.ored[slot])
+                this.memory.mergeOr(this.keys[slot], this.ors[slot]);
+        }
+        Arrays.fill(this.incremented, false);
+        Arrays.fill(this.anded, false);
+        Arrays.fill(this.ored, false);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.memoryString(this);
+    }
+}
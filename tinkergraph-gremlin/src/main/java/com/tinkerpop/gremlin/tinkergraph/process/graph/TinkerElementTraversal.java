@@ -6,6 +6,7 @@ import com.tinkerpop.gremlin.process.graph.strategy.GraphTraversalStrategyRegist
 import com.tinkerpop.gremlin.process.graph.util.DefaultGraphTraversal;
 import com.tinkerpop.gremlin.process.util.DefaultTraversalStrategies;
 import com.tinkerpop.gremlin.structure.Element;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerCountStrategy;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerElementStepStrategy;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 
@@ -18,6 +19,7 @@ public class TinkerElementTraversal<S, E> extends DefaultGraphTraversal<S, E> {
         final DefaultTraversalStrategies traversalStrategies = new DefaultTraversalStrategies();
         GraphTraversalStrategyRegistry.instance().getTraversalStrategies().forEach(traversalStrategies::addStrategy);
         traversalStrategies.addStrategy(TinkerElementStepStrategy.instance());
+        traversalStrategies.addStrategy(TinkerCountStrategy.instance());
         TraversalStrategies.GlobalCache.registerStrategies(TinkerElementTraversal.class, traversalStrategies);
     }
 
@@ -6,6 +6,8 @@ import com.tinkerpop.gremlin.process.graph.util.DefaultGraphTraversal;
 import com.tinkerpop.gremlin.process.util.DefaultTraversalStrategies;
 import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.step.sideEffect.TinkerGraphStep;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerCountStrategy;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerElementStepStrategy;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerGraphStepStrategy;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 
@@ -18,6 +20,8 @@ public class TinkerGraphTraversal<S, E> extends DefaultGraphTraversal<S, E> {
         final DefaultTraversalStrategies traversalStrategies = new DefaultTraversalStrategies();
         GraphTraversalStrategyRegistry.instance().getTraversalStrategies().forEach(traversalStrategies::addStrategy);
         traversalStrategies.addStrategy(TinkerGraphStepStrategy.instance());
+        traversalStrategies.addStrategy(TinkerElementStepStrategy.instance());
+        traversalStrategies.addStrategy(TinkerCountStrategy.instance());
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraphTraversal.class, traversalStrategies);
     }
 
@@ -5,6 +5,8 @@ import com.tinkerpop.gremlin.process.graph.step.sideEffect.StartStep;
 import com.tinkerpop.gremlin.process.graph.strategy.GraphTraversalStrategyRegistry;
 import com.tinkerpop.gremlin.process.graph.util.DefaultGraphTraversal;
 import com.tinkerpop.gremlin.process.util.DefaultTraversalStrategies;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerCountStrategy;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.strategy.TinkerElementStepStrategy;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 
 /**
@@ -15,6 +17,8 @@ public class TinkerTraversal<S, E> extends DefaultGraphTraversal<S, E> {
     static {
         final DefaultTraversalStrategies traversalStrategies = new DefaultTraversalStrategies();
         GraphTraversalStrategyRegistry.instance().getTraversalStrategies().forEach(traversalStrategies::addStrategy);
+        traversalStrategies.addStrategy(TinkerElementStepStrategy.instance());
+        traversalStrategies.addStrategy(TinkerCountStrategy.instance());
         TraversalStrategies.GlobalCache.registerStrategies(TinkerTraversal.class, traversalStrategies);
     }
 
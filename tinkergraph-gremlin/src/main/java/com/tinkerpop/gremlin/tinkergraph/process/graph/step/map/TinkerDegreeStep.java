@@ -0,0 +1,71 @@
+package com.tinkerpop.gremlin.tinkergraph.process.graph.step.map;
+
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.Traverser;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
+import com.tinkerpop.gremlin.process.util.AbstractStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.process.util.TraversalMetrics;
+import com.tinkerpop.gremlin.structure.Direction;
+import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import com.tinkerpop.gremlin.util.StreamFactory;
+
+import java.util.Arrays;
+
+/**
+ * Stands in for a {@link VertexStep} that is only followed by a {@code count()}. Rather than emitting the incident
+ * edges or adjacent vertices of a vertex, the traverser of the vertex is emitted with its bulk multiplied by the
+ * degree of the vertex, which is the sum of the sizes of the adjacency buckets of the edge labels. The traverser of
+ * a vertex without such edges is filtered out, as the vertex step would emit nothing for it.
+ *
+ * @author agent (agent@local)
+ */
+public class TinkerDegreeStep extends AbstractStep<Vertex, Vertex> {
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+
+    public TinkerDegreeStep(final Traversal traversal, final Direction direction, final String... edgeLabels) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+    }
+
+    @Override
+    protected Traverser<Vertex> processNextStart() {
+        while (true) {
+            final Traverser.Admin<Vertex> traverser = this.starts.next();
+            if (PROFILING_ENABLED) TraversalMetrics.start(this);
+            // a vertex without edges is filtered out rather than emitted with a bulk of zero
+            final long degree = this.degree(traverser.get());
+            if (degree > 0) {
+                traverser.setBulk(traverser.bulk() * degree);
+                if (PROFILING_ENABLED) TraversalMetrics.finish(this, traverser);
+                return traverser;
+            }
+            if (PROFILING_ENABLED) TraversalMetrics.stop(this);
+        }
+    }
+
+    private long degree(final Vertex vertex) {
+        return vertex instanceof TinkerVertex ?
+                TinkerHelper.countEdges((TinkerVertex) vertex, this.direction, this.edgeLabels) :
+                StreamFactory.stream(vertex.iterators().edgeIterator(this.direction, this.edgeLabels)).count();
+    }
+
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return this.edgeLabels;
+    }
+
+    public String toString() {
+        return this.edgeLabels.length > 0 ?
+                TraversalHelper.makeStepString(this, this.direction, Arrays.toString(this.edgeLabels)) :
+                TraversalHelper.makeStepString(this, this.direction);
+    }
+}
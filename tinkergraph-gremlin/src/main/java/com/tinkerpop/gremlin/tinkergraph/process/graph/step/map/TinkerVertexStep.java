@@ -0,0 +1,107 @@
+package com.tinkerpop.gremlin.tinkergraph.process.graph.step.map;
+
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.structure.Compare;
+import com.tinkerpop.gremlin.structure.Direction;
+import com.tinkerpop.gremlin.structure.Edge;
+import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.structure.util.HasContainer;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.sideEffect.TinkerGraphStep;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import com.tinkerpop.gremlin.util.StreamFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link VertexStep} to the incident edges of a vertex that also tests the {@link HasContainer}s of the
+ * {@code has()} and {@code interval()} steps that followed it. If one of the keys has a vertex-centric index, the
+ * edges are range scanned from the index of the vertex rather than taken from its adjacency.
+ *
+ * @author agent (agent@local)
+ */
+public class TinkerVertexStep<E extends Edge> extends VertexStep<E> {
+
+    public final List<HasContainer> hasContainers = new ArrayList<>();
+
+    public TinkerVertexStep(final Traversal traversal, final Class<E> returnClass, final Direction direction, final String... edgeLabels) {
+        super(traversal, returnClass, direction, edgeLabels);
+        this.setFunction(traverser -> this.edges(traverser.get()));
+    }
+
+    private Iterator<E> edges(final Vertex vertex) {
+        if (vertex instanceof TinkerVertex) {
+            final Optional<Stream<TinkerEdge>> indexedEdges = this.getIndexedEdges((TinkerVertex) vertex);
+            if (indexedEdges.isPresent()) {
+                final Stream<E> edgeStream = indexedEdges.get()
+                        .filter(e -> this.hasLabel(e.label()) && HasContainer.testAll(e, this.hasContainers))
+                        .map(e -> (E) e);
+                // like TinkerGraphStep, the index buckets are copied unless they are weakly consistent
+                return TinkerHelper.isLazyIteration((TinkerGraph) vertex.graph()) ?
+                        edgeStream.iterator() :
+                        edgeStream.collect(Collectors.<E>toList()).iterator();
+            }
+        }
+        final Iterator<E> edges = (Iterator<E>) vertex.iterators().edgeIterator(this.getDirection(), this.getEdgeLabels());
+        return this.hasContainers.isEmpty() ?
+                edges :
+                StreamFactory.stream(edges).filter(e -> HasContainer.testAll(e, this.hasContainers)).iterator();
+    }
+
+    /**
+     * Plan a vertex-centric index lookup for the {@link HasContainer}s. An equality lookup is preferred over a range
+     * lookup. If no key is indexed, the returned {@link Optional} is empty and the adjacency must be scanned.
+     */
+    private Optional<Stream<TinkerEdge>> getIndexedEdges(final TinkerVertex vertex) {
+        final Set<String> indexedKeys = ((TinkerGraph) vertex.graph()).getVertexCentricIndexedKeys();
+        if (indexedKeys.isEmpty())
+            return Optional.empty();
+
+        HasContainer rangeContainer = null;
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!indexedKeys.contains(hasContainer.key) || !(hasContainer.value instanceof Comparable))
+                continue;
+            if (hasContainer.predicate.equals(Compare.eq))
+                return Optional.of(TinkerHelper.queryVertexCentricIndex(vertex, this.getDirection(), hasContainer.key,
+                        hasContainer.value, true, hasContainer.value, true));
+            if (null == rangeContainer && TinkerGraphStep.IndexRange.isRangePredicate(hasContainer.predicate))
+                rangeContainer = hasContainer;
+        }
+        if (null == rangeContainer)
+            return Optional.empty();
+        final TinkerGraphStep.IndexRange range = TinkerGraphStep.IndexRange.of(this.hasContainers, rangeContainer.key);
+        return Optional.of(TinkerHelper.queryVertexCentricIndex(vertex, this.getDirection(), rangeContainer.key,
+                range.from, range.fromInclusive, range.to, range.toInclusive));
+    }
+
+    private boolean hasLabel(final String label) {
+        final String[] edgeLabels = this.getEdgeLabels();
+        if (edgeLabels.length == 0)
+            return true;
+        for (final String edgeLabel : edgeLabels) {
+            if (edgeLabel.equals(label))
+                return true;
+        }
+        return false;
+    }
+
+    public String toString() {
+        if (this.hasContainers.isEmpty())
+            return super.toString();
+        final String returnClass = this.getReturnClass().getSimpleName().toLowerCase();
+        return this.getEdgeLabels().length > 0 ?
+                TraversalHelper.makeStepString(this, this.getDirection(), Arrays.toString(this.getEdgeLabels()), returnClass, this.hasContainers) :
+                TraversalHelper.makeStepString(this, this.getDirection(), returnClass, this.hasContainers);
+    }
+}
@@ -1,6 +1,8 @@
 package com.tinkerpop.gremlin.tinkergraph.process.graph.step.sideEffect;
 
+import com.tinkerpop.gremlin.process.Step;
 import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.Traverser;
 import com.tinkerpop.gremlin.process.graph.step.sideEffect.GraphStep;
 import com.tinkerpop.gremlin.process.TraverserGenerator;
 import com.tinkerpop.gremlin.process.util.TraversalHelper;
@@ -14,9 +16,15 @@ import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -26,6 +34,7 @@ import java.util.stream.Stream;
 public class TinkerGraphStep<E extends Element> extends GraphStep<E> {
 
     public final List<HasContainer> hasContainers = new ArrayList<>();
+    private boolean countOnly = false;
 
     public TinkerGraphStep(final Traversal traversal, final Class<E> returnClass) {
         super(traversal, returnClass);
@@ -34,37 +43,173 @@ public class TinkerGraphStep<E extends Element> extends GraphStep<E> {
     @Override
     public void generateTraversers(final TraverserGenerator traverserGenerator) {
         if (PROFILING_ENABLED) TraversalMetrics.start(this);
+        if (this.countOnly) {
+            final OptionalLong count = this.count();
+            if (count.isPresent()) {
+                // a single traverser stands in for all the elements and carries their number as its bulk
+                if (count.getAsLong() > 0) {
+                    final Traverser.Admin traverser = traverserGenerator.generate(count.getAsLong(), (Step) this);
+                    traverser.setBulk(count.getAsLong());
+                    this.starts.add(traverser);
+                }
+                if (PROFILING_ENABLED) TraversalMetrics.stop(this);
+                return;
+            }
+        }
         this.start = Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges();
         super.generateTraversers(traverserGenerator);
         if (PROFILING_ENABLED) TraversalMetrics.stop(this);
     }
 
     private Iterator<? extends Edge> edges() {
-        final HasContainer indexedContainer = getIndexKey(Edge.class);
-        final Stream<? extends Edge> edgeStream = (null == indexedContainer) ?
-                TinkerHelper.getEdges((TinkerGraph)this.traversal.sideEffects().getGraph()).stream() :
-                TinkerHelper.queryEdgeIndex((TinkerGraph)this.traversal.sideEffects().getGraph(), indexedContainer.key, indexedContainer.value).stream();
-
-        // the copy to a new List is intentional as remove() operations will cause ConcurrentModificationException otherwise
-        return edgeStream.filter(e -> HasContainer.testAll(e, hasContainers)).collect(Collectors.<Edge>toList()).iterator();
+        final TinkerGraph graph = (TinkerGraph) this.traversal.sideEffects().getGraph();
+        final Stream<Edge> edgeStream = this.getIndexedElements(Edge.class)
+                .orElseGet(() -> TinkerHelper.getEdges(graph).stream())
+                .filter(e -> HasContainer.testAll(e, this.hasContainers));
+        return this.iterate(graph, edgeStream);
     }
 
     private Iterator<? extends Vertex> vertices() {
-        final HasContainer indexedContainer = getIndexKey(Vertex.class);
-        final Stream<? extends Vertex> vertexStream = (null == indexedContainer) ?
-                TinkerHelper.getVertices((TinkerGraph)this.traversal.sideEffects().getGraph()).stream() :
-                TinkerHelper.queryVertexIndex((TinkerGraph)this.traversal.sideEffects().getGraph(), indexedContainer.key, indexedContainer.value).stream();
+        final TinkerGraph graph = (TinkerGraph) this.traversal.sideEffects().getGraph();
+        final Stream<Vertex> vertexStream = this.getIndexedElements(Vertex.class)
+                .orElseGet(() -> TinkerHelper.getVertices(graph).stream())
+                .filter(v -> HasContainer.testAll(v, this.hasContainers));
+        return this.iterate(graph, vertexStream);
+    }
+
+    /**
+     * Only emit as many traversers as are needed for a following {@code count()} to count the elements. The
+     * elements themselves are not emitted if {@link #count()} can answer the count, otherwise this has no effect.
+     */
+    public void setCountOnly(final boolean countOnly) {
+        this.countOnly = countOnly;
+    }
+
+    /**
+     * The number of elements of the step if it can be looked up rather than counted. This is possible without
+     * {@link HasContainer}s, for one equality on a key index and for the equalities on exactly the keys of a
+     * composite index. Otherwise the returned {@link OptionalLong} is empty.
+     */
+    public OptionalLong count() {
+        final TinkerGraph graph = (TinkerGraph) this.traversal.sideEffects().getGraph();
+        if (this.hasContainers.isEmpty())
+            return OptionalLong.of(Vertex.class.isAssignableFrom(this.returnClass) ?
+                    TinkerHelper.getVertices(graph).size() :
+                    TinkerHelper.getEdges(graph).size());
+
+        final Map<String, Object> equalities = new HashMap<>();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!Compare.eq.equals(hasContainer.predicate) || null != equalities.putIfAbsent(hasContainer.key, hasContainer.value))
+                return OptionalLong.empty();
+        }
+        if (this.hasContainers.size() == 1) {
+            final HasContainer hasContainer = this.hasContainers.get(0);
+            if (graph.getIndexedKeys(this.returnClass).contains(hasContainer.key) &&
+                    (hasContainer.value instanceof Comparable || !TinkerHelper.isSortedIndex(graph, this.returnClass, hasContainer.key)))
+                return OptionalLong.of(TinkerHelper.countIndex(graph, this.returnClass, hasContainer.key, hasContainer.value));
+        }
+        for (final List<String> keys : graph.getCompositeIndexedKeys(this.returnClass)) {
+            if (keys.size() == equalities.size() && equalities.keySet().containsAll(keys))
+                return OptionalLong.of(TinkerHelper.countCompositeIndex(graph, this.returnClass, keys,
+                        keys.stream().map(equalities::get).collect(Collectors.toList())));
+        }
+        return OptionalLong.empty();
+    }
 
-        // the copy to a new List is intentional as remove() operations will cause ConcurrentModificationException otherwise
-        return vertexStream.filter(v -> HasContainer.testAll(v, this.hasContainers)).collect(Collectors.<Vertex>toList()).iterator();
+    /**
+     * A lazily iterating graph is backed by weakly consistent collections so the stream can be consumed as the
+     * traversal pulls on it.  Otherwise the copy to a new List is intentional as remove() operations will cause
+     * ConcurrentModificationException.
+     */
+    private <E extends Element> Iterator<E> iterate(final TinkerGraph graph, final Stream<E> stream) {
+        return TinkerHelper.isLazyIteration(graph) ? stream.iterator() : stream.collect(Collectors.<E>toList()).iterator();
     }
 
-    private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
-        final Set<String> indexedKeys = ((TinkerGraph)this.traversal.sideEffects().getGraph()).getIndexedKeys(indexedClass);
+    /**
+     * Plan an index lookup for the {@link HasContainer}s. Every equality lookup that a single key or composite index
+     * can answer is costed by the size of its posting set and only the smallest set is fetched. A range lookup on a
+     * {@link TinkerGraph.IndexType#SORTED} index is used when no equality lookup is possible. If no index applies, the
+     * returned {@link Optional} is empty and the elements must be scanned.
+     */
+    private <E extends Element> Optional<Stream<E>> getIndexedElements(final Class<E> indexedClass) {
+        final TinkerGraph graph = (TinkerGraph) this.traversal.sideEffects().getGraph();
+        final Set<String> indexedKeys = graph.getIndexedKeys(indexedClass);
+        final Map<String, Object> equalities = new HashMap<>();
+        Supplier<Stream<? extends Element>> lookup = null;
+        long lookupCount = Long.MAX_VALUE;
+
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!hasContainer.predicate.equals(Compare.eq))
+                continue;
+            equalities.putIfAbsent(hasContainer.key, hasContainer.value);
+            if (indexedKeys.contains(hasContainer.key) &&
+                    (hasContainer.value instanceof Comparable || !TinkerHelper.isSortedIndex(graph, indexedClass, hasContainer.key))) {
+                final long count = TinkerHelper.countIndex(graph, indexedClass, hasContainer.key, hasContainer.value);
+                if (count < lookupCount) {
+                    lookupCount = count;
+                    lookup = () -> TinkerHelper.queryIndex(graph, indexedClass, hasContainer.key, hasContainer.value);
+                }
+            }
+        }
+        for (final List<String> keys : graph.getCompositeIndexedKeys(indexedClass)) {
+            if (equalities.keySet().containsAll(keys)) {
+                final List<Object> values = keys.stream().map(equalities::get).collect(Collectors.toList());
+                final long count = TinkerHelper.countCompositeIndex(graph, indexedClass, keys, values);
+                if (count < lookupCount) {
+                    lookupCount = count;
+                    lookup = () -> TinkerHelper.queryCompositeIndex(graph, indexedClass, keys, values);
+                }
+            }
+        }
+        if (null != lookup)
+            return Optional.of((Stream<E>) lookup.get());
+
         return this.hasContainers.stream()
-                .filter(c -> indexedKeys.contains(c.key) && c.predicate.equals(Compare.eq))
+                .filter(c -> indexedKeys.contains(c.key) && IndexRange.isRangePredicate(c.predicate) && c.value instanceof Comparable &&
+                        TinkerHelper.isSortedIndex(graph, indexedClass, c.key))
                 .findAny()
-                .orElseGet(() -> null);
+                .map(c -> {
+                    final IndexRange range = IndexRange.of(this.hasContainers, c.key);
+                    return (Stream<E>) TinkerHelper.queryIndex(graph, indexedClass, c.key, range.from, range.fromInclusive, range.to, range.toInclusive);
+                });
+    }
+
+    /**
+     * A range lookup on a sorted index as folded from the range {@link HasContainer}s on one key (e.g. the two
+     * containers of an {@code interval()}). All containers are still tested against the returned elements so only
+     * one bound per side is needed.
+     */
+    public static final class IndexRange {
+        public Object from = null;
+        public boolean fromInclusive = false;
+        public Object to = null;
+        public boolean toInclusive = false;
+
+        private IndexRange() {
+        }
+
+        public static IndexRange of(final List<HasContainer> hasContainers, final String key) {
+            final IndexRange range = new IndexRange();
+            for (final HasContainer hasContainer : hasContainers) {
+                if (!hasContainer.key.equals(key) || !(hasContainer.value instanceof Comparable))
+                    continue;
+                if (null == range.from && (hasContainer.predicate.equals(Compare.gt) || hasContainer.predicate.equals(Compare.gte))) {
+                    range.from = hasContainer.value;
+                    range.fromInclusive = hasContainer.predicate.equals(Compare.gte);
+                } else if (null == range.to && (hasContainer.predicate.equals(Compare.lt) || hasContainer.predicate.equals(Compare.lte))) {
+                    range.to = hasContainer.value;
+                    range.toInclusive = hasContainer.predicate.equals(Compare.lte);
+                }
+            }
+            // bounds of different types can not be compared so only the lower bound is used
+            if (null != range.from && null != range.to && !range.from.getClass().equals(range.to.getClass()))
+                range.to = null;
+            return range;
+        }
+
+        public static boolean isRangePredicate(final BiPredicate predicate) {
+            return predicate.equals(Compare.gt) || predicate.equals(Compare.gte) || predicate.equals(Compare.lt) || predicate.equals(Compare.lte);
+        }
     }
 
     public String toString() {
@@ -0,0 +1,77 @@
+package com.tinkerpop.gremlin.tinkergraph.process.graph.strategy;
+
+import com.tinkerpop.gremlin.process.Step;
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.TraversalEngine;
+import com.tinkerpop.gremlin.process.TraversalStrategy;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.CountStep;
+import com.tinkerpop.gremlin.process.graph.step.sideEffect.IdentityStep;
+import com.tinkerpop.gremlin.process.graph.strategy.AbstractTraversalStrategy;
+import com.tinkerpop.gremlin.process.graph.strategy.TraverserSourceStrategy;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.map.TinkerDegreeStep;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.sideEffect.TinkerGraphStep;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Push a {@code count()} down into the step that produces the counted objects. The elements of a
+ * {@link TinkerGraphStep} are counted by the size of the graph or of an index bucket and the edges or vertices of a
+ * {@link VertexStep} are counted by the degree of the vertex. The counted objects are then never emitted as the
+ * bulk of the traversers carries the count to the {@link CountStep}.
+ *
+ * @author agent (agent@local)
+ */
+public class TinkerCountStrategy extends AbstractTraversalStrategy {
+
+    private static final TinkerCountStrategy INSTANCE = new TinkerCountStrategy();
+
+    private final static Set<Class<? extends TraversalStrategy>> PRIORS = Stream.of(TinkerGraphStepStrategy.class, TinkerElementStepStrategy.class).collect(Collectors.toSet());
+    private final static Set<Class<? extends TraversalStrategy>> POSTS = Stream.of(TraverserSourceStrategy.class).collect(Collectors.toSet());
+
+    private TinkerCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal<?, ?> traversal, final TraversalEngine engine) {
+        if (engine.equals(TraversalEngine.COMPUTER) || !TraversalHelper.hasStepOfClass(CountStep.class, traversal))
+            return;
+
+        final Step<?, ?> startStep = TraversalHelper.getStart(traversal);
+        if (startStep instanceof TinkerGraphStep && !TraversalHelper.isLabeled(startStep) && isCounted(startStep))
+            ((TinkerGraphStep<?>) startStep).setCountOnly(true);
+
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!TraversalHelper.isLabeled(vertexStep) && isCounted(vertexStep))
+                TraversalHelper.replaceStep(vertexStep, new TinkerDegreeStep(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels()), traversal);
+        }
+    }
+
+    /**
+     * Whether the objects emitted by the step only reach a {@link CountStep}.
+     */
+    private static boolean isCounted(final Step<?, ?> step) {
+        Step<?, ?> currentStep = step.getNextStep();
+        while (currentStep instanceof IdentityStep && !TraversalHelper.isLabeled(currentStep)) {
+            currentStep = currentStep.getNextStep();
+        }
+        return currentStep instanceof CountStep;
+    }
+
+    @Override
+    public Set<Class<? extends TraversalStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    @Override
+    public Set<Class<? extends TraversalStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public static TinkerCountStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -6,16 +6,20 @@ import com.tinkerpop.gremlin.process.Traversal;
 import com.tinkerpop.gremlin.process.TraversalEngine;
 import com.tinkerpop.gremlin.process.TraversalStrategy;
 import com.tinkerpop.gremlin.process.graph.step.filter.HasStep;
+import com.tinkerpop.gremlin.process.graph.step.filter.IntervalStep;
+import com.tinkerpop.gremlin.process.graph.step.map.VertexStep;
 import com.tinkerpop.gremlin.process.graph.step.sideEffect.IdentityStep;
 import com.tinkerpop.gremlin.process.graph.step.sideEffect.StartStep;
 import com.tinkerpop.gremlin.process.graph.strategy.AbstractTraversalStrategy;
 import com.tinkerpop.gremlin.process.graph.strategy.TraverserSourceStrategy;
+import com.tinkerpop.gremlin.process.util.EmptyStep;
 import com.tinkerpop.gremlin.process.util.TraversalHelper;
 import com.tinkerpop.gremlin.structure.Compare;
 import com.tinkerpop.gremlin.structure.Edge;
 import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.structure.util.HasContainer;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.map.TinkerVertexStep;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.step.sideEffect.TinkerGraphStep;
 
 import java.util.Set;
@@ -36,11 +40,15 @@ public class TinkerElementStepStrategy extends AbstractTraversalStrategy {
 
     @Override
     public void apply(final Traversal<?, ?> traversal, final TraversalEngine engine) {
-        if (engine.equals(TraversalEngine.STANDARD))
+        if (engine.equals(TraversalEngine.STANDARD)) {
+            TinkerElementStepStrategy.foldHasContainers(traversal);
             return;
+        }
 
+        if (!(TraversalHelper.getStart(traversal) instanceof StartStep))
+            return;
         final StartStep<Element> startStep = (StartStep) TraversalHelper.getStart(traversal);
-        if (startStep.startAssignableTo(Vertex.class, Edge.class)) {
+        if (null != startStep.getStart() && startStep.startAssignableTo(Vertex.class, Edge.class)) {
             final Element element = ((StartStep<?>) startStep).getStart();
             final String label = startStep.getLabel();
             TraversalHelper.removeStep(startStep, traversal);
@@ -54,6 +62,42 @@ public class TinkerElementStepStrategy extends AbstractTraversalStrategy {
         }
     }
 
+    /**
+     * Replace every {@link VertexStep} to edges that is followed by {@code has()} or {@code interval()} steps with a
+     * {@link TinkerVertexStep} that tests their {@link HasContainer}s itself and so can answer them from a
+     * vertex-centric index.
+     */
+    private static void foldHasContainers(final Traversal<?, ?> traversal) {
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!Edge.class.isAssignableFrom(vertexStep.getReturnClass()))
+                continue;
+            final Step<?, ?> nextStep = vertexStep.getNextStep();
+            if (TraversalHelper.isLabeled(nextStep) || !(nextStep instanceof HasStep || nextStep instanceof IntervalStep))
+                continue;
+
+            final TinkerVertexStep<Edge> tinkerVertexStep = new TinkerVertexStep<>(traversal, Edge.class, vertexStep.getDirection(), vertexStep.getEdgeLabels());
+            if (TraversalHelper.isLabeled(vertexStep))
+                tinkerVertexStep.setLabel(vertexStep.getLabel());
+            TraversalHelper.replaceStep(vertexStep, tinkerVertexStep, traversal);
+            Step<?, ?> currentStep = tinkerVertexStep.getNextStep();
+            while (true) {
+                if (currentStep == EmptyStep.instance() || TraversalHelper.isLabeled(currentStep)) break;
+                if (currentStep instanceof HasStep) {
+                    tinkerVertexStep.hasContainers.addAll(((HasStep) currentStep).getHasContainers());
+                    TraversalHelper.removeStep(currentStep, traversal);
+                } else if (currentStep instanceof IntervalStep) {
+                    tinkerVertexStep.hasContainers.addAll(((IntervalStep) currentStep).getHasContainers());
+                    TraversalHelper.removeStep(currentStep, traversal);
+                } else if (currentStep instanceof IdentityStep) {
+                    // do nothing
+                } else {
+                    break;
+                }
+                currentStep = currentStep.getNextStep();
+            }
+        }
+    }
+
     public Set<Class<? extends TraversalStrategy>> applyPost() {
         return POSTS;
     }
@@ -0,0 +1,275 @@
+package com.tinkerpop.gremlin.tinkergraph.structure;
+
+import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
+import com.tinkerpop.gremlin.structure.Direction;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The compact adjacency of one direction of a {@link TinkerVertex}. The adjacency is an array with one bucket per
+ * edge label where a bucket is either a single {@link TinkerEdge} or, once a second edge with the label is added,
+ * an array of edges that doubles on demand and keeps its free slots at the end as {@code null}. Edge labels are
+ * interned by the graph so buckets are matched by reference. A vertex without edges in a direction has no
+ * adjacency array at all.
+ * <p/>
+ * An update that changes a bucket copies the adjacency array, changes the copy and returns it, so that the vertex
+ * publishes it with a single write of its volatile field and a reader never sees a bucket it has not seen built. The
+ * updates in place are the slot writes of a bucket array that keeps its size: an added edge fills the next free
+ * slot, and a removed edge is replaced by the last edge of the bucket, whose slot is freed first. A reader either
+ * sees a slot as free and stops there, or sees an edge whose label and vertices are final, so it never sees an edge
+ * twice. An iterator reads the slot of the edge it returned last again if another edge was moved into it, so
+ * removing the edges of an iteration as they are returned does not skip any, but an iteration may miss an edge that
+ * was moved into a slot it passed earlier. Iterators therefore never fail with a
+ * {@link java.util.ConcurrentModificationException} and they skip edges that were removed after they were created.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerAdjacency {
+
+    private TinkerAdjacency() {
+    }
+
+    public static Object[] add(final Object[] buckets, final TinkerEdge edge) {
+        if (null == buckets)
+            return new Object[]{edge};
+
+        for (int i = 0; i < buckets.length; i++) {
+            final Object bucket = buckets[i];
+            if (bucket instanceof TinkerEdge) {
+                if (sameLabel(((TinkerEdge) bucket).label, edge.label))
+                    return replace(buckets, i, new TinkerEdge[]{(TinkerEdge) bucket, edge});
+            } else {
+                final TinkerEdge[] edges = (TinkerEdge[]) bucket;
+                if (sameLabel(edges[0].label, edge.label)) {
+                    final int size = size(edges);
+                    if (size < edges.length) {
+                        edges[size] = edge;
+                        return buckets;
+                    }
+                    final TinkerEdge[] grown = Arrays.copyOf(edges, size << 1);
+                    grown[size] = edge;
+                    return replace(buckets, i, grown);
+                }
+            }
+        }
+
+        final Object[] extended = Arrays.copyOf(buckets, buckets.length + 1);
+        extended[buckets.length] = edge;
+        return extended;
+    }
+
+    public static Object[] remove(final Object[] buckets, final TinkerEdge edge) {
+        if (null == buckets)
+            return null;
+
+        for (int i = 0; i < buckets.length; i++) {
+            final Object bucket = buckets[i];
+            if (bucket == edge) {
+                if (buckets.length == 1)
+                    return null;
+                final Object[] reduced = new Object[buckets.length - 1];
+                System.arraycopy(buckets, 0, reduced, 0, i);
+                System.arraycopy(buckets, i + 1, reduced, i, buckets.length - i - 1);
+                return reduced;
+            } else if (bucket instanceof TinkerEdge[]) {
+                final TinkerEdge[] edges = (TinkerEdge[]) bucket;
+                if (!sameLabel(edges[0].label, edge.label))
+                    continue;
+                final int size = size(edges);
+                for (int j = 0; j < size; j++) {
+                    if (edges[j] == edge) {
+                        if (size == 2)
+                            return replace(buckets, i, edges[1 - j]);
+                        if (size - 1 <= edges.length >> 2) {
+                            final TinkerEdge[] reduced = new TinkerEdge[edges.length >> 1];
+                            System.arraycopy(edges, 0, reduced, 0, j);
+                            System.arraycopy(edges, j + 1, reduced, j, size - j - 1);
+                            return replace(buckets, i, reduced);
+                        }
+                        final TinkerEdge last = edges[size - 1];
+                        edges[size - 1] = null;
+                        if (j != size - 1)
+                            edges[j] = last;
+                        return buckets;
+                    }
+                }
+                return buckets;
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Iterate the edges of the adjacency arrays. With {@link Direction#BOTH} the outgoing edges come first.
+     */
+    public static Iterator<TinkerEdge> edges(final TinkerVertex vertex, final Direction direction, final String... labels) {
+        return new AdjacencyIterator<>(vertex, direction, labels, false);
+    }
+
+    /**
+     * Iterate the vertices adjacent to the vertex without materializing the edges in between.
+     */
+    public static Iterator<TinkerVertex> vertices(final TinkerVertex vertex, final Direction direction, final String... labels) {
+        return new AdjacencyIterator<>(vertex, direction, labels, true);
+    }
+
+    /**
+     * The number of edges of the vertex with one of the labels. Only the bucket sizes are summed so the edges are
+     * not visited. With {@link Direction#BOTH} a self-loop is counted twice just like it is iterated twice.
+     */
+    public static long count(final TinkerVertex vertex, final Direction direction, final String... labels) {
+        switch (direction) {
+            case OUT:
+                return count(vertex.outEdges, labels);
+            case IN:
+                return count(vertex.inEdges, labels);
+            default:
+                return count(vertex.outEdges, labels) + count(vertex.inEdges, labels);
+        }
+    }
+
+    //////////////////////
+
+    private static long count(final Object[] buckets, final String[] labels) {
+        if (null == buckets)
+            return 0;
+        long count = 0;
+        for (final Object bucket : buckets) {
+            if (bucket instanceof TinkerEdge) {
+                if (matches(labels, ((TinkerEdge) bucket).label))
+                    count++;
+            } else {
+                final TinkerEdge[] edges = (TinkerEdge[]) bucket;
+                if (matches(labels, edges[0].label))
+                    count = count + size(edges);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A copy of the adjacency array with the bucket at the index replaced, as the array may already be published.
+     */
+    private static Object[] replace(final Object[] buckets, final int index, final Object bucket) {
+        final Object[] replaced = buckets.clone();
+        replaced[index] = bucket;
+        return replaced;
+    }
+
+    private static boolean matches(final String[] labels, final String label) {
+        if (labels.length == 0)
+            return true;
+        for (final String other : labels) {
+            if (sameLabel(other, label))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean sameLabel(final String a, final String b) {
+        return a == b || a.equals(b);
+    }
+
+    /**
+     * The number of edges in a bucket array, i.e. the index of its first free slot.
+     */
+    private static int size(final TinkerEdge[] edges) {
+        int low = 0;
+        int high = edges.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (null == edges[middle])
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        return low;
+    }
+
+    private static final class AdjacencyIterator<E> implements Iterator<E> {
+
+        private final String[] labels;
+        private final boolean emitVertices;
+        private Object[] buckets;
+        private Object[] inBuckets;
+        private boolean outgoing;
+        private int bucket = -1;
+        private TinkerEdge[] edges = null;
+        private int index = 0;
+        private TinkerEdge previous = null;
+        private TinkerEdge next = null;
+        private boolean nextOutgoing;
+
+        private AdjacencyIterator(final TinkerVertex vertex, final Direction direction, final String[] labels, final boolean emitVertices) {
+            this.labels = labels;
+            this.emitVertices = emitVertices;
+            this.outgoing = !direction.equals(Direction.IN);
+            this.buckets = this.outgoing ? vertex.outEdges : vertex.inEdges;
+            this.inBuckets = direction.equals(Direction.BOTH) ? vertex.inEdges : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            // the edge is looked up lazily and checked again as it may have been removed since it was found
+            if (null == this.next || this.next.removed) {
+                this.next = this.advance();
+                this.nextOutgoing = this.outgoing;
+            }
+            return null != this.next;
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext())
+                throw FastNoSuchElementException.instance();
+            final TinkerEdge edge = this.next;
+            this.next = null;
+            return (E) (this.emitVertices ? (this.nextOutgoing ? edge.inVertex : edge.outVertex) : edge);
+        }
+
+        private TinkerEdge advance() {
+            while (true) {
+                if (null != this.edges) {
+                    // the edge returned last may have been removed and replaced by the last edge of the bucket
+                    if (null != this.previous && this.previous != this.edges[this.index - 1] && null != this.edges[this.index - 1])
+                        this.index--;
+                    while (this.index < this.edges.length) {
+                        final TinkerEdge edge = this.edges[this.index++];
+                        if (null == edge)
+                            break;
+                        if (!edge.removed) {
+                            this.previous = edge;
+                            return edge;
+                        }
+                    }
+                    this.edges = null;
+                }
+                if (null != this.buckets && ++this.bucket < this.buckets.length) {
+                    final Object current = this.buckets[this.bucket];
+                    if (current instanceof TinkerEdge) {
+                        final TinkerEdge edge = (TinkerEdge) current;
+                        if (this.matches(edge.label) && !edge.removed)
+                            return edge;
+                    } else if (this.matches(((TinkerEdge[]) current)[0].label)) {
+                        this.edges = (TinkerEdge[]) current;
+                        this.index = 0;
+                        this.previous = null;
+                    }
+                } else if (this.outgoing && null != this.inBuckets) {
+                    // the outgoing edges of a Direction.BOTH iteration are exhausted
+                    this.buckets = this.inBuckets;
+                    this.inBuckets = null;
+                    this.outgoing = false;
+                    this.bucket = -1;
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        private boolean matches(final String label) {
+            return TinkerAdjacency.matches(this.labels, label);
+        }
+    }
+}
@@ -15,7 +15,6 @@ import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
 
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Set;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -40,8 +39,13 @@ public class TinkerEdge extends TinkerElement implements Edge, Edge.Iterators {
             ElementHelper.validateProperty(key, value);
             final Property oldProperty = super.property(key);
             final Property<V> newProperty = new TinkerProperty<>(this, key, value);
-            this.properties.put(key, Arrays.asList(newProperty));
+            synchronized (this) {
+                this.properties.put(key, Arrays.asList(newProperty));
+            }
             this.graph.edgeIndex.autoUpdate(key, value, oldProperty.isPresent() ? oldProperty.value() : null, this);
+            if (oldProperty.isPresent()) TinkerVertexCentricIndex.remove(this, key, oldProperty.value());
+            TinkerVertexCentricIndex.put(this, key, value);
+            if (null != this.graph.storage) this.graph.storage.log(TinkerStorage.SET_EDGE_PROPERTY, this.id, key, value);
             return newProperty;
         }
     }
@@ -51,24 +55,32 @@ public class TinkerEdge extends TinkerElement implements Edge, Edge.Iterators {
     public void remove() {
         if (this.removed)
             throw Element.Exceptions.elementAlreadyRemoved(Edge.class, this.id);
+        this.detach(null);
+    }
+
+    /**
+     * Remove the edge from the graph and from the adjacency of its vertices other than the removed vertex, whose
+     * adjacency is dropped as a whole.
+     */
+    protected void detach(final TinkerVertex removedVertex) {
         final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
         final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
 
-        if (null != outVertex && null != outVertex.outEdges) {
-            final Set<Edge> edges = outVertex.outEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
-        if (null != inVertex && null != inVertex.inEdges) {
-            final Set<Edge> edges = inVertex.inEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
+        if (null != outVertex && outVertex != removedVertex)
+            TinkerHelper.removeOutEdge(outVertex, this);
+        if (null != inVertex && inVertex != removedVertex)
+            TinkerHelper.removeInEdge(inVertex, this);
 
+        // marked first so that a concurrent index build does not index the edge again
+        this.removed = true;
         this.graph.edgeIndex.removeElement(this);
+        TinkerVertexCentricIndex.removeAll(this);
         this.graph.edges.remove(this.id());
-        this.properties.clear();
-        this.removed = true;
+        TinkerHelper.releaseLabel(this.graph, this.label);
+        synchronized (this) {
+            this.properties.clear();
+        }
+        if (null != this.graph.storage) this.graph.storage.log(TinkerStorage.REMOVE_EDGE, this.id);
     }
 
     @Override
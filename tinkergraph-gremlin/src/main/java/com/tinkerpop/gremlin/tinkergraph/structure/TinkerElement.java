@@ -5,7 +5,8 @@ import com.tinkerpop.gremlin.structure.Graph;
 import com.tinkerpop.gremlin.structure.Property;
 import com.tinkerpop.gremlin.structure.util.ElementHelper;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +18,7 @@ import java.util.stream.Collectors;
  */
 public abstract class TinkerElement implements Element, Element.Iterators {
 
-    protected Map<String, List<Property>> properties = new HashMap<>();
+    protected Map<String, List<Property>> properties;
     protected final Object id;
     protected final String label;
     protected final TinkerGraph graph;
@@ -27,6 +28,7 @@ public abstract class TinkerElement implements Element, Element.Iterators {
         this.graph = graph;
         this.id = id;
         this.label = label;
+        this.properties = new TinkerPropertyMap(graph);
     }
 
     @Override
@@ -70,7 +72,8 @@ public abstract class TinkerElement implements Element, Element.Iterators {
             final List<Property> list = this.graph.graphView.getProperty(this, key);
             return list.size() == 0 ? Property.<V>empty() : list.get(0);
         } else {
-            return this.properties.containsKey(key) ? this.properties.get(key).get(0) : Property.<V>empty();
+            final List<Property> list = this.properties.get(key);
+            return null == list ? Property.<V>empty() : list.get(0);
         }
     }
 
@@ -84,9 +87,17 @@ public abstract class TinkerElement implements Element, Element.Iterators {
 
     @Override
     public <V> Iterator<? extends Property<V>> propertyIterator(final String... propertyKeys) {
-        return (Iterator) (TinkerHelper.inComputerMode(this.graph) ?
-                this.graph.graphView.getProperties(TinkerElement.this).stream().filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).iterator() :
-                this.properties.values().stream().flatMap(list -> list.stream()).filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).collect(Collectors.toList()).iterator());
+        if (TinkerHelper.inComputerMode(this.graph)) {
+            if (propertyKeys.length == 1)
+                return (Iterator) this.graph.graphView.getProperty(this, propertyKeys[0]).iterator();
+            return (Iterator) this.graph.graphView.getProperties(TinkerElement.this).stream().filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).iterator();
+        }
+        if (propertyKeys.length == 1) {
+            // a single key is looked up directly rather than filtered out of all the properties
+            final List<Property> list = this.properties.get(propertyKeys[0]);
+            return null == list ? Collections.emptyIterator() : (Iterator) new ArrayList<>(list).iterator();
+        }
+        return (Iterator) this.properties.values().stream().flatMap(list -> list.stream()).filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).collect(Collectors.toList()).iterator();
     }
 
 
@@ -17,9 +17,17 @@ import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerTraversal;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An in-sideEffects, reference implementation of the property graph interfaces provided by Gremlin3.
@@ -41,20 +49,69 @@ public class TinkerGraph implements Graph {
         this.setProperty(Graph.GRAPH, TinkerGraph.class.getName());
     }};
 
-    protected Long currentId = -1l;
-    protected Map<Object, Vertex> vertices = new HashMap<>();
-    protected Map<Object, Edge> edges = new HashMap<>();
-    protected TinkerGraphVariables variables = new TinkerGraphVariables();
+    public static final String CONFIG_LONG_ID_STORE = "gremlin.tinkergraph.longIdStore";
+    public static final String CONFIG_CONCURRENT = "gremlin.tinkergraph.concurrent";
+    public static final String CONFIG_LAZY_ITERATION = "gremlin.tinkergraph.lazyIteration";
+    public static final String CONFIG_DIRECTORY = "gremlin.tinkergraph.directory";
+    public static final String CONFIG_LOG_SYNC = "gremlin.tinkergraph.logSync";
+    public static final String CONFIG_VALUE_DICTIONARY = "gremlin.tinkergraph.valueDictionary";
+    public static final String CONFIG_COMPUTER_WORKERS = "gremlin.tinkergraph.computer.workers";
+    public static final String CONFIG_COMPUTER_SPILL_SIZE = "gremlin.tinkergraph.computer.spillSize";
+    public static final String CONFIG_COMPUTER_SPILL_DIRECTORY = "gremlin.tinkergraph.computer.spillDirectory";
+
+    protected final AtomicLong currentId = new AtomicLong(-1l);
+    protected Map<Object, Vertex> vertices;
+    protected Map<Object, Edge> edges;
+    protected TinkerGraphVariables variables = new TinkerGraphVariables(this);
     protected TinkerGraphView graphView = null;
 
+    protected final Map<String, TinkerHelper.EdgeLabel> edgeLabels = new ConcurrentHashMap<>();
+    protected final Map<String, String> propertyKeys = new ConcurrentHashMap<>();
+    protected final Map<String, String> stringValues;
+
     protected TinkerIndex<TinkerVertex> vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
     protected TinkerIndex<TinkerEdge> edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+    protected final Set<String> vertexCentricKeys = ConcurrentHashMap.newKeySet();
+
+    private final BaseConfiguration configuration = new BaseConfiguration();
+    private final boolean longIdStore;
+    protected final boolean concurrent;
+    protected final boolean lazyIteration;
+    protected final TinkerStorage storage;
 
     /**
      * An empty private constructor that initializes {@link TinkerGraph} with no {@link com.tinkerpop.gremlin.structure.strategy.GraphStrategy}.  Primarily
      * used for purposes of serialization issues.
      */
     private TinkerGraph() {
+        this(EMPTY_CONFIGURATION);
+    }
+
+    private TinkerGraph(final Configuration configuration) {
+        this.configuration.copy(EMPTY_CONFIGURATION);
+        this.configuration.copy(configuration);
+        this.longIdStore = this.configuration.getBoolean(CONFIG_LONG_ID_STORE, false);
+        this.concurrent = this.configuration.getBoolean(CONFIG_CONCURRENT, false);
+        if (this.longIdStore && this.concurrent)
+            throw new IllegalArgumentException(String.format("The %s and %s configuration keys of TinkerGraph can not be set together", CONFIG_LONG_ID_STORE, CONFIG_CONCURRENT));
+        this.lazyIteration = this.configuration.getBoolean(CONFIG_LAZY_ITERATION, false);
+        if (this.longIdStore && this.lazyIteration)
+            throw new IllegalArgumentException(String.format("The %s and %s configuration keys of TinkerGraph can not be set together", CONFIG_LONG_ID_STORE, CONFIG_LAZY_ITERATION));
+        this.vertices = this.createElementMap();
+        this.edges = this.createElementMap();
+        this.stringValues = this.configuration.getBoolean(CONFIG_VALUE_DICTIONARY, false) ? new ConcurrentHashMap<>() : null;
+
+        final String directory = this.configuration.getString(CONFIG_DIRECTORY, null);
+        if (null != directory && this.concurrent)
+            throw new IllegalArgumentException(String.format("The %s and %s configuration keys of TinkerGraph can not be set together", CONFIG_DIRECTORY, CONFIG_CONCURRENT));
+        this.storage = null == directory ? null : new TinkerStorage(new File(directory), this.configuration.getBoolean(CONFIG_LOG_SYNC, false));
+        if (null != this.storage) {
+            try {
+                this.storage.load(this);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load TinkerGraph from " + directory, e);
+            }
+        }
     }
 
     /**
@@ -81,11 +138,42 @@ public class TinkerGraph implements Graph {
      * behind that facade and since {@link com.tinkerpop.gremlin.structure.util.GraphFactory} is the preferred method
      * to opening graphs it will be consistent at that level.
      *
+     * <p/>
+     * Setting {@link #CONFIG_LONG_ID_STORE} to {@code true} stores vertices and edges in primitive long-keyed
+     * open-addressing maps rather than {@link HashMap}, which avoids a boxed key and map entry per element and
+     * keeps id lookups allocation-free.  Elements with non-{@link Long} ids are still supported in this mode.
+     * <p/>
+     * Setting {@link #CONFIG_CONCURRENT} to {@code true} allows multiple threads to add and remove elements, connect
+     * vertices and maintain indices at the same time.  The properties of a single element should still only be
+     * mutated by one thread at a time.
+     * <p/>
+     * Setting {@link #CONFIG_LAZY_ITERATION} to {@code true} makes {@code g.V()} and {@code g.E()} stream elements
+     * straight out of the element maps and index buckets instead of first copying every match into a new list.  A
+     * traversal like {@code g.V().limit(10)} then only touches ten vertices.  The backing collections become
+     * weakly consistent so elements may be removed while they are being iterated.
+     * <p/>
+     * Setting {@link #CONFIG_DIRECTORY} persists the graph to that directory.  Every mutation is appended to a log
+     * and {@link #close()} (or {@link #snapshot()}) writes a snapshot of the whole graph and starts a new log.  On
+     * open, the snapshot is memory-mapped and replayed followed by the tail of the log, so a restart does not need
+     * a full import.  Every mutation is written to the operating system before it returns, so it survives a crash
+     * of the JVM.  With {@link #CONFIG_LOG_SYNC} set to {@code true} every mutation is also forced to disk, so it
+     * survives a crash of the machine, otherwise {@link #flush()} forces the log to disk, e.g. after a batch.
+     * <p/>
+     * Property keys are always shared through a graph-wide dictionary.  Setting {@link #CONFIG_VALUE_DICTIONARY} to
+     * {@code true} does the same for {@link String} property values, so that a low-cardinality value like a country
+     * code is stored once rather than once per element.  Entries are never evicted from the dictionary so it should
+     * not be enabled for graphs with many distinct string values.
+     * <p/>
+     * {@link #CONFIG_COMPUTER_WORKERS} is the number of threads that a {@link TinkerGraphComputer} executes a vertex
+     * program with and defaults to the number of available processors.  {@link #CONFIG_COMPUTER_SPILL_SIZE} is the
+     * number of map output values that a MapReduce job of the computer holds in memory before it spills them to
+     * {@link #CONFIG_COMPUTER_SPILL_DIRECTORY}, which defaults to the temporary directory.
+     *
      * @param configuration the configuration for the instance
      * @return a newly opened {@link com.tinkerpop.gremlin.structure.Graph}
      */
     public static TinkerGraph open(final Configuration configuration) {
-        return new TinkerGraph();
+        return null == configuration ? new TinkerGraph() : new TinkerGraph(configuration);
     }
 
     ////////////// STRUCTURE API METHODS //////////////////
@@ -139,7 +227,9 @@ public class TinkerGraph implements Graph {
         }
 
         final Vertex vertex = new TinkerVertex(idValue, label, this);
-        this.vertices.put(vertex.id(), vertex);
+        if (null != this.vertices.putIfAbsent(vertex.id(), vertex))
+            throw Exceptions.vertexWithIdAlreadyExists(idValue);
+        if (null != this.storage) this.storage.log(TinkerStorage.ADD_VERTEX, idValue, label);
         ElementHelper.attachProperties(vertex, keyValues);
         return vertex;
     }
@@ -166,15 +256,52 @@ public class TinkerGraph implements Graph {
     public void clear() {
         this.vertices.clear();
         this.edges.clear();
-        this.variables = new TinkerGraphVariables();
-        this.currentId = 0l;
+        this.edgeLabels.clear();
+        this.variables = new TinkerGraphVariables(this);
+        this.currentId.set(0l);
         this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
         this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+        this.vertexCentricKeys.clear();
+        if (null != this.storage) this.storage.log(TinkerStorage.CLEAR);
+    }
+
+    /**
+     * Write a snapshot of the graph to the {@link #CONFIG_DIRECTORY} and truncate the log, which shortens the
+     * replay on the next open.  The graph should not be mutated while the snapshot is written.
+     */
+    public void snapshot() {
+        if (null == this.storage)
+            throw new IllegalStateException(String.format("TinkerGraph can only write a snapshot when %s is configured", CONFIG_DIRECTORY));
+        try {
+            this.storage.snapshot(this);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write TinkerGraph snapshot", e);
+        }
+    }
+
+    /**
+     * Force the log of the {@link #CONFIG_DIRECTORY} to disk so that the mutations survive a crash of the machine,
+     * e.g. once a batch of mutations is complete.  A graph that is not persisted has nothing to flush.
+     */
+    public void flush() {
+        if (null != this.storage) {
+            try {
+                this.storage.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write to the TinkerGraph log", e);
+            }
+        }
     }
 
     @Override
     public void close() {
-
+        if (null != this.storage) {
+            try {
+                this.storage.close(this);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write TinkerGraph snapshot", e);
+            }
+        }
     }
 
     @Override
@@ -184,7 +311,14 @@ public class TinkerGraph implements Graph {
 
     @Override
     public Configuration configuration() {
-        return EMPTY_CONFIGURATION;
+        return this.configuration;
+    }
+
+    private <E extends Element> Map<Object, E> createElementMap() {
+        if (this.concurrent || this.lazyIteration)
+            return new ConcurrentHashMap<>();
+        else
+            return this.longIdStore ? new TinkerLongMap<>() : new HashMap<>();
     }
 
     /**
@@ -195,13 +329,20 @@ public class TinkerGraph implements Graph {
      */
     @Override
     public Features features() {
-        return new TinkerGraphFeatures();
+        return new TinkerGraphFeatures(this);
     }
 
     public static class TinkerGraphFeatures implements Features {
+
+        private final TinkerGraph graph;
+
+        public TinkerGraphFeatures(final TinkerGraph graph) {
+            this.graph = graph;
+        }
+
         @Override
         public GraphFeatures graph() {
-            return new TinkerGraphGraphFeatures();
+            return new TinkerGraphGraphFeatures(this.graph);
         }
 
         @Override
@@ -235,6 +376,13 @@ public class TinkerGraph implements Graph {
     }
 
     public static class TinkerGraphGraphFeatures implements Features.GraphFeatures {
+
+        private final TinkerGraph graph;
+
+        public TinkerGraphGraphFeatures(final TinkerGraph graph) {
+            this.graph = graph;
+        }
+
         @Override
         public boolean supportsTransactions() {
             return false;
@@ -242,19 +390,39 @@ public class TinkerGraph implements Graph {
 
         @Override
         public boolean supportsPersistence() {
-            return false;
+            return null != this.graph.storage;
         }
 
         @Override
         public boolean supportsThreadedTransactions() {
             return false;
         }
+
+        @Override
+        public boolean supportsConcurrentAccess() {
+            return this.graph.concurrent;
+        }
     }
 
     ///////////// GRAPH SPECIFIC INDEXING METHODS ///////////////
 
     /**
-     * Create an index for said element class ({@link Vertex} or {@link Edge}) and said property key.
+     * The kinds of property indices that TinkerGraph can maintain.
+     */
+    public enum IndexType {
+        /**
+         * Hashes property values and only answers equality lookups.
+         */
+        HASH,
+        /**
+         * Sorts property values and answers both equality and range lookups (e.g. {@code gt}, {@code lte} and
+         * {@code interval()}). Only {@link Comparable} values are indexed.
+         */
+        SORTED
+    }
+
+    /**
+     * Create a {@link IndexType#HASH} index for said element class ({@link Vertex} or {@link Edge}) and said property key.
      * Whenever an element has the specified key mutated, the index is updated.
      * When the index is created, all existing elements are indexed to ensure that they are captured by the index.
      *
@@ -263,10 +431,77 @@ public class TinkerGraph implements Graph {
      * @param <E>          The type of the element class
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
+        this.createIndex(key, elementClass, IndexType.HASH);
+    }
+
+    /**
+     * Create an index of the specified type for said element class ({@link Vertex} or {@link Edge}) and said property key.
+     * If the key is already indexed, the existing index is kept.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param indexType    the type of index to create
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final String key, final Class<E> elementClass, final IndexType indexType) {
         if (Vertex.class.isAssignableFrom(elementClass)) {
-            this.vertexIndex.createKeyIndex(key);
+            this.vertexIndex.createKeyIndex(key, indexType);
         } else if (Edge.class.isAssignableFrom(elementClass)) {
-            this.edgeIndex.createKeyIndex(key);
+            this.edgeIndex.createKeyIndex(key, indexType);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.CREATE_INDEX, Vertex.class.isAssignableFrom(elementClass), key, indexType.name());
+    }
+
+    /**
+     * Create an index of the specified type for said element class ({@link Vertex} or {@link Edge}) and said property
+     * key and index the existing elements in the background. Until the returned future completes, traversals
+     * scan the elements rather than use the index and the build can be followed with
+     * {@link #getIndexProgress(String, Class)}. Mutations made during the build are applied to the index.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param indexType    the type of index to create
+     * @param <E>          The type of the element class
+     * @return a future that completes once the index is ready
+     */
+    public <E extends Element> CompletableFuture<Void> createIndexAsync(final String key, final Class<E> elementClass, final IndexType indexType) {
+        final CompletableFuture<Void> future;
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            future = this.vertexIndex.createKeyIndex(key, indexType, true);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            future = this.edgeIndex.createKeyIndex(key, indexType, true);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+        if (null != this.storage) {
+            final boolean vertex = Vertex.class.isAssignableFrom(elementClass);
+            this.storage.log(TinkerStorage.CREATE_INDEX, vertex, key, indexType.name());
+            // a failed build drops its index so the log must drop it too, else a replay would create it again
+            future.whenComplete((v, t) -> {
+                if (null != t)
+                    this.storage.log(TinkerStorage.DROP_INDEX, vertex, key);
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Return the fraction of the existing elements that the build of the index on said key has indexed. An index
+     * that is ready, or a key that is not indexed, returns {@code 1.0}.
+     *
+     * @param key          the indexed property key
+     * @param elementClass the element class of the index
+     * @param <E>          The type of the element class
+     * @return the progress of the index build between {@code 0.0} and {@code 1.0}
+     */
+    public <E extends Element> double getIndexProgress(final String key, final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return this.vertexIndex.getProgress(key);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return this.edgeIndex.getProgress(key);
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
@@ -287,6 +522,8 @@ public class TinkerGraph implements Graph {
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.DROP_INDEX, Vertex.class.isAssignableFrom(elementClass), key);
     }
 
     /**
@@ -306,6 +543,97 @@ public class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Create a composite index for said element class ({@link Vertex} or {@link Edge}) over the combination of values of
+     * said property keys. The index is used when a traversal has equality {@code has()} filters on all of the keys.
+     * {@link com.tinkerpop.gremlin.process.T#label} may be used as one of the keys.
+     *
+     * @param elementClass the element class to index
+     * @param keys         the property keys to index together
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            this.vertexIndex.createCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            this.edgeIndex.createCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.CREATE_COMPOSITE_INDEX, Vertex.class.isAssignableFrom(elementClass), keys);
+    }
+
+    /**
+     * Drop the composite index for the specified element class ({@link Vertex} or {@link Edge}) and keys.
+     *
+     * @param elementClass the element class of the index to drop
+     * @param keys         the property keys of the index to drop
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void dropCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            this.vertexIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            this.edgeIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.DROP_COMPOSITE_INDEX, Vertex.class.isAssignableFrom(elementClass), keys);
+    }
+
+    /**
+     * Return the key combinations of the composite indices of said element class ({@link Vertex} or {@link Edge}).
+     *
+     * @param elementClass the element class to get the composite indexed keys for
+     * @param <E>          The type of the element class
+     * @return the set of key combinations currently being indexed
+     */
+    public <E extends Element> Set<List<String>> getCompositeIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return this.vertexIndex.getCompositeIndexedKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return this.edgeIndex.getCompositeIndexedKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Create a vertex-centric index on said edge property key. Every vertex then keeps its incident edges sorted by
+     * their value for the key so that {@code v.outE().has(key, gt, value)} and {@code v.inE().interval(key, a, b)}
+     * range scan the edges of the vertex instead of iterating its whole adjacency. When the index is created, all
+     * existing edges are indexed. Only {@link Comparable} values are indexed.
+     *
+     * @param key the edge property key to index
+     */
+    public void createVertexCentricIndex(final String key) {
+        TinkerVertexCentricIndex.createIndex(this, key);
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.CREATE_VERTEX_CENTRIC_INDEX, key);
+    }
+
+    /**
+     * Drop the vertex-centric index on said edge property key.
+     *
+     * @param key the edge property key to stop indexing
+     */
+    public void dropVertexCentricIndex(final String key) {
+        TinkerVertexCentricIndex.dropIndex(this, key);
+        if (null != this.storage)
+            this.storage.log(TinkerStorage.DROP_VERTEX_CENTRIC_INDEX, key);
+    }
+
+    /**
+     * Return the edge property keys that have a vertex-centric index.
+     *
+     * @return the set of keys currently being indexed
+     */
+    public Set<String> getVertexCentricIndexedKeys() {
+        return Collections.unmodifiableSet(this.vertexCentricKeys);
+    }
+
     /**
      * {@link TinkerGraphComputer} generates a view of the original graph. When the view is no longer needed, it can be dropped.
      */
@@ -1,15 +1,17 @@
 package com.tinkerpop.gremlin.tinkergraph.structure;
 
+import com.tinkerpop.gremlin.process.T;
 import com.tinkerpop.gremlin.process.computer.GraphComputer;
-import com.tinkerpop.gremlin.process.util.MultiIterator;
 import com.tinkerpop.gremlin.structure.Direction;
 import com.tinkerpop.gremlin.structure.Edge;
+import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.structure.Graph;
 import com.tinkerpop.gremlin.structure.Property;
 import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.structure.util.ElementHelper;
 import com.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphView;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -17,6 +19,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -24,8 +27,8 @@ import java.util.stream.Stream;
  */
 public class TinkerHelper {
 
-    protected final synchronized static long getNextId(final TinkerGraph graph) {
-        return Stream.generate(() -> (++graph.currentId)).filter(id -> !graph.vertices.containsKey(id) && !graph.edges.containsKey(id)).findAny().get();
+    protected final static long getNextId(final TinkerGraph graph) {
+        return Stream.generate(graph.currentId::incrementAndGet).filter(id -> !graph.vertices.containsKey(id) && !graph.edges.containsKey(id)).findAny().get();
     }
 
     protected static Edge addEdge(final TinkerGraph graph, final TinkerVertex outVertex, final TinkerVertex inVertex, final String label, final Object... keyValues) {
@@ -42,31 +45,106 @@ public class TinkerHelper {
             idValue = TinkerHelper.getNextId(graph);
         }
 
-        edge = new TinkerEdge(idValue, outVertex, label, inVertex, graph);
-        ElementHelper.attachProperties(edge, keyValues);
-        graph.edges.put(edge.id(), edge);
-        TinkerHelper.addOutEdge(outVertex, label, edge);
-        TinkerHelper.addInEdge(inVertex, label, edge);
+        // the properties are validated before the label is interned and the edge is indexed so they can not fail
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            if (!keyValues[i].equals(T.id) && !keyValues[i].equals(T.label))
+                ElementHelper.validateProperty((String) keyValues[i], keyValues[i + 1]);
+        }
+        edge = new TinkerEdge(idValue, outVertex, TinkerHelper.internLabel(graph, label), inVertex, graph);
+        try {
+            if (null == graph.storage)
+                ElementHelper.attachProperties(edge, keyValues);
+            if (null != graph.edges.putIfAbsent(edge.id(), edge))
+                throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+        } catch (final RuntimeException e) {
+            // the edge is not in the graph so it is taken out of the indices and its label is released
+            graph.edgeIndex.removeElement((TinkerEdge) edge);
+            TinkerVertexCentricIndex.removeAll((TinkerEdge) edge);
+            TinkerHelper.releaseLabel(graph, label);
+            throw e;
+        }
+        TinkerHelper.addOutEdge(outVertex, (TinkerEdge) edge);
+        TinkerHelper.addInEdge(inVertex, (TinkerEdge) edge);
+        if (null != graph.storage) {
+            // the edge must be logged before its properties so that the log can be replayed in order
+            graph.storage.log(TinkerStorage.ADD_EDGE, idValue, outVertex.id, label, inVertex.id);
+            ElementHelper.attachProperties(edge, keyValues);
+        }
         return edge;
 
     }
 
-    protected static void addOutEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        Set<Edge> edges = vertex.outEdges.get(label);
-        if (null == edges) {
-            edges = new HashSet<>();
-            vertex.outEdges.put(label, edges);
+    protected static void addOutEdge(final TinkerVertex vertex, final TinkerEdge edge) {
+        synchronized (vertex) {
+            vertex.outEdges = TinkerAdjacency.add(vertex.outEdges, edge);
+        }
+    }
+
+    protected static void addInEdge(final TinkerVertex vertex, final TinkerEdge edge) {
+        synchronized (vertex) {
+            vertex.inEdges = TinkerAdjacency.add(vertex.inEdges, edge);
         }
-        edges.add(edge);
     }
 
-    protected static void addInEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        Set<Edge> edges = vertex.inEdges.get(label);
-        if (null == edges) {
-            edges = new HashSet<>();
-            vertex.inEdges.put(label, edges);
+    protected static void removeOutEdge(final TinkerVertex vertex, final TinkerEdge edge) {
+        synchronized (vertex) {
+            vertex.outEdges = TinkerAdjacency.remove(vertex.outEdges, edge);
         }
-        edges.add(edge);
+    }
+
+    protected static void removeInEdge(final TinkerVertex vertex, final TinkerEdge edge) {
+        synchronized (vertex) {
+            vertex.inEdges = TinkerAdjacency.remove(vertex.inEdges, edge);
+        }
+    }
+
+    /**
+     * Return the canonical instance of the label of a new edge so that adjacency buckets can be matched by reference
+     * and edges with the same label share one string. The edges of every label are counted so that the label can be
+     * released with the last of them.
+     */
+    protected static String internLabel(final TinkerGraph graph, final String label) {
+        return graph.edgeLabels.compute(label, (key, edgeLabel) -> {
+            final EdgeLabel interned = null == edgeLabel ? new EdgeLabel(label) : edgeLabel;
+            interned.edges++;
+            return interned;
+        }).label;
+    }
+
+    /**
+     * Release the label of a removed edge, which drops the label from the graph once its last edge is removed.
+     */
+    protected static void releaseLabel(final TinkerGraph graph, final String label) {
+        graph.edgeLabels.computeIfPresent(label, (key, edgeLabel) -> 0 == --edgeLabel.edges ? null : edgeLabel);
+    }
+
+    /**
+     * Return the canonical instance of the property key from the key dictionary of the graph.
+     */
+    protected static String internKey(final TinkerGraph graph, final String key) {
+        final String interned = graph.propertyKeys.get(key);
+        if (null != interned)
+            return interned;
+        final String previous = graph.propertyKeys.putIfAbsent(key, key);
+        return null == previous ? key : previous;
+    }
+
+    /**
+     * Return the canonical instance of a {@link String} value from the value dictionary of the graph if
+     * {@link TinkerGraph#CONFIG_VALUE_DICTIONARY} is enabled. Any other value is returned as is.
+     */
+    protected static <V> V internValue(final TinkerGraph graph, final V value) {
+        if (null == graph.stringValues || !(value instanceof String))
+            return value;
+        final V interned = (V) graph.stringValues.get(value);
+        if (null != interned)
+            return interned;
+        final String previous = graph.stringValues.putIfAbsent((String) value, (String) value);
+        return null == previous ? value : (V) previous;
+    }
+
+    protected static <T> Set<T> createSet(final TinkerGraph graph) {
+        return graph.concurrent || graph.lazyIteration ? ConcurrentHashMap.newKeySet() : new HashSet<>();
     }
 
     public static void dropView(final TinkerGraph graph) {
@@ -89,77 +167,99 @@ public class TinkerHelper {
         return graph.edgeIndex.get(key, value);
     }
 
+    public static Stream<? extends Element> queryIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final String key, final Object value) {
+        return Vertex.class.isAssignableFrom(indexClass) ? graph.vertexIndex.stream(key, value) : graph.edgeIndex.stream(key, value);
+    }
+
+    public static Stream<? extends Element> queryIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final String key, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        return Vertex.class.isAssignableFrom(indexClass) ?
+                graph.vertexIndex.streamRange(key, from, fromInclusive, to, toInclusive) :
+                graph.edgeIndex.streamRange(key, from, fromInclusive, to, toInclusive);
+    }
+
+    public static long countIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final String key, final Object value) {
+        return Vertex.class.isAssignableFrom(indexClass) ? graph.vertexIndex.count(key, value) : graph.edgeIndex.count(key, value);
+    }
+
+    public static Stream<? extends Element> queryCompositeIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final List<String> keys, final List<Object> values) {
+        return Vertex.class.isAssignableFrom(indexClass) ? graph.vertexIndex.streamComposite(keys, values) : graph.edgeIndex.streamComposite(keys, values);
+    }
+
+    public static long countCompositeIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final List<String> keys, final List<Object> values) {
+        return Vertex.class.isAssignableFrom(indexClass) ? graph.vertexIndex.countComposite(keys, values) : graph.edgeIndex.countComposite(keys, values);
+    }
+
+    public static boolean isSortedIndex(final TinkerGraph graph, final Class<? extends Element> indexClass, final String key) {
+        return Vertex.class.isAssignableFrom(indexClass) ? graph.vertexIndex.isSorted(key) : graph.edgeIndex.isSorted(key);
+    }
+
+    public static Stream<TinkerEdge> queryVertexCentricIndex(final TinkerVertex vertex, final Direction direction, final String key, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        return TinkerVertexCentricIndex.range(vertex, direction, key, from, fromInclusive, to, toInclusive);
+    }
+
+    public static boolean isLazyIteration(final TinkerGraph graph) {
+        return graph.lazyIteration;
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphView;
     }
 
     public static TinkerGraphView createGraphView(final TinkerGraph graph, final GraphComputer.Isolation isolation, final Set<String> computeKeys) {
-        return graph.graphView = new TinkerGraphView(isolation, computeKeys);
+        return graph.graphView = new TinkerGraphView(isolation, computeKeys, graph.vertices.values());
+    }
+
+    public static int getComputeOrdinal(final TinkerVertex vertex) {
+        return vertex.computeOrdinal;
+    }
+
+    public static void setComputeOrdinal(final TinkerVertex vertex, final int ordinal) {
+        vertex.computeOrdinal = ordinal;
     }
 
     public static Map<String, List<Property>> getProperties(final TinkerElement element) {
         return element.properties;
     }
 
-    public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... labels) {
-        final MultiIterator<Edge> edges = new MultiIterator<>();
-        if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
-            if (labels.length > 0) {
-                for (final String label : labels) {
-                    edges.addIterator(vertex.outEdges.getOrDefault(label, Collections.emptySet()).iterator());
-                }
-            } else {
-                for (final Set<Edge> set : vertex.outEdges.values()) {
-                    edges.addIterator(set.iterator());
-                }
-            }
-        }
-        if (direction.equals(Direction.IN) || direction.equals(Direction.BOTH)) {
-            if (labels.length > 0) {
-                for (final String label : labels) {
-                    edges.addIterator(vertex.inEdges.getOrDefault(label, Collections.emptySet()).iterator());
-                }
-            } else {
-                for (final Set<Edge> set : vertex.inEdges.values()) {
-                    edges.addIterator(set.iterator());
-                }
-            }
+    /**
+     * A copy of the properties of the element for the key. The property lists of an element are only mutated while
+     * holding the lock of the element, so the copy can be taken while other threads mutate the element, e.g. by the
+     * background build of an index.
+     */
+    protected static List<Property> getProperties(final TinkerElement element, final String key) {
+        synchronized (element) {
+            final List<Property> properties = element.properties.get(key);
+            return null == properties ? Collections.emptyList() : new ArrayList<>(properties);
         }
-        return (Iterator) edges;
+    }
+
+    public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... labels) {
+        return TinkerAdjacency.edges(vertex, direction, labels);
     }
 
     public static Iterator<TinkerVertex> getVertices(final TinkerVertex vertex, final Direction direction, final String... labels) {
-        if (direction != Direction.BOTH) {
-            return new TinkerVertexIterator(TinkerHelper.getEdges(vertex, direction, labels), direction);
-        } else {
-            final MultiIterator<TinkerVertex> vertices = new MultiIterator<>();
-            vertices.addIterator(new TinkerVertexIterator(TinkerHelper.getEdges(vertex, Direction.OUT, labels), Direction.OUT));
-            vertices.addIterator(new TinkerVertexIterator(TinkerHelper.getEdges(vertex, Direction.IN, labels), Direction.IN));
-            return vertices;
-        }
+        return TinkerAdjacency.vertices(vertex, direction, labels);
     }
 
-    private static class TinkerVertexIterator implements Iterator<TinkerVertex> {
+    public static long countEdges(final TinkerVertex vertex, final Direction direction, final String... labels) {
+        return TinkerAdjacency.count(vertex, direction, labels);
+    }
 
-        private final Iterator<TinkerEdge> edges;
-        private final Direction direction;
+    public static TinkerVertex getVertex(final TinkerEdge edge, final Direction direction) {
+        return (TinkerVertex) (direction.equals(Direction.OUT) ? edge.outVertex : edge.inVertex);
+    }
 
-        public TinkerVertexIterator(final Iterator<TinkerEdge> edges, final Direction direction) {
-            this.edges = edges;
-            this.direction = direction;
-        }
+    /**
+     * The canonical instance of an edge label and the number of edges with the label, which is only changed while
+     * the entry of the label is computed.
+     */
+    static final class EdgeLabel {
 
-        @Override
-        public boolean hasNext() {
-            return this.edges.hasNext();
-        }
+        private final String label;
+        private long edges = 0l;
 
-        @Override
-        public TinkerVertex next() {
-            if (this.direction.equals(Direction.IN))
-                return (TinkerVertex) this.edges.next().outVertex;
-            else
-                return (TinkerVertex) this.edges.next().inVertex;
+        private EdgeLabel(final String label) {
+            this.label = label;
         }
     }
 }
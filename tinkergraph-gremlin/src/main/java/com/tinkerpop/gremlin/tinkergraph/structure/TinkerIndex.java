@@ -1,26 +1,49 @@
 package com.tinkerpop.gremlin.tinkergraph.structure;
 
+import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
 import com.tinkerpop.gremlin.structure.Element;
 import com.tinkerpop.gremlin.structure.Graph;
 import com.tinkerpop.gremlin.structure.Property;
 import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.util.StreamFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 class TinkerIndex<T extends Element> {
 
+    private static final String LABEL_KEY = com.tinkerpop.gremlin.process.T.label.getAccessor();
+
+    /**
+     * Orders the values of a {@link TinkerGraph.IndexType#SORTED} index. Values of the same class are compared
+     * naturally while values of different classes are grouped by class name so that mixed-type keys can share an
+     * index.
+     */
+    private static final Comparator<Object> SORTED_COMPARATOR = (a, b) -> a.getClass().equals(b.getClass()) ?
+            ((Comparable) a).compareTo(b) :
+            a.getClass().getName().compareTo(b.getClass().getName());
+
     protected Map<String, Map<Object, Set<T>>> index = new ConcurrentHashMap<>();
     protected final Class<T> indexClass;
-    private final Set<String> indexedKeys = new HashSet<>();
+    private final Set<String> indexedKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, IndexBuild> builds = new ConcurrentHashMap<>();
+    private final Map<List<String>, CompositeIndex> compositeIndices = new ConcurrentHashMap<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
@@ -29,36 +52,78 @@ class TinkerIndex<T extends Element> {
     }
 
     protected void put(final String key, final Object value, final T element) {
-        Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (keyMap == null) {
-            keyMap = new ConcurrentHashMap<>();
-            this.index.put(key, keyMap);
-        }
-        Set<T> objects = keyMap.get(value);
-        if (null == objects) {
-            objects = new HashSet<>();
-            keyMap.put(value, objects);
-        }
-        objects.add(element);
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (null != keyMap)
+            put(keyMap, value, element);
+    }
 
+    /**
+     * Add the element to the bucket of the value. The buckets are concurrent sets and the element is added within
+     * {@code compute()} so that an index build, which adds from several threads, can not lose an element to a
+     * concurrent removal of an emptied bucket.
+     */
+    private static <T> void put(final Map<Object, Set<T>> keyMap, final Object value, final T element) {
+        if (isIndexable(keyMap, value)) {
+            keyMap.compute(value, (v, set) -> {
+                final Set<T> bucket = null == set ? ConcurrentHashMap.newKeySet() : set;
+                bucket.add(element);
+                return bucket;
+            });
+        }
     }
 
     public List<T> get(final String key, final Object value) {
+        return this.stream(key, value).collect(Collectors.toList());
+    }
+
+    /**
+     * Stream the elements with the value for the key directly from the index bucket without copying it.
+     */
+    public Stream<T> stream(final String key, final Object value) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null == keyMap) {
-            return Collections.emptyList();
+        if (null == keyMap || !isIndexable(keyMap, value)) {
+            return Stream.empty();
         } else {
-            Set<T> set = keyMap.get(value);
-            if (null == set)
-                return Collections.emptyList();
-            else
-                return new ArrayList<>(set);
+            final Set<T> set = keyMap.get(value);
+            return null == set ? Stream.empty() : set.stream();
         }
     }
 
+    /**
+     * Get the elements whose value for the key falls within the provided bounds. A {@code null} bound is unbounded.
+     * Only values of the same class as the bounds are considered. This requires a
+     * {@link TinkerGraph.IndexType#SORTED} index on the key.
+     */
+    public List<T> range(final String key, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        return this.streamRange(key, from, fromInclusive, to, toInclusive).collect(Collectors.toList());
+    }
+
+    /**
+     * Lazily stream the elements of {@link #range(String, Object, boolean, Object, boolean)} from the index buckets.
+     */
+    public Stream<T> streamRange(final String key, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        final NavigableMap<Object, Set<T>> keyMap = (NavigableMap<Object, Set<T>>) this.index.get(key);
+        if (null == keyMap)
+            return Stream.empty();
+
+        final Stream<Set<T>> sets = rangeBuckets(keyMap, from, fromInclusive, to, toInclusive);
+        // a vertex can have multiple values in the range so it is only emitted with the bucket of the least of them,
+        // which keeps the stream from holding the vertices it emitted
+        return Vertex.class.isAssignableFrom(this.indexClass) ?
+                sets.flatMap(set -> set.stream().filter(element -> {
+                    final Object least = leastInRange((TinkerElement) element, key, from, fromInclusive, to, toInclusive);
+                    return null != least && keyMap.get(least) == set;
+                })) :
+                sets.flatMap(Set::stream);
+    }
+
+    public boolean isSorted(final String key) {
+        return this.index.get(key) instanceof NavigableMap;
+    }
+
     public long count(final String key, final Object value) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null == keyMap) {
+        if (null == keyMap || !isIndexable(keyMap, value)) {
             return 0;
         } else {
             Set<T> set = keyMap.get(value);
@@ -70,15 +135,22 @@ class TinkerIndex<T extends Element> {
     }
 
     public void remove(final String key, final Object value, final T element) {
+        this.removeValue(key, value, element);
+        this.updateCompositeIndices(key, element);
+    }
+
+    private void removeValue(final String key, final Object value, final T element) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null != keyMap) {
-            Set<T> objects = keyMap.get(value);
-            if (null != objects) {
+        if (null != keyMap)
+            removeValue(keyMap, value, element);
+    }
+
+    private static <T> void removeValue(final Map<Object, Set<T>> keyMap, final Object value, final T element) {
+        if (isIndexable(keyMap, value)) {
+            keyMap.computeIfPresent(value, (v, objects) -> {
                 objects.remove(element);
-                if (objects.size() == 0) {
-                    keyMap.remove(value);
-                }
-            }
+                return objects.isEmpty() ? null : objects;
+            });
         }
     }
 
@@ -89,38 +161,134 @@ class TinkerIndex<T extends Element> {
                     set.remove(element);
                 }
             }
+            for (final CompositeIndex compositeIndex : this.compositeIndices.values()) {
+                compositeIndex.remove(element);
+            }
         }
     }
 
     public void autoUpdate(final String key, final Object newValue, final Object oldValue, final T element) {
-        if (this.indexedKeys.contains(key)) {
+        // an index that is still being built must already follow mutations
+        if (this.index.containsKey(key)) {
             if (oldValue != null)
-                this.remove(key, oldValue, element);
+                this.removeValue(key, oldValue, element);
             this.put(key, newValue, element);
         }
+        this.updateCompositeIndices(key, element);
     }
 
     public void autoRemove(final String key, final Object oldValue, final T element) {
-        if (this.indexedKeys.contains(key))
+        if (this.index.containsKey(key))
             this.remove(key, oldValue, element);
     }
 
-    public void createKeyIndex(final String key) {
+    public void createCompositeIndex(final List<String> keys) {
+        if (keys.size() < 2)
+            throw new IllegalArgumentException("A composite index requires at least two keys: " + keys);
+        for (final String key : keys) {
+            if (null == key)
+                throw Graph.Exceptions.argumentCanNotBeNull("key");
+            if (key.isEmpty())
+                throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        }
+        final CompositeIndex compositeIndex = new CompositeIndex(keys);
+        if (null != this.compositeIndices.putIfAbsent(compositeIndex.keys, compositeIndex))
+            return;
+
+        (Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices.values() :
+                this.graph.edges.values()).forEach(e -> compositeIndex.update((T) e));
+    }
+
+    public void dropCompositeIndex(final List<String> keys) {
+        this.compositeIndices.remove(keys);
+    }
+
+    public Set<List<String>> getCompositeIndexedKeys() {
+        return Collections.unmodifiableSet(this.compositeIndices.keySet());
+    }
+
+    public List<T> getComposite(final List<String> keys, final List<Object> values) {
+        return this.streamComposite(keys, values).collect(Collectors.toList());
+    }
+
+    public Stream<T> streamComposite(final List<String> keys, final List<Object> values) {
+        final CompositeIndex compositeIndex = this.compositeIndices.get(keys);
+        if (null == compositeIndex)
+            return Stream.empty();
+        final Set<T> set = compositeIndex.index.get(values);
+        return null == set ? Stream.empty() : set.stream();
+    }
+
+    public long countComposite(final List<String> keys, final List<Object> values) {
+        final CompositeIndex compositeIndex = this.compositeIndices.get(keys);
+        if (null == compositeIndex)
+            return 0;
+        final Set<T> set = compositeIndex.index.get(values);
+        return null == set ? 0 : set.size();
+    }
+
+    private void updateCompositeIndices(final String key, final T element) {
+        if (this.compositeIndices.isEmpty())
+            return;
+        for (final CompositeIndex compositeIndex : this.compositeIndices.values()) {
+            if (compositeIndex.keys.contains(key))
+                compositeIndex.update(element);
+        }
+    }
+
+    public void createKeyIndex(final String key, final TinkerGraph.IndexType indexType) {
+        this.createKeyIndex(key, indexType, false).join();
+    }
+
+    /**
+     * Create the index on the key and index the existing elements in parallel. In the background, the returned
+     * future completes once the build is done. Until then the key is not reported by {@link #getIndexedKeys()}, so
+     * traversals keep scanning the elements, while mutations already update the index. A key that is already
+     * indexed or being indexed keeps its index.
+     */
+    public CompletableFuture<Void> createKeyIndex(final String key, final TinkerGraph.IndexType indexType, final boolean background) {
         if (null == key)
             throw Graph.Exceptions.argumentCanNotBeNull("key");
         if (key.isEmpty())
             throw new IllegalArgumentException("The key for the index cannot be an empty string");
 
-        if (this.indexedKeys.contains(key))
-            return;
-        this.indexedKeys.add(key);
+        final Map<Object, Set<T>> keyMap = indexType == TinkerGraph.IndexType.SORTED ?
+                TinkerIndex.<T>createSortedMap() :
+                new ConcurrentHashMap<>();
+        if (null != this.index.putIfAbsent(key, keyMap)) {
+            final IndexBuild existing = this.builds.get(key);
+            return null == existing ? CompletableFuture.completedFuture(null) : existing.future;
+        }
 
-        (Vertex.class.isAssignableFrom(this.indexClass) ?
-                this.graph.vertices.values().<T>parallelStream() :
-                this.graph.edges.values().<T>parallelStream())
-                .map(e -> new Object[]{((T) e).property(key), e})
-                .filter(a -> ((Property) a[0]).isPresent())
-                .forEach(a -> this.put(key, ((Property) a[0]).value(), (T) a[1]));
+        // elements in a plain map can not be iterated while the graph is mutated so they are copied up front
+        final Collection<T> elements = (Collection<T>) (Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices.values() :
+                this.graph.edges.values());
+        final IndexBuild build = new IndexBuild(background && !(this.graph.concurrent || this.graph.lazyIteration) ? new ArrayList<>(elements) : elements);
+        if (!background) {
+            build.run(key, keyMap);
+            this.indexedKeys.add(key);
+            return CompletableFuture.completedFuture(null);
+        }
+        this.builds.put(key, build);
+        build.future = CompletableFuture.runAsync(() -> build.run(key, keyMap)).whenComplete((v, t) -> {
+            if (null == t && this.index.get(key) == keyMap)
+                this.indexedKeys.add(key);
+            else if (null != t)
+                this.index.remove(key, keyMap);
+            this.builds.remove(key, build);
+        });
+        return build.future;
+    }
+
+    /**
+     * The fraction of the elements that the build of the index on the key has indexed. A key without an index
+     * or whose index is ready returns {@code 1.0}.
+     */
+    public double getProgress(final String key) {
+        final IndexBuild build = this.builds.get(key);
+        return null == build ? 1.0d : build.progress();
     }
 
     public void dropKeyIndex(final String key) {
@@ -133,4 +301,213 @@ class TinkerIndex<T extends Element> {
     public Set<String> getIndexedKeys() {
         return this.indexedKeys;
     }
+
+    /**
+     * Create the sorted map of a {@link TinkerGraph.IndexType#SORTED} index from value to bucket.
+     */
+    static <T> NavigableMap<Object, Set<T>> createSortedMap() {
+        return new ConcurrentSkipListMap<>(SORTED_COMPARATOR);
+    }
+
+    /**
+     * Stream the buckets of a sorted map whose values fall within the bounds. A {@code null} bound is unbounded and
+     * only values of the same class as the bounds are considered.
+     */
+    static <T> Stream<Set<T>> rangeBuckets(final NavigableMap<Object, Set<T>> keyMap, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        if (null != from && null != to) {
+            return SORTED_COMPARATOR.compare(from, to) <= 0 ?
+                    keyMap.subMap(from, fromInclusive, to, toInclusive).values().stream() :
+                    Stream.empty();
+        } else if (null != from) {
+            return StreamFactory.stream(sameClassValues(keyMap.tailMap(from, fromInclusive), from.getClass()));
+        } else if (null != to) {
+            return StreamFactory.stream(sameClassValues(keyMap.headMap(to, toInclusive).descendingMap(), to.getClass()));
+        } else {
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Iterate the buckets of the sorted map up to the first value of a class other than the provided one.
+     */
+    private static <T> Iterator<Set<T>> sameClassValues(final NavigableMap<Object, Set<T>> keyMap, final Class<?> valueClass) {
+        final Iterator<Map.Entry<Object, Set<T>>> entries = keyMap.entrySet().iterator();
+        return new Iterator<Set<T>>() {
+            private Map.Entry<Object, Set<T>> next = this.advance();
+
+            @Override
+            public boolean hasNext() {
+                return null != this.next;
+            }
+
+            @Override
+            public Set<T> next() {
+                if (null == this.next)
+                    throw FastNoSuchElementException.instance();
+                final Set<T> set = this.next.getValue();
+                this.next = this.advance();
+                return set;
+            }
+
+            private Map.Entry<Object, Set<T>> advance() {
+                if (!entries.hasNext())
+                    return null;
+                final Map.Entry<Object, Set<T>> entry = entries.next();
+                return entry.getKey().getClass().equals(valueClass) ? entry : null;
+            }
+        };
+    }
+
+    /**
+     * The least value of the element for the key that falls within the bounds of
+     * {@link #rangeBuckets(NavigableMap, Object, boolean, Object, boolean)} or {@code null} if there is none.
+     */
+    private static Object leastInRange(final TinkerElement element, final String key, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        synchronized (element) {
+            final List<Property> properties = element.properties.get(key);
+            if (null == properties)
+                return null;
+            // the only value of the element is the value of the bucket it was found in
+            if (properties.size() == 1)
+                return properties.get(0).value();
+            Object least = null;
+            for (final Property property : properties) {
+                final Object value = property.value();
+                if (inRange(value, from, fromInclusive, to, toInclusive) && (null == least || SORTED_COMPARATOR.compare(value, least) < 0))
+                    least = value;
+            }
+            return least;
+        }
+    }
+
+    private static boolean inRange(final Object value, final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        if (!(value instanceof Comparable))
+            return false;
+        // with a single bound only the values of its class are in the range
+        if ((null == from || null == to) && !(null == from ? to : from).getClass().equals(value.getClass()))
+            return false;
+        if (null != from) {
+            final int comparison = SORTED_COMPARATOR.compare(value, from);
+            if (comparison < 0 || (0 == comparison && !fromInclusive))
+                return false;
+        }
+        if (null != to) {
+            final int comparison = SORTED_COMPARATOR.compare(value, to);
+            if (comparison > 0 || (0 == comparison && !toInclusive))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * A {@link TinkerGraph.IndexType#SORTED} index can only hold {@link Comparable} values.
+     */
+    private static boolean isIndexable(final Map<Object, ?> keyMap, final Object value) {
+        return !(keyMap instanceof NavigableMap) || value instanceof Comparable;
+    }
+
+    /**
+     * The parallel scan that indexes the existing elements for one key and counts its progress.
+     */
+    private final class IndexBuild {
+
+        private final Collection<T> elements;
+        private final AtomicLong indexed = new AtomicLong(0l);
+        private CompletableFuture<Void> future;
+
+        private IndexBuild(final Collection<T> elements) {
+            this.elements = elements;
+        }
+
+        private void run(final String key, final Map<Object, Set<T>> keyMap) {
+            this.elements.parallelStream().forEach(element -> {
+                if (index.get(key) != keyMap)
+                    return;
+                // the properties are copied under the lock of the element as they may be mutated while it is indexed
+                for (final Property property : TinkerHelper.getProperties((TinkerElement) element, key)) {
+                    final Object value = property.value();
+                    put(keyMap, value, element);
+                    // the element may have been mutated or removed since its value was read
+                    if (!hasValue((TinkerElement) element, key, value))
+                        removeValue(keyMap, value, element);
+                }
+                this.indexed.incrementAndGet();
+            });
+        }
+
+        private double progress() {
+            final int size = this.elements.size();
+            return 0 == size ? 1.0d : Math.min(1.0d, (double) this.indexed.get() / size);
+        }
+    }
+
+    private static boolean hasValue(final TinkerElement element, final String key, final Object value) {
+        if (element.removed)
+            return false;
+        for (final Property property : TinkerHelper.getProperties(element, key)) {
+            if (value.equals(property.value()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indexes elements by the combination of their values for several keys. As a vertex may have multiple values
+     * for a key, an element is indexed under every combination of its values. The combinations last indexed for
+     * each element are retained so that they can be removed when one of the keys is mutated.
+     */
+    private final class CompositeIndex {
+
+        private final List<String> keys;
+        private final Map<List<Object>, Set<T>> index = new ConcurrentHashMap<>();
+        private final Map<T, List<List<Object>>> elementValues = new ConcurrentHashMap<>();
+
+        private CompositeIndex(final List<String> keys) {
+            this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+        }
+
+        private void update(final T element) {
+            this.remove(element);
+            final List<List<Object>> combinations = this.combinations(element);
+            if (combinations.isEmpty())
+                return;
+            for (final List<Object> values : combinations) {
+                this.index.computeIfAbsent(values, v -> TinkerHelper.createSet(graph)).add(element);
+            }
+            this.elementValues.put(element, combinations);
+        }
+
+        private void remove(final T element) {
+            final List<List<Object>> combinations = this.elementValues.remove(element);
+            if (null == combinations)
+                return;
+            for (final List<Object> values : combinations) {
+                this.index.computeIfPresent(values, (v, objects) -> {
+                    objects.remove(element);
+                    return objects.isEmpty() ? null : objects;
+                });
+            }
+        }
+
+        private List<List<Object>> combinations(final T element) {
+            List<List<Object>> combinations = Collections.singletonList(Collections.emptyList());
+            for (final String key : this.keys) {
+                final List<Object> values = key.equals(LABEL_KEY) ?
+                        Collections.singletonList(element.label()) :
+                        TinkerHelper.getProperties((TinkerElement) element, key).stream().map(Property::value).collect(Collectors.toList());
+                if (values.isEmpty())
+                    return Collections.emptyList();
+                final List<List<Object>> next = new ArrayList<>(combinations.size() * values.size());
+                for (final List<Object> combination : combinations) {
+                    for (final Object value : values) {
+                        final List<Object> extended = new ArrayList<>(combination);
+                        extended.add(value);
+                        next.add(extended);
+                    }
+                }
+                combinations = next;
+            }
+            return combinations;
+        }
+    }
 }
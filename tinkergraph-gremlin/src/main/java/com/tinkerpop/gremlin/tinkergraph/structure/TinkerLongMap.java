@@ -0,0 +1,265 @@
+package com.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An open-addressing map whose {@link Long} keys are stored as primitive longs in a flat array and whose values
+ * are stored in a parallel array. Lookups do not allocate and iteration over {@link #values()} is a linear walk
+ * of the value array. Keys that are not {@link Long} (e.g. user supplied string ids) are kept in an overflow
+ * {@link HashMap} so the map honors the full {@link Map} contract. Null values are not supported.
+ * <p/>
+ * The map is not thread-safe and its iterators do not support removal.
+ *
+ * @author agent (agent@local)
+ */
+class TinkerLongMap<V> extends AbstractMap<Object, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+    private int threshold;
+    private Map<Object, V> overflow = null;
+
+    public TinkerLongMap() {
+        this.allocate(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (key instanceof Long) {
+            final int index = this.indexOf((Long) key);
+            return index < 0 ? null : (V) this.values[index];
+        } else
+            return null == this.overflow ? null : this.overflow.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (key instanceof Long)
+            return this.indexOf((Long) key) >= 0;
+        else
+            return null != this.overflow && this.overflow.containsKey(key);
+    }
+
+    @Override
+    public V put(final Object key, final V value) {
+        if (null == value)
+            throw new IllegalArgumentException("The value of a " + TinkerLongMap.class.getSimpleName() + " can not be null");
+        if (!(key instanceof Long)) {
+            if (null == this.overflow)
+                this.overflow = new HashMap<>();
+            return this.overflow.put(key, value);
+        }
+
+        final long k = (Long) key;
+        int slot = mix(k) & this.mask;
+        while (null != this.values[slot]) {
+            if (this.keys[slot] == k) {
+                final V old = (V) this.values[slot];
+                this.values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = k;
+        this.values[slot] = value;
+        if (++this.size >= this.threshold)
+            this.rehash(this.values.length << 1);
+        return null;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (!(key instanceof Long))
+            return null == this.overflow ? null : this.overflow.remove(key);
+
+        final int index = this.indexOf((Long) key);
+        if (index < 0)
+            return null;
+        final V old = (V) this.values[index];
+        this.shiftKeys(index);
+        this.size--;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return this.size + (null == this.overflow ? 0 : this.overflow.size());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        this.allocate(DEFAULT_CAPACITY);
+        this.size = 0;
+        this.overflow = null;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Object, V>> entrySet() {
+        return new AbstractSet<Entry<Object, V>>() {
+            @Override
+            public Iterator<Entry<Object, V>> iterator() {
+                final Iterator<Entry<Object, V>> others = null == overflow ?
+                        Collections.emptyIterator() :
+                        overflow.entrySet().iterator();
+                return new Iterator<Entry<Object, V>>() {
+                    private int slot = nextSlot(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.slot < values.length || others.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Object, V> next() {
+                        if (this.slot < values.length) {
+                            final Entry<Object, V> entry = new SimpleImmutableEntry<>(keys[this.slot], (V) values[this.slot]);
+                            this.slot = nextSlot(this.slot + 1);
+                            return entry;
+                        }
+                        return others.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongMap.this.size();
+            }
+        };
+    }
+
+    //////////////////////
+
+    private int indexOf(final long key) {
+        int slot = mix(key) & this.mask;
+        while (null != this.values[slot]) {
+            if (this.keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    private int nextSlot(int slot) {
+        while (slot < this.values.length && null == this.values[slot]) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Close the gap left at the provided slot by shifting back subsequent entries of the probe sequence. This keeps
+     * lookups correct without tombstones.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            final int last = slot;
+            slot = (slot + 1) & this.mask;
+            while (true) {
+                if (null == this.values[slot]) {
+                    this.values[last] = null;
+                    return;
+                }
+                final int home = mix(this.keys[slot]) & this.mask;
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot))
+                    break;
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[last] = this.keys[slot];
+            this.values[last] = this.values[slot];
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        this.allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (null != oldValues[i]) {
+                int slot = mix(oldKeys[i]) & this.mask;
+                while (null != this.values[slot]) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15l;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private class ValueIterator implements Iterator<V> {
+
+        private final Object[] values = TinkerLongMap.this.values;
+        private final Iterator<V> others = null == overflow ? Collections.emptyIterator() : overflow.values().iterator();
+        private int slot = nextSlot(0);
+
+        @Override
+        public boolean hasNext() {
+            return this.slot < this.values.length || this.others.hasNext();
+        }
+
+        @Override
+        public V next() {
+            if (this.slot < this.values.length) {
+                final V value = (V) this.values[this.slot];
+                this.slot = nextSlot(this.slot + 1);
+                return value;
+            } else if (this.others.hasNext())
+                return this.others.next();
+            else
+                throw new NoSuchElementException();
+        }
+
+        private int nextSlot(int slot) {
+            while (slot < this.values.length && null == this.values[slot]) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
@@ -21,9 +21,9 @@ public class TinkerProperty<V> implements Property<V> {
 
     public TinkerProperty(final Element element, final String key, final V value) {
         this.element = element;
-        this.key = key;
-        this.value = value;
         this.graph = ((TinkerElement) this.element).graph;
+        this.key = TinkerHelper.internKey(this.graph, key);
+        this.value = TinkerHelper.internValue(this.graph, value);
     }
 
     @Override
@@ -61,8 +61,19 @@ public class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
-        ((TinkerElement) this.element).properties.remove(this.key);
-        if (this.element instanceof Edge)
+        synchronized (this.element) {
+            ((TinkerElement) this.element).properties.remove(this.key);
+        }
+        if (this.element instanceof Edge) {
             this.graph.edgeIndex.remove(key, value, (TinkerEdge) this.element);
+            TinkerVertexCentricIndex.remove((TinkerEdge) this.element, this.key, this.value);
+        }
+        if (null != this.graph.storage) {
+            if (this.element instanceof Edge)
+                this.graph.storage.log(TinkerStorage.REMOVE_EDGE_PROPERTY, ((TinkerEdge) this.element).id, this.key);
+            else if (((TinkerVertexProperty) this.element).isAttached())
+                this.graph.storage.log(TinkerStorage.REMOVE_META_PROPERTY, ((TinkerVertexProperty) this.element).element().id(),
+                        ((TinkerVertexProperty) this.element).key(), ((TinkerVertexProperty) this.element).id, this.key);
+        }
     }
 }
@@ -0,0 +1,174 @@
+package com.tinkerpop.gremlin.tinkergraph.structure;
+
+import com.tinkerpop.gremlin.process.util.FastNoSuchElementException;
+import com.tinkerpop.gremlin.structure.Property;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The properties of a {@link TinkerElement} as a pair of parallel arrays of keys and property lists. The keys are
+ * taken from the property key dictionary of the graph, so that every element shares the same key strings and a
+ * lookup is mostly a scan of a few references. An element without properties shares the empty arrays and the
+ * arrays grow by one slot at a time as elements rarely have more than a handful of keys. Entries are kept in
+ * insertion order.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerPropertyMap extends AbstractMap<String, List<Property>> {
+
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final List[] EMPTY_VALUES = new List[0];
+
+    private final TinkerGraph graph;
+    private String[] keys = EMPTY_KEYS;
+    private List<Property>[] values = EMPTY_VALUES;
+
+    TinkerPropertyMap(final TinkerGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public int size() {
+        return this.keys.length;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public List<Property> get(final Object key) {
+        final int index = this.indexOf(key);
+        return index < 0 ? null : this.values[index];
+    }
+
+    @Override
+    public List<Property> getOrDefault(final Object key, final List<Property> defaultValue) {
+        final int index = this.indexOf(key);
+        return index < 0 ? defaultValue : this.values[index];
+    }
+
+    @Override
+    public List<Property> put(final String key, final List<Property> value) {
+        final int index = this.indexOf(key);
+        if (index >= 0) {
+            final List<Property> previous = this.values[index];
+            this.values[index] = value;
+            return previous;
+        }
+        final int size = this.keys.length;
+        final String[] keys = Arrays.copyOf(this.keys, size + 1);
+        final List<Property>[] values = Arrays.copyOf(this.values, size + 1);
+        keys[size] = TinkerHelper.internKey(this.graph, key);
+        values[size] = value;
+        this.values = values;
+        this.keys = keys;
+        return null;
+    }
+
+    @Override
+    public List<Property> remove(final Object key) {
+        final int index = this.indexOf(key);
+        if (index < 0)
+            return null;
+        final List<Property> previous = this.values[index];
+        this.removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        this.keys = EMPTY_KEYS;
+        this.values = EMPTY_VALUES;
+    }
+
+    @Override
+    public Set<Entry<String, List<Property>>> entrySet() {
+        return new AbstractSet<Entry<String, List<Property>>>() {
+            @Override
+            public int size() {
+                return TinkerPropertyMap.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, List<Property>>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    //////////////////////
+
+    private int indexOf(final Object key) {
+        final String[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key)
+                return i;
+        }
+        // the key was not taken from the dictionary so compare it by value
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    private void removeAt(final int index) {
+        final int size = this.keys.length;
+        if (size == 1) {
+            this.clear();
+            return;
+        }
+        final String[] keys = new String[size - 1];
+        final List<Property>[] values = new List[size - 1];
+        System.arraycopy(this.keys, 0, keys, 0, index);
+        System.arraycopy(this.keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(this.values, 0, values, 0, index);
+        System.arraycopy(this.values, index + 1, values, index, size - index - 1);
+        this.keys = keys;
+        this.values = values;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, List<Property>>> {
+
+        // removals copy the arrays so the iterator works on the arrays it started with
+        private final String[] keys = TinkerPropertyMap.this.keys;
+        private final List<Property>[] values = TinkerPropertyMap.this.values;
+        private int index = 0;
+        private boolean removable = false;
+
+        @Override
+        public boolean hasNext() {
+            return this.index < this.keys.length;
+        }
+
+        @Override
+        public Entry<String, List<Property>> next() {
+            if (!this.hasNext())
+                throw FastNoSuchElementException.instance();
+            this.removable = true;
+            final int current = this.index++;
+            return new SimpleEntry<String, List<Property>>(this.keys[current], this.values[current]) {
+                @Override
+                public List<Property> setValue(final List<Property> value) {
+                    TinkerPropertyMap.this.put(this.getKey(), value);
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (!this.removable)
+                throw new IllegalStateException();
+            this.removable = false;
+            TinkerPropertyMap.this.remove(this.keys[this.index - 1]);
+        }
+    }
+}
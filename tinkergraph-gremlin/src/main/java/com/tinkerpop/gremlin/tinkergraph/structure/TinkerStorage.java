@@ -0,0 +1,442 @@
+package com.tinkerpop.gremlin.tinkergraph.structure;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInputStream;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.tinkerpop.gremlin.process.T;
+import com.tinkerpop.gremlin.structure.Edge;
+import com.tinkerpop.gremlin.structure.Element;
+import com.tinkerpop.gremlin.structure.Property;
+import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.structure.io.kryo.GremlinKryo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Persists a {@link TinkerGraph} to a directory as a snapshot file and an append-only log of the mutations made
+ * since the snapshot was taken. Both files are sequences of checksummed records that are applied to the graph
+ * through its own API, so the snapshot is simply a compacted log. On load the snapshot is memory-mapped and
+ * replayed, then the tail of the log is replayed on top of it. A torn record at the end of the log (e.g. from a
+ * crash in the middle of a write) is discarded.
+ * <p/>
+ * Every snapshot starts a new log generation. A log whose generation does not match the snapshot was already
+ * folded into it and is ignored, which keeps a crash between writing the snapshot and resetting the log safe.
+ * <p/>
+ * Ids and property values are written with {@link GremlinKryo} so they must be of a type it can serialize.
+ *
+ * @author agent (agent@local)
+ */
+class TinkerStorage {
+
+    protected static final String SNAPSHOT_FILE = "tinkergraph.snapshot";
+    protected static final String LOG_FILE = "tinkergraph.log";
+
+    protected static final byte ADD_VERTEX = 1;
+    protected static final byte REMOVE_VERTEX = 2;
+    protected static final byte ADD_EDGE = 3;
+    protected static final byte REMOVE_EDGE = 4;
+    protected static final byte ADD_VERTEX_PROPERTY = 5;
+    protected static final byte REMOVE_VERTEX_PROPERTY = 6;
+    protected static final byte SET_META_PROPERTY = 7;
+    protected static final byte REMOVE_META_PROPERTY = 8;
+    protected static final byte SET_EDGE_PROPERTY = 9;
+    protected static final byte REMOVE_EDGE_PROPERTY = 10;
+    protected static final byte SET_VARIABLE = 11;
+    protected static final byte REMOVE_VARIABLE = 12;
+    protected static final byte CREATE_INDEX = 13;
+    protected static final byte DROP_INDEX = 14;
+    protected static final byte CREATE_COMPOSITE_INDEX = 15;
+    protected static final byte DROP_COMPOSITE_INDEX = 16;
+    protected static final byte CLEAR = 17;
+    protected static final byte CREATE_VERTEX_CENTRIC_INDEX = 18;
+    protected static final byte DROP_VERTEX_CENTRIC_INDEX = 19;
+
+    private static final int SNAPSHOT_MAGIC = 0x54475331;
+    private static final int LOG_MAGIC = 0x54474c31;
+    private static final int LOG_HEADER = 12;
+    private static final int RECORD_HEADER = 8;
+    private static final int BUFFER_SIZE = 65536;
+
+    private final File directory;
+    private final boolean sync;
+    private final Kryo kryo = GremlinKryo.build().create().createKryo();
+    private final Output record = new Output(1024, -1);
+    private final CRC32 crc = new CRC32();
+    private long generation = 0l;
+    // a record is encoded in full before it is written so every record is a single write to the log
+    private FileOutputStream log = null;
+
+    protected TinkerStorage(final File directory, final boolean sync) {
+        this.directory = directory;
+        this.sync = sync;
+    }
+
+    /**
+     * Replay the snapshot and the log into the empty graph and open the log for appending.
+     */
+    protected void load(final TinkerGraph graph) throws IOException {
+        if (!this.directory.isDirectory() && !this.directory.mkdirs())
+            throw new IOException("Could not create directory " + this.directory);
+
+        final File snapshotFile = new File(this.directory, SNAPSHOT_FILE);
+        if (snapshotFile.exists()) {
+            try (final FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+                final Input input = new Input(map(channel), BUFFER_SIZE);
+                if (input.readInt() != SNAPSHOT_MAGIC)
+                    throw new IOException("Not a TinkerGraph snapshot: " + snapshotFile);
+                this.generation = input.readLong();
+                final long currentId = input.readLong();
+                if (this.replay(input, graph) != channel.size())
+                    throw new IOException("The TinkerGraph snapshot is corrupt: " + snapshotFile);
+                graph.currentId.accumulateAndGet(currentId, Math::max);
+            }
+        }
+
+        final File logFile = new File(this.directory, LOG_FILE);
+        long valid = 0l;
+        if (logFile.exists()) {
+            try (final FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+                final Input input = new Input(map(channel), BUFFER_SIZE);
+                if (channel.size() >= LOG_HEADER && input.readInt() == LOG_MAGIC && input.readLong() == this.generation)
+                    valid = this.replay(input, graph);
+            }
+        }
+
+        if (valid < LOG_HEADER)
+            this.startLog();
+        else {
+            // drop the torn tail so that new records directly follow the last complete one
+            try (final FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+            this.log = new FileOutputStream(logFile, true);
+        }
+    }
+
+    /**
+     * Append a mutation to the log. Mutations made while the graph is being loaded or after it was closed are
+     * not logged. Every mutation is written to the operating system before it returns, so it survives a crash of
+     * the process. If the log is synced every mutation is also forced to disk, so it survives a crash of the machine.
+     */
+    protected synchronized void log(final byte operation, final Object... values) {
+        if (null == this.log)
+            return;
+        try {
+            this.log.write(this.record.getBuffer(), 0, this.encode(operation, values));
+            if (this.sync)
+                this.log.getChannel().force(false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to the TinkerGraph log in " + this.directory, e);
+        }
+    }
+
+    /**
+     * Write the current state of the graph to a new snapshot and start a new, empty log.
+     */
+    protected synchronized void snapshot(final TinkerGraph graph) throws IOException {
+        final File snapshotFile = new File(this.directory, SNAPSHOT_FILE);
+        final File tempFile = new File(this.directory, SNAPSHOT_FILE + ".tmp");
+        final long nextGeneration = this.generation + 1;
+
+        try (final FileOutputStream stream = new FileOutputStream(tempFile)) {
+            final OutputStream out = new BufferedOutputStream(stream, BUFFER_SIZE);
+            final Output header = new Output(20);
+            header.writeInt(SNAPSHOT_MAGIC);
+            header.writeLong(nextGeneration);
+            header.writeLong(graph.currentId.get());
+            out.write(header.getBuffer(), 0, header.position());
+
+            for (final String key : graph.variables.keys()) {
+                this.write(out, SET_VARIABLE, key, graph.variables.get(key).get());
+            }
+            this.writeIndices(out, graph.vertexIndex, true);
+            this.writeIndices(out, graph.edgeIndex, false);
+            for (final String key : graph.vertexCentricKeys) {
+                this.write(out, CREATE_VERTEX_CENTRIC_INDEX, key);
+            }
+            for (final Vertex vertex : graph.vertices.values()) {
+                final TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+                this.write(out, ADD_VERTEX, tinkerVertex.id, tinkerVertex.label);
+                for (final List<Property> properties : tinkerVertex.properties.values()) {
+                    for (final Property property : properties) {
+                        final TinkerVertexProperty vertexProperty = (TinkerVertexProperty) property;
+                        this.write(out, ADD_VERTEX_PROPERTY, tinkerVertex.id, vertexProperty.id, vertexProperty.key(), vertexProperty.value());
+                        for (final List<Property> metaProperties : vertexProperty.properties.values()) {
+                            for (final Property metaProperty : metaProperties) {
+                                this.write(out, SET_META_PROPERTY, tinkerVertex.id, vertexProperty.key(), vertexProperty.id, metaProperty.key(), metaProperty.value());
+                            }
+                        }
+                    }
+                }
+            }
+            for (final Edge edge : graph.edges.values()) {
+                final TinkerEdge tinkerEdge = (TinkerEdge) edge;
+                this.write(out, ADD_EDGE, tinkerEdge.id, tinkerEdge.outVertex.id(), tinkerEdge.label, tinkerEdge.inVertex.id());
+                for (final List<Property> properties : tinkerEdge.properties.values()) {
+                    for (final Property property : properties) {
+                        this.write(out, SET_EDGE_PROPERTY, tinkerEdge.id, property.key(), property.value());
+                    }
+                }
+            }
+            out.flush();
+            stream.getChannel().force(true);
+        }
+
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.generation = nextGeneration;
+        this.startLog();
+    }
+
+    /**
+     * Force the mutations of the log to disk.
+     */
+    protected synchronized void flush() throws IOException {
+        if (null != this.log)
+            this.log.getChannel().force(false);
+    }
+
+    /**
+     * Snapshot the graph and stop logging.
+     */
+    protected synchronized void close(final TinkerGraph graph) throws IOException {
+        if (null == this.log)
+            return;
+        this.snapshot(graph);
+        this.closeLog();
+    }
+
+    //////////////////////
+
+    private void startLog() throws IOException {
+        this.closeLog();
+        this.log = new FileOutputStream(new File(this.directory, LOG_FILE), false);
+        final Output header = new Output(LOG_HEADER);
+        header.writeInt(LOG_MAGIC);
+        header.writeLong(this.generation);
+        this.log.write(header.getBuffer(), 0, header.position());
+        this.log.getChannel().force(true);
+    }
+
+    private void closeLog() throws IOException {
+        if (null != this.log) {
+            this.log.close();
+            this.log = null;
+        }
+    }
+
+    private void writeIndices(final OutputStream out, final TinkerIndex<?> index, final boolean vertex) throws IOException {
+        // indices that are still being built are written as well and will be rebuilt on open
+        for (final String key : index.index.keySet()) {
+            this.write(out, CREATE_INDEX, vertex, key, (index.isSorted(key) ? TinkerGraph.IndexType.SORTED : TinkerGraph.IndexType.HASH).name());
+        }
+        for (final List<String> keys : index.getCompositeIndexedKeys()) {
+            this.write(out, CREATE_COMPOSITE_INDEX, vertex, keys.toArray(new String[keys.size()]));
+        }
+    }
+
+    private void write(final OutputStream out, final byte operation, final Object... values) throws IOException {
+        out.write(this.record.getBuffer(), 0, this.encode(operation, values));
+    }
+
+    /**
+     * Encode the operation into the record buffer as its length, its checksum and its body and return the number
+     * of bytes written.
+     */
+    private int encode(final byte operation, final Object... values) {
+        this.record.clear();
+        this.record.setPosition(RECORD_HEADER);
+        this.record.writeByte(operation);
+        for (final Object value : values) {
+            this.kryo.writeClassAndObject(this.record, value);
+        }
+        final int length = this.record.position() - RECORD_HEADER;
+        this.crc.reset();
+        this.crc.update(this.record.getBuffer(), RECORD_HEADER, length);
+        this.record.setPosition(0);
+        this.record.writeInt(length);
+        this.record.writeInt((int) this.crc.getValue());
+        this.record.setPosition(RECORD_HEADER + length);
+        return RECORD_HEADER + length;
+    }
+
+    /**
+     * Apply the records of the input to the graph and return the offset just past the last complete record.
+     */
+    private long replay(final Input input, final TinkerGraph graph) {
+        long valid = input.total();
+        while (!input.eof()) {
+            final int checksum;
+            final byte[] bytes;
+            try {
+                final int length = input.readInt();
+                checksum = input.readInt();
+                if (length <= 0)
+                    break;
+                bytes = input.readBytes(length);
+            } catch (KryoException e) {
+                break;
+            }
+            this.crc.reset();
+            this.crc.update(bytes);
+            if ((int) this.crc.getValue() != checksum)
+                break;
+            this.apply(new Input(bytes), graph);
+            valid = input.total();
+        }
+        return valid;
+    }
+
+    private void apply(final Input input, final TinkerGraph graph) {
+        final byte operation = input.readByte();
+        switch (operation) {
+            case ADD_VERTEX: {
+                final Object id = this.read(input);
+                observeId(graph, id);
+                graph.addVertex(T.id, id, T.label, this.read(input));
+                break;
+            }
+            case REMOVE_VERTEX:
+                graph.v(this.read(input)).remove();
+                break;
+            case ADD_EDGE: {
+                final Object id = this.read(input);
+                observeId(graph, id);
+                final Vertex outVertex = graph.v(this.read(input));
+                final String label = this.read(input);
+                outVertex.addEdge(label, graph.v(this.read(input)), T.id, id);
+                break;
+            }
+            case REMOVE_EDGE:
+                graph.e(this.read(input)).remove();
+                break;
+            case ADD_VERTEX_PROPERTY: {
+                final Vertex vertex = graph.v(this.read(input));
+                final Object id = this.read(input);
+                observeId(graph, id);
+                final String key = this.read(input);
+                vertex.property(key, this.read(input), T.id, id);
+                break;
+            }
+            case REMOVE_VERTEX_PROPERTY: {
+                final TinkerVertex vertex = (TinkerVertex) graph.v(this.read(input));
+                final String key = this.read(input);
+                getVertexProperty(vertex, key, this.read(input)).remove();
+                break;
+            }
+            case SET_META_PROPERTY: {
+                final TinkerVertex vertex = (TinkerVertex) graph.v(this.read(input));
+                final String key = this.read(input);
+                final TinkerVertexProperty vertexProperty = getVertexProperty(vertex, key, this.read(input));
+                final String metaKey = this.read(input);
+                vertexProperty.property(metaKey, this.read(input));
+                break;
+            }
+            case REMOVE_META_PROPERTY: {
+                final TinkerVertex vertex = (TinkerVertex) graph.v(this.read(input));
+                final String key = this.read(input);
+                final TinkerVertexProperty vertexProperty = getVertexProperty(vertex, key, this.read(input));
+                vertexProperty.property(this.<String>read(input)).remove();
+                break;
+            }
+            case SET_EDGE_PROPERTY: {
+                final Edge edge = graph.e(this.read(input));
+                final String key = this.read(input);
+                edge.property(key, this.read(input));
+                break;
+            }
+            case REMOVE_EDGE_PROPERTY: {
+                final Edge edge = graph.e(this.read(input));
+                edge.property(this.<String>read(input)).remove();
+                break;
+            }
+            case SET_VARIABLE: {
+                final String key = this.read(input);
+                graph.variables.set(key, this.read(input));
+                break;
+            }
+            case REMOVE_VARIABLE:
+                graph.variables.remove(this.read(input));
+                break;
+            case CREATE_INDEX: {
+                final Class<? extends Element> elementClass = this.<Boolean>read(input) ? Vertex.class : Edge.class;
+                final String key = this.read(input);
+                graph.createIndex(key, elementClass, TinkerGraph.IndexType.valueOf(this.read(input)));
+                break;
+            }
+            case DROP_INDEX: {
+                final Class<? extends Element> elementClass = this.<Boolean>read(input) ? Vertex.class : Edge.class;
+                graph.dropIndex(this.read(input), elementClass);
+                break;
+            }
+            case CREATE_COMPOSITE_INDEX: {
+                final Class<? extends Element> elementClass = this.<Boolean>read(input) ? Vertex.class : Edge.class;
+                graph.createCompositeIndex(elementClass, this.<String[]>read(input));
+                break;
+            }
+            case DROP_COMPOSITE_INDEX: {
+                final Class<? extends Element> elementClass = this.<Boolean>read(input) ? Vertex.class : Edge.class;
+                graph.dropCompositeIndex(elementClass, this.<String[]>read(input));
+                break;
+            }
+            case CREATE_VERTEX_CENTRIC_INDEX:
+                graph.createVertexCentricIndex(this.read(input));
+                break;
+            case DROP_VERTEX_CENTRIC_INDEX:
+                graph.dropVertexCentricIndex(this.read(input));
+                break;
+            case CLEAR:
+                graph.clear();
+                break;
+            default:
+                throw new IllegalStateException("Unknown TinkerGraph log operation: " + operation);
+        }
+    }
+
+    private <V> V read(final Input input) {
+        return (V) this.kryo.readClassAndObject(input);
+    }
+
+    /**
+     * Make sure that generated ids do not collide with the long ids that were assigned before the graph was
+     * persisted.
+     */
+    private static void observeId(final TinkerGraph graph, final Object id) {
+        if (id instanceof Long)
+            graph.currentId.accumulateAndGet((Long) id, Math::max);
+    }
+
+    private static TinkerVertexProperty getVertexProperty(final TinkerVertex vertex, final String key, final Object id) {
+        return (TinkerVertexProperty) vertex.properties.getOrDefault(key, Collections.emptyList()).stream()
+                .filter(property -> ((TinkerVertexProperty) property).id.equals(id))
+                .findAny()
+                .orElseThrow(() -> new IllegalStateException(String.format("Vertex %s has no property %s with id %s", vertex.id, key, id)));
+    }
+
+    /**
+     * Memory-map the file in regions of at most {@link Integer#MAX_VALUE} bytes.
+     */
+    private static InputStream map(final FileChannel channel) throws IOException {
+        final List<InputStream> regions = new ArrayList<>();
+        final long size = channel.size();
+        for (long position = 0; position < size; position = position + Integer.MAX_VALUE) {
+            regions.add(new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position))));
+        }
+        return new SequenceInputStream(Collections.enumeration(regions));
+    }
+}
@@ -13,10 +13,11 @@ import com.tinkerpop.gremlin.structure.util.StringFactory;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 
@@ -25,8 +26,22 @@ import java.util.Set;
  */
 public class TinkerVertex extends TinkerElement implements Vertex, Vertex.Iterators {
 
-    protected Map<String, Set<Edge>> outEdges = new HashMap<>();
-    protected Map<String, Set<Edge>> inEdges = new HashMap<>();
+    /**
+     * The adjacency of the vertex as maintained by {@link TinkerAdjacency}, or {@code null} if there are no edges.
+     */
+    protected volatile Object[] outEdges = null;
+    protected volatile Object[] inEdges = null;
+    /**
+     * The vertex-centric indices of the edges by key as maintained by {@link TinkerVertexCentricIndex}, or
+     * {@code null} if no edge has a value for an indexed key.
+     */
+    protected volatile Map<String, NavigableMap<Object, Set<TinkerEdge>>> outEdgeIndex = null;
+    protected volatile Map<String, NavigableMap<Object, Set<TinkerEdge>>> inEdgeIndex = null;
+    /**
+     * The ordinal of the vertex in the {@link com.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphView} of
+     * the last graph computer job, or -1 if the vertex was added since.
+     */
+    protected int computeOrdinal = -1;
     private static final Object[] EMPTY_ARGS = new Object[0];
 
     protected TinkerVertex(final Object id, final String label, final TinkerGraph graph) {
@@ -46,15 +61,26 @@ public class TinkerVertex extends TinkerElement implements Vertex, Vertex.Iterat
             else
                 throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
         } else {
-            if (this.properties.containsKey(key)) {
-                final List<VertexProperty> list = (List) this.properties.get(key);
-                if (list.size() > 1)
-                    throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
-                else
-                    return list.get(0);
-            } else
+            final List<VertexProperty> list = (List) this.properties.get(key);
+            if (null == list)
                 return VertexProperty.<V>empty();
+            else if (list.size() > 1)
+                throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
+            else
+                return list.get(0);
+        }
+    }
+
+    @Override
+    public <V> V value(final String key) throws NoSuchElementException {
+        if (TinkerHelper.inComputerMode(this.graph)) {
+            if (removed) throw Element.Exceptions.elementAlreadyRemoved(Vertex.class, this.id);
+            // a value in a column of the view is read without creating a property for it
+            final V value = (V) this.graph.graphView.getColumnValue(this, key);
+            if (null != value)
+                return value;
         }
+        return Vertex.super.value(key);
     }
 
     @Override
@@ -67,23 +93,34 @@ public class TinkerVertex extends TinkerElement implements Vertex, Vertex.Iterat
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
         if (TinkerHelper.inComputerMode(this.graph)) {
-            VertexProperty<V> vertexProperty = (VertexProperty<V>) this.graph.graphView.setProperty(this, key, value);
-            ElementHelper.attachProperties(vertexProperty, keyValues);
-            return vertexProperty;
+            return (VertexProperty<V>) this.graph.graphView.setProperty(this, key, value, keyValues);
         } else {
             ElementHelper.validateProperty(key, value);
             final VertexProperty<V> vertexProperty = optionalId.isPresent() ?
                     new TinkerVertexProperty<V>(optionalId.get(), this, key, value) :
                     new TinkerVertexProperty<V>(this, key, value);
-            final List<Property> list = this.properties.getOrDefault(key, new ArrayList<>());
-            list.add(vertexProperty);
-            this.properties.put(key, list);
+            synchronized (this) {
+                final List<Property> list = this.properties.getOrDefault(key, new ArrayList<>(1));
+                list.add(vertexProperty);
+                this.properties.put(key, list);
+            }
             this.graph.vertexIndex.autoUpdate(key, value, null, this);
+            if (null != this.graph.storage)
+                this.graph.storage.log(TinkerStorage.ADD_VERTEX_PROPERTY, this.id, vertexProperty.id(), key, value);
             ElementHelper.attachProperties(vertexProperty, keyValues);
             return vertexProperty;
         }
     }
 
+    @Override
+    public <V> VertexProperty<V> singleProperty(final String key, final V value, final Object... keyValues) {
+        if (TinkerHelper.inComputerMode(this.graph) && keyValues.length == 0) {
+            if (removed) throw Element.Exceptions.elementAlreadyRemoved(Vertex.class, this.id);
+            return (VertexProperty<V>) this.graph.graphView.setSingleProperty(this, key, value);
+        }
+        return Vertex.super.singleProperty(key, value, keyValues);
+    }
+
     @Override
     public Edge addEdge(final String label, final Vertex vertex, final Object... keyValues) {
         if (null == vertex) Graph.Exceptions.argumentCanNotBeNull("vertex");
@@ -94,13 +131,22 @@ public class TinkerVertex extends TinkerElement implements Vertex, Vertex.Iterat
     public void remove() {
         if (this.removed)
             throw Element.Exceptions.elementAlreadyRemoved(Vertex.class, this.id);
-        final List<Edge> edges = new ArrayList<>();
-        this.iterators().edgeIterator(Direction.BOTH).forEachRemaining(edges::add);
-        edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
-        this.properties.clear();
+        // the edges are only removed from their other vertices as the adjacency of the vertex is dropped at once
+        final List<TinkerEdge> edges = new ArrayList<>();
+        TinkerHelper.getEdges(this, Direction.BOTH).forEachRemaining(edges::add);
+        for (final TinkerEdge edge : edges) {
+            if (!edge.removed)
+                edge.detach(this);
+        }
+        synchronized (this) {
+            this.outEdges = null;
+            this.inEdges = null;
+            this.properties.clear();
+        }
         this.graph.vertexIndex.removeElement(this);
         this.graph.vertices.remove(this.id);
         this.removed = true;
+        if (null != this.graph.storage) this.graph.storage.log(TinkerStorage.REMOVE_VERTEX, this.id);
     }
 
     @Override
@@ -0,0 +1,138 @@
+package com.tinkerpop.gremlin.tinkergraph.structure;
+
+import com.tinkerpop.gremlin.structure.Direction;
+import com.tinkerpop.gremlin.structure.Graph;
+import com.tinkerpop.gremlin.structure.Property;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The vertex-centric indices of a {@link TinkerGraph}. For every declared edge property key, each vertex keeps its
+ * outgoing and its incoming edges sorted by their value for the key so that the edges of a supernode can be
+ * range scanned instead of filtered one by one. Only {@link Comparable} values are indexed and a vertex only
+ * allocates an index once one of its edges has a value for an indexed key.
+ *
+ * @author agent (agent@local)
+ */
+final class TinkerVertexCentricIndex {
+
+    private TinkerVertexCentricIndex() {
+    }
+
+    public static void createIndex(final TinkerGraph graph, final String key) {
+        if (null == key)
+            throw Graph.Exceptions.argumentCanNotBeNull("key");
+        if (key.isEmpty())
+            throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        if (!graph.vertexCentricKeys.add(key))
+            return;
+        graph.edges.values().forEach(edge -> {
+            final Property<?> property = edge.property(key);
+            if (property.isPresent())
+                put((TinkerEdge) edge, key, property.value());
+        });
+    }
+
+    public static void dropIndex(final TinkerGraph graph, final String key) {
+        if (!graph.vertexCentricKeys.remove(key))
+            return;
+        graph.vertices.values().forEach(vertex -> {
+            final TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+            synchronized (tinkerVertex) {
+                if (null != tinkerVertex.outEdgeIndex) tinkerVertex.outEdgeIndex.remove(key);
+                if (null != tinkerVertex.inEdgeIndex) tinkerVertex.inEdgeIndex.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Index the edge under its value for the key at both of its vertices if the key is indexed.
+     */
+    public static void put(final TinkerEdge edge, final String key, final Object value) {
+        if (!edge.graph.vertexCentricKeys.contains(key) || !(value instanceof Comparable))
+            return;
+        final TinkerVertex outVertex = (TinkerVertex) edge.outVertex;
+        final TinkerVertex inVertex = (TinkerVertex) edge.inVertex;
+        synchronized (outVertex) {
+            outVertex.outEdgeIndex = put(outVertex.outEdgeIndex, edge, key, value);
+        }
+        synchronized (inVertex) {
+            inVertex.inEdgeIndex = put(inVertex.inEdgeIndex, edge, key, value);
+        }
+    }
+
+    public static void remove(final TinkerEdge edge, final String key, final Object value) {
+        if (!edge.graph.vertexCentricKeys.contains(key) || !(value instanceof Comparable))
+            return;
+        final TinkerVertex outVertex = (TinkerVertex) edge.outVertex;
+        final TinkerVertex inVertex = (TinkerVertex) edge.inVertex;
+        synchronized (outVertex) {
+            remove(outVertex.outEdgeIndex, edge, key, value);
+        }
+        synchronized (inVertex) {
+            remove(inVertex.inEdgeIndex, edge, key, value);
+        }
+    }
+
+    public static void removeAll(final TinkerEdge edge) {
+        if (edge.graph.vertexCentricKeys.isEmpty())
+            return;
+        edge.properties.forEach((key, properties) -> properties.forEach(property -> remove(edge, key, property.value())));
+    }
+
+    /**
+     * Stream the edges of the vertex whose value for the key falls within the bounds. A {@code null} bound is
+     * unbounded and only values of the same class as the bounds are considered. With {@link Direction#BOTH} a
+     * self-loop is emitted twice just like it is by the adjacency.
+     */
+    public static Stream<TinkerEdge> range(final TinkerVertex vertex, final Direction direction, final String key,
+                                           final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        switch (direction) {
+            case OUT:
+                return range(vertex.outEdgeIndex, key, from, fromInclusive, to, toInclusive);
+            case IN:
+                return range(vertex.inEdgeIndex, key, from, fromInclusive, to, toInclusive);
+            default:
+                return Stream.concat(range(vertex.outEdgeIndex, key, from, fromInclusive, to, toInclusive),
+                        range(vertex.inEdgeIndex, key, from, fromInclusive, to, toInclusive));
+        }
+    }
+
+    //////////////////////
+
+    private static Map<String, NavigableMap<Object, Set<TinkerEdge>>> put(Map<String, NavigableMap<Object, Set<TinkerEdge>>> edgeIndex,
+                                                                          final TinkerEdge edge, final String key, final Object value) {
+        if (null == edgeIndex)
+            edgeIndex = new ConcurrentHashMap<>();
+        edgeIndex.computeIfAbsent(key, k -> TinkerIndex.createSortedMap())
+                .computeIfAbsent(value, v -> TinkerHelper.createSet(edge.graph)).add(edge);
+        return edgeIndex;
+    }
+
+    private static void remove(final Map<String, NavigableMap<Object, Set<TinkerEdge>>> edgeIndex,
+                               final TinkerEdge edge, final String key, final Object value) {
+        if (null == edgeIndex)
+            return;
+        final NavigableMap<Object, Set<TinkerEdge>> keyMap = edgeIndex.get(key);
+        if (null == keyMap)
+            return;
+        final Set<TinkerEdge> edges = keyMap.get(value);
+        if (null != edges) {
+            edges.remove(edge);
+            if (edges.isEmpty())
+                keyMap.remove(value);
+        }
+    }
+
+    private static Stream<TinkerEdge> range(final Map<String, NavigableMap<Object, Set<TinkerEdge>>> edgeIndex, final String key,
+                                            final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive) {
+        final NavigableMap<Object, Set<TinkerEdge>> keyMap = null == edgeIndex ? null : edgeIndex.get(key);
+        return null == keyMap ?
+                Stream.empty() :
+                TinkerIndex.rangeBuckets(keyMap, from, fromInclusive, to, toInclusive).flatMap(Set::stream);
+    }
+}
@@ -11,6 +11,7 @@ import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -23,19 +24,19 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
     private final V value;
 
     public TinkerVertexProperty(final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
-        super(TinkerHelper.getNextId(vertex.graph), key, vertex.graph);
+        super(TinkerHelper.getNextId(vertex.graph), TinkerHelper.internKey(vertex.graph, key), vertex.graph);
         this.vertex = vertex;
-        this.key = key;
-        this.value = value;
+        this.key = this.label;
+        this.value = TinkerHelper.internValue(vertex.graph, value);
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
     }
 
     public TinkerVertexProperty(final Object id, final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
-        super(id, key, vertex.graph);
+        super(id, TinkerHelper.internKey(vertex.graph, key), vertex.graph);
         this.vertex = vertex;
-        this.key = key;
-        this.value = value;
+        this.key = this.label;
+        this.value = TinkerHelper.internValue(vertex.graph, value);
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
     }
@@ -84,6 +85,8 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
     public <U> Property<U> property(final String key, final U value) {
         final Property<U> property = new TinkerProperty<U>(this, key, value);
         this.properties.put(key, Arrays.asList(property));
+        if (null != this.graph.storage && this.isAttached())
+            this.graph.storage.log(TinkerStorage.SET_META_PROPERTY, this.vertex.id, this.key, this.id, key, value);
         return property;
     }
 
@@ -95,11 +98,15 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
     @Override
     public void remove() {
         if (this.vertex.properties.containsKey(this.key)) {
-            this.vertex.properties.get(this.key).remove(this);
-            if (this.vertex.properties.get(this.key).size() == 0) {
-                this.vertex.properties.remove(this.key);
-                this.graph.vertexIndex.remove(this.key, this.value, this.vertex);
+            final boolean last;
+            synchronized (this.vertex) {
+                this.vertex.properties.get(this.key).remove(this);
+                last = this.vertex.properties.get(this.key).size() == 0;
+                if (last)
+                    this.vertex.properties.remove(this.key);
             }
+            if (last)
+                this.graph.vertexIndex.remove(this.key, this.value, this.vertex);
             final AtomicBoolean delete = new AtomicBoolean(true);
             this.vertex.propertyIterator(this.key).forEachRemaining(property -> {
                 if (property.value().equals(this.value))
@@ -108,9 +115,20 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
             if (delete.get()) this.graph.vertexIndex.remove(this.key, this.value, this.vertex);
             this.properties.clear();
             this.removed = true;
+            if (null != this.graph.storage)
+                this.graph.storage.log(TinkerStorage.REMOVE_VERTEX_PROPERTY, this.vertex.id, this.key, this.id);
         }
     }
 
+    /**
+     * Determine if this property belongs to its vertex rather than to a {@link com.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphView}
+     * or is still being constructed.
+     */
+    protected boolean isAttached() {
+        final List<Property> properties = this.vertex.properties.get(this.key);
+        return null != properties && properties.stream().anyMatch(property -> property == this);
+    }
+
     //////////////////////////////////////////////
 
     public VertexProperty.Iterators iterators() {
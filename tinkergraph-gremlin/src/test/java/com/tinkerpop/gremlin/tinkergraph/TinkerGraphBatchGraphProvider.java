@@ -0,0 +1,68 @@
+package com.tinkerpop.gremlin.tinkergraph;
+
+import com.tinkerpop.gremlin.process.Traversal;
+import com.tinkerpop.gremlin.process.TraversalStrategies;
+import com.tinkerpop.gremlin.process.graph.strategy.BatchStrategy;
+import com.tinkerpop.gremlin.process.graph.util.DefaultGraphTraversal;
+import com.tinkerpop.gremlin.process.util.DefaultTraversalStrategies;
+import com.tinkerpop.gremlin.structure.Graph;
+import com.tinkerpop.gremlin.structure.strategy.GraphStrategy;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerGraphTraversal;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerTraversal;
+import org.apache.commons.configuration.Configuration;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link TinkerGraphGraphProvider} whose traversals are batched by {@link BatchStrategy}, which is not registered
+ * by default. The default strategies of the traversal classes are captured once when the provider is loaded. They
+ * are replaced with batching strategies while a test graph is open and restored when a graph is cleared, which the
+ * test suite does before and after every test whether it passes or not.
+ *
+ * @author agent (agent@local)
+ */
+public class TinkerGraphBatchGraphProvider extends TinkerGraphGraphProvider {
+
+    private static final Map<Class<? extends Traversal>, TraversalStrategies> DEFAULT_STRATEGIES = new HashMap<>();
+
+    static {
+        for (final Class<? extends Traversal> traversalClass : Arrays.asList(
+                DefaultGraphTraversal.class, TinkerGraphTraversal.class, TinkerElementTraversal.class, TinkerTraversal.class)) {
+            DEFAULT_STRATEGIES.put(traversalClass, getStrategies(traversalClass));
+        }
+    }
+
+    @Override
+    public Graph openTestGraph(final Configuration config, final GraphStrategy strategy) {
+        final Graph graph = super.openTestGraph(config, strategy);
+        DEFAULT_STRATEGIES.forEach((traversalClass, traversalStrategies) -> {
+            final DefaultTraversalStrategies batchStrategies = new DefaultTraversalStrategies();
+            traversalStrategies.toList().forEach(batchStrategies::addStrategy);
+            batchStrategies.addStrategy(BatchStrategy.instance());
+            TraversalStrategies.GlobalCache.registerStrategies(traversalClass, batchStrategies);
+        });
+        return graph;
+    }
+
+    @Override
+    public void clear(final Graph g, final Configuration configuration) throws Exception {
+        try {
+            super.clear(g, configuration);
+        } finally {
+            DEFAULT_STRATEGIES.forEach(TraversalStrategies.GlobalCache::registerStrategies);
+        }
+    }
+
+    private static TraversalStrategies getStrategies(final Class<? extends Traversal> traversalClass) {
+        try {
+            // a traversal class registers its strategies when it is initialized
+            Class.forName(traversalClass.getName(), true, traversalClass.getClassLoader());
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return TraversalStrategies.GlobalCache.getStrategies(traversalClass);
+    }
+}
@@ -6,6 +6,8 @@ import com.tinkerpop.gremlin.process.graph.GraphTraversal;
 import com.tinkerpop.gremlin.process.graph.step.sideEffect.GraphStep;
 import com.tinkerpop.gremlin.structure.Edge;
 import com.tinkerpop.gremlin.structure.Graph;
+import com.tinkerpop.gremlin.structure.GraphTest;
+import com.tinkerpop.gremlin.structure.GraphWritePerformanceTest;
 import com.tinkerpop.gremlin.structure.Vertex;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerElementTraversal;
 import com.tinkerpop.gremlin.tinkergraph.process.graph.TinkerGraphTraversal;
@@ -15,6 +17,7 @@ import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import com.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.commons.configuration.Configuration;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +30,14 @@ public class TinkerGraphGraphProvider extends AbstractGraphProvider {
     public Map<String, Object> getBaseConfiguration(final String graphName, final Class<?> test, final String testMethodName) {
         return new HashMap<String, Object>() {{
             put(Graph.GRAPH, TinkerGraph.class.getName());
+            // execute vertex programs on several workers even where few processors are available
+            put(TinkerGraph.CONFIG_COMPUTER_WORKERS, 4);
+            // the write benchmarks compare sequential and multi-threaded loading so they need a thread-safe graph
+            if (test.equals(GraphWritePerformanceTest.WriteToGraph.class))
+                put(TinkerGraph.CONFIG_CONCURRENT, true);
+            // the persistence test reopens the graph so it needs a directory to write to
+            if (test.equals(GraphTest.class) && testMethodName.equals("shouldPersistDataOnClose"))
+                put(TinkerGraph.CONFIG_DIRECTORY, getWorkingDirectory() + File.separator + graphName);
         }};
     }
 
@@ -34,5 +45,8 @@ public class TinkerGraphGraphProvider extends AbstractGraphProvider {
     public void clear(final Graph g, final Configuration configuration) throws Exception {
         if (g != null)
             g.close();
+
+        if (configuration != null && configuration.containsKey(TinkerGraph.CONFIG_DIRECTORY))
+            deleteDirectory(new File(configuration.getString(TinkerGraph.CONFIG_DIRECTORY)));
     }
 }
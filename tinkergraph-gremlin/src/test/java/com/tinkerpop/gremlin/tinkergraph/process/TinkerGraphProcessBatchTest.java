@@ -0,0 +1,16 @@
+package com.tinkerpop.gremlin.tinkergraph.process;
+
+import com.tinkerpop.gremlin.process.ProcessStandardSuite;
+import com.tinkerpop.gremlin.tinkergraph.TinkerGraphBatchGraphProvider;
+import com.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.runner.RunWith;
+
+/**
+ * Executes the Standard Gremlin Process Test Suite using TinkerGraph with {@code BatchStrategy} registered.
+ *
+ * @author agent (agent@local)
+ */
+@RunWith(ProcessStandardSuite.class)
+@ProcessStandardSuite.GraphProviderClass(provider = TinkerGraphBatchGraphProvider.class, graph = TinkerGraph.class)
+public class TinkerGraphProcessBatchTest {
+}
@@ -1,33 +1,92 @@
 package com.tinkerpop.gremlin.tinkergraph.structure;
 
 import com.tinkerpop.gremlin.AbstractGremlinTest;
+import com.tinkerpop.gremlin.process.Path;
+import com.tinkerpop.gremlin.process.Step;
 import com.tinkerpop.gremlin.process.T;
 import com.tinkerpop.gremlin.process.Traversal;
 import com.tinkerpop.gremlin.process.TraversalEngine;
+import com.tinkerpop.gremlin.process.Traverser;
+import com.tinkerpop.gremlin.process.computer.ComputerResult;
+import com.tinkerpop.gremlin.process.computer.GraphComputer;
+import com.tinkerpop.gremlin.process.computer.MapReduce;
+import com.tinkerpop.gremlin.process.computer.Memory;
+import com.tinkerpop.gremlin.process.computer.MessageCombiner;
+import com.tinkerpop.gremlin.process.computer.MessageType;
+import com.tinkerpop.gremlin.process.computer.Messenger;
+import com.tinkerpop.gremlin.process.computer.VertexProgram;
+import com.tinkerpop.gremlin.process.computer.lambda.LambdaVertexProgram;
+import com.tinkerpop.gremlin.process.computer.clustering.peerpressure.PeerPressureVertexProgram;
+import com.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import com.tinkerpop.gremlin.process.graph.GraphTraversal;
+import com.tinkerpop.gremlin.process.graph.step.util.CollapsingBarrierStep;
+import com.tinkerpop.gremlin.process.graph.step.util.ParallelStep;
+import com.tinkerpop.gremlin.process.graph.strategy.BatchStrategy;
+import com.tinkerpop.gremlin.process.graph.strategy.CollapsingBarrierStrategy;
+import com.tinkerpop.gremlin.process.graph.strategy.ParallelStrategy;
+import com.tinkerpop.gremlin.process.marker.CountTraversal;
+import com.tinkerpop.gremlin.process.traversers.SimpleTraverser;
+import com.tinkerpop.gremlin.process.util.AbstractStep;
+import com.tinkerpop.gremlin.process.util.BulkSet;
+import com.tinkerpop.gremlin.process.util.DefaultTraversalSideEffects;
+import com.tinkerpop.gremlin.process.util.ImmutablePath;
+import com.tinkerpop.gremlin.process.util.TraversalHelper;
+import com.tinkerpop.gremlin.process.util.TraverserSet;
+import com.tinkerpop.gremlin.structure.Compare;
 import com.tinkerpop.gremlin.structure.Direction;
 import com.tinkerpop.gremlin.structure.Edge;
 import com.tinkerpop.gremlin.structure.Graph;
 import com.tinkerpop.gremlin.structure.Vertex;
+import com.tinkerpop.gremlin.structure.VertexProperty;
 import com.tinkerpop.gremlin.structure.io.GraphReader;
 import com.tinkerpop.gremlin.structure.io.graphml.GraphMLWriter;
 import com.tinkerpop.gremlin.structure.io.graphson.GraphSONWriter;
 import com.tinkerpop.gremlin.structure.io.kryo.KryoReader;
 import com.tinkerpop.gremlin.structure.io.kryo.KryoWriter;
+import com.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.map.TinkerDegreeStep;
+import com.tinkerpop.gremlin.tinkergraph.process.graph.step.map.TinkerVertexStep;
 import com.tinkerpop.gremlin.util.StreamFactory;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.io.FileUtils;
+import org.javatuples.Pair;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -328,6 +387,961 @@ public class TinkerGraphTest {
         g.createIndex("", Edge.class);
     }
 
+    @Test
+    public void shouldStoreElementsInLongIdStore() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_LONG_ID_STORE, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            vertices.add(g.addVertex("name", "v" + i));
+        }
+        for (int i = 1; i < vertices.size(); i++) {
+            vertices.get(i - 1).addEdge("next", vertices.get(i));
+        }
+        final Vertex custom = g.addVertex(T.id, "custom");
+        assertEquals(1001, g.V().count().next().intValue());
+        assertEquals(999, g.E().count().next().intValue());
+        vertices.forEach(v -> assertEquals(v, g.v(v.id())));
+        assertEquals(custom, g.v("custom"));
+
+        for (int i = 0; i < vertices.size(); i = i + 2) {
+            vertices.get(i).remove();
+        }
+        assertEquals(501, g.V().count().next().intValue());
+        assertEquals(0, g.E().count().next().intValue());
+        for (int i = 1; i < vertices.size(); i = i + 2) {
+            assertEquals(vertices.get(i), g.v(vertices.get(i).id()));
+        }
+        assertEquals(1, g.V().has("name", "v1").count().next().intValue());
+        assertEquals(0, g.V().has("name", "v0").count().next().intValue());
+    }
+
+    @Test
+    public void shouldAddVerticesAndEdgesConcurrently() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_CONCURRENT, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+        g.createIndex("worker", Vertex.class);
+        assertTrue(g.features().graph().supportsConcurrentAccess());
+        assertFalse(TinkerGraph.open().features().graph().supportsConcurrentAccess());
+
+        final int threads = 8;
+        final int verticesPerThread = 1000;
+        final Vertex hub = g.addVertex();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < verticesPerThread; i++) {
+                    g.addVertex("worker", worker).addEdge("hub", hub);
+                }
+            }));
+        }
+        executor.shutdown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+
+        assertEquals(threads * verticesPerThread + 1, g.V().count().next().intValue());
+        assertEquals(threads * verticesPerThread, g.E().count().next().intValue());
+        assertEquals(threads * verticesPerThread, hub.inE("hub").count().next().intValue());
+        for (int t = 0; t < threads; t++) {
+            assertEquals(verticesPerThread, g.V().has("worker", t).count().next().intValue());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotOpenConcurrentGraphWithLongIdStore() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_CONCURRENT, true);
+        conf.setProperty(TinkerGraph.CONFIG_LONG_ID_STORE, true);
+        TinkerGraph.open(conf);
+    }
+
+    @Test
+    public void shouldAnswerRangeQueriesWithSortedIndex() {
+        final TinkerGraph indexed = TinkerGraph.open();
+        indexed.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+        indexed.createIndex("weight", Edge.class, TinkerGraph.IndexType.SORTED);
+        final TinkerGraph unindexed = TinkerGraph.open();
+        for (final TinkerGraph g : Arrays.asList(indexed, unindexed)) {
+            Vertex last = g.addVertex("age", 0, "name", "v0");
+            for (int i = 1; i < 100; i++) {
+                final Vertex v = g.addVertex("age", i, "name", "v" + i);
+                v.addEdge("knows", last, "weight", (double) i);
+                last = v;
+            }
+            g.v(g.V().has("name", "v50").id().next()).property("age").remove();
+        }
+
+        for (final TinkerGraph g : Arrays.asList(indexed, unindexed)) {
+            assertEquals(49, g.V().has("age", Compare.gt, 50).count().next().intValue());
+            assertEquals(49, g.V().has("age", Compare.gte, 50).count().next().intValue());
+            assertEquals(10, g.V().has("age", Compare.lt, 10).count().next().intValue());
+            assertEquals(11, g.V().has("age", Compare.lte, 10).count().next().intValue());
+            assertEquals(19, g.V().interval("age", 40, 60).count().next().intValue());
+            assertEquals(2, g.V().interval("age", 40, 60).has("age", Compare.lt, 42).count().next().intValue());
+            assertEquals(0, g.V().interval("age", 60, 40).count().next().intValue());
+            assertEquals(10, g.E().interval("weight", 10.0d, 20.0d).count().next().intValue());
+            assertEquals(9, g.E().has("weight", Compare.gt, 90.0d).count().next().intValue());
+        }
+
+        // values of other types share the sorted index but do not take part in ranges over integers
+        indexed.addVertex("age", "unknown");
+        indexed.addVertex("age", Arrays.asList(1, 2));
+        assertEquals(49, indexed.V().has("age", Compare.gt, 50).count().next().intValue());
+        assertEquals(10, indexed.V().has("age", Compare.lt, 10).count().next().intValue());
+        assertEquals(1, indexed.V().has("age", "unknown").count().next().intValue());
+        assertEquals(1, indexed.V().has("age", Arrays.asList(1, 2)).count().next().intValue());
+    }
+
+    @Test
+    public void shouldMaintainCompositeIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        for (int i = 0; i < 100; i++) {
+            g.addVertex(T.label, i % 2 == 0 ? "person" : "robot", "country", i % 10 == 0 ? "US" : "DE", "age", i % 5);
+        }
+        g.createIndex("country", Vertex.class);
+        g.createCompositeIndex(Vertex.class, "country", "age");
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "country");
+        assertEquals(2, g.getCompositeIndexedKeys(Vertex.class).size());
+        assertTrue(g.getCompositeIndexedKeys(Vertex.class).contains(Arrays.asList("country", "age")));
+
+        assertEquals(10, g.V().has("country", "US").has("age", 0).count().next().intValue());
+        assertEquals(20, g.V().has("country", "DE").has("age", 1).count().next().intValue());
+        assertEquals(0, g.V().has("country", "US").has("age", 1).count().next().intValue());
+        assertEquals(40, g.V().has(T.label, "person").has("country", "DE").count().next().intValue());
+        assertEquals(0, g.V().has(T.label, "robot").has("country", "US").count().next().intValue());
+
+        final Vertex v = (Vertex) g.V().has("country", "US").has("age", 0).next();
+        v.property("age").remove();
+        assertEquals(9, g.V().has("country", "US").has("age", 0).count().next().intValue());
+        v.property("age", 1);
+        assertEquals(1, g.V().has("country", "US").has("age", 1).count().next().intValue());
+        v.property("age", 2);
+        assertEquals(1, g.V().has("country", "US").has("age", 1).count().next().intValue());
+        assertEquals(1, g.V().has("country", "US").has("age", 2).count().next().intValue());
+        v.remove();
+        assertEquals(0, g.V().has("country", "US").has("age", 1).count().next().intValue());
+        assertEquals(9, g.V().has(T.label, "person").has("country", "US").count().next().intValue());
+
+        g.dropCompositeIndex(Vertex.class, "country", "age");
+        assertEquals(1, g.getCompositeIndexedKeys(Vertex.class).size());
+        assertEquals(9, g.V().has("country", "US").has("age", 0).count().next().intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCompositeIndexWithSingleKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, "name");
+    }
+
+    @Test
+    public void shouldRemoveElementsWhileIteratingLazily() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_LAZY_ITERATION, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+        g.createIndex("country", Vertex.class);
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+        Vertex previous = g.addVertex("country", "US", "age", 0);
+        for (int i = 1; i < 100; i++) {
+            final Vertex v = g.addVertex("country", i % 2 == 0 ? "US" : "DE", "age", i);
+            previous.addEdge("next", v, "weight", i);
+            previous = v;
+        }
+
+        assertEquals(10, g.V().limit(10).count().next().intValue());
+        assertEquals(10, g.V().has("country", "US").limit(10).count().next().intValue());
+        assertEquals(50, g.V().has("age", Compare.gte, 50).count().next().intValue());
+
+        g.V().has("country", "US").sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(50, g.V().count().next().intValue());
+        assertEquals(0, g.E().count().next().intValue());
+        g.V().has("age", Compare.gte, 50).sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(25, g.V().count().next().intValue());
+        g.V().sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(0, g.V().count().next().intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotOpenLazyIterationGraphWithLongIdStore() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_LAZY_ITERATION, true);
+        conf.setProperty(TinkerGraph.CONFIG_LONG_ID_STORE, true);
+        TinkerGraph.open(conf);
+    }
+
+    @Test
+    public void shouldNotOpenConcurrentGraphWithDirectory() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_CONCURRENT, true);
+        conf.setProperty(TinkerGraph.CONFIG_DIRECTORY, "target/concurrent-directory");
+        try {
+            TinkerGraph.open(conf);
+            fail("The directory and concurrent configuration keys can not be set together");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(TinkerGraph.CONFIG_DIRECTORY));
+            assertTrue(e.getMessage().contains(TinkerGraph.CONFIG_CONCURRENT));
+        }
+    }
+
+    @Test
+    public void shouldMaintainAdjacencyWhileAddingAndRemovingEdges() {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex a = g.addVertex();
+        final Vertex b = g.addVertex();
+        assertEquals(0, a.outE().count().next().intValue());
+        for (int i = 0; i < 100; i++) {
+            a.addEdge(i % 3 == 0 ? "knows" : new String("likes"), b, "i", i);
+        }
+        a.addEdge("self", a);
+
+        assertEquals(101, a.outE().count().next().intValue());
+        assertEquals(34, a.outE("knows").count().next().intValue());
+        assertEquals(66, b.inE("likes").count().next().intValue());
+        assertEquals(100, a.out("knows", "likes").count().next().intValue());
+        assertEquals(102, a.bothE().count().next().intValue());
+        assertEquals(Arrays.asList(a, a), a.both("self").toList());
+        assertEquals(100, b.in().count().next().intValue());
+
+        // removing edges while they are iterated neither fails nor returns the removed edges
+        a.outE("likes").has("i", Compare.gt, 10).sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(7, a.outE("likes").count().next().intValue());
+        assertEquals(9, a.outE().sideEffect(t -> a.outE("knows").forEachRemaining(Edge::remove)).count().next().intValue());
+        assertEquals(7, b.inE().count().next().intValue());
+        assertEquals(1, a.outE("self").count().next().intValue());
+        b.remove();
+        assertEquals(Arrays.asList("self", "self"), a.bothE().label().toList());
+        assertEquals(1, g.E().count().next().intValue());
+        // the labels of the removed edges are released
+        assertEquals(Collections.singleton("self"), g.edgeLabels.keySet());
+
+        // removing a vertex only takes its edges out of the adjacency of the other vertices
+        final Vertex hub = g.addVertex();
+        final List<Vertex> leaves = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            final Vertex leaf = g.addVertex();
+            leaves.add(leaf);
+            hub.addEdge("spoke", leaf);
+            leaf.addEdge("spoke", hub);
+        }
+        hub.addEdge("self", hub);
+        hub.remove();
+        assertEquals(1, g.E().count().next().intValue());
+        leaves.forEach(leaf -> assertEquals(0, leaf.bothE().count().next().intValue()));
+        assertEquals(Collections.singleton("self"), g.edgeLabels.keySet());
+
+        // an edge with an illegal property is not added and does not keep its label
+        try {
+            a.addEdge("illegal", a, "key", null);
+            fail("The edge should not be added as its property value is null");
+        } catch (final IllegalArgumentException e) {
+            assertEquals(Collections.singleton("self"), g.edgeLabels.keySet());
+            assertEquals(1, g.E().count().next().intValue());
+        }
+    }
+
+    @Test
+    public void shouldReadAdjacencyWhileItIsMutated() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_CONCURRENT, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+        final Vertex hub = g.addVertex();
+        final Vertex other = g.addVertex();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    final Edge edge = hub.addEdge("label" + (i % 8), other);
+                    if (i % 2 == 0)
+                        edge.remove();
+                }
+            });
+            while (!writer.isDone()) {
+                // every other edge is removed right after it was added
+                assertTrue(TinkerHelper.countEdges((TinkerVertex) hub, Direction.OUT) <= 10001);
+                hub.outE("label0", "label1").forEachRemaining(edge -> assertTrue(edge.label().equals("label0") || edge.label().equals("label1")));
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(10000, hub.outE().count().next().intValue());
+        assertEquals(2500, hub.outE("label1").count().next().intValue());
+    }
+
+    @Test
+    public void shouldRangeScanVertexCentricIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex a = g.addVertex();
+        final Vertex b = g.addVertex();
+        for (int i = 0; i < 100; i++) {
+            a.addEdge(i % 2 == 0 ? "knows" : "likes", b, "weight", i);
+        }
+        a.addEdge("knows", b, "weight", "heavy");
+        g.createVertexCentricIndex("weight");
+        assertEquals(Collections.singleton("weight"), g.getVertexCentricIndexedKeys());
+
+        final Traversal<Vertex, Edge> traversal = a.outE("knows").has("weight", Compare.gte, 90);
+        traversal.applyStrategies(TraversalEngine.STANDARD);
+        assertEquals(TinkerVertexStep.class, TraversalHelper.getEnd(traversal).getClass());
+        assertEquals(5, traversal.toList().size());
+        assertEquals(10, a.outE().interval("weight", 10, 20).count().next().intValue());
+        assertEquals(5, b.inE("likes").interval("weight", 10, 20).count().next().intValue());
+        assertEquals(1, a.bothE().has("weight", 42).count().next().intValue());
+        assertEquals(1, a.outE().has("weight", "heavy").count().next().intValue());
+
+        // the index follows property updates and edge removals
+        a.outE().has("weight", Compare.lt, 10).sideEffect(t -> t.get().property("weight", t.get().<Integer>value("weight") + 1000)).iterate();
+        assertEquals(0, a.outE().has("weight", Compare.lt, 10).count().next().intValue());
+        assertEquals(10, a.outE().has("weight", Compare.gte, 1000).count().next().intValue());
+        a.outE("likes").has("weight", Compare.gte, 50).sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(0, a.outE("likes").has("weight", Compare.gte, 50).count().next().intValue());
+        assertEquals(30, b.inE().has("weight", Compare.gte, 50).count().next().intValue());
+        a.outE().has("weight", 42).forEachRemaining(e -> e.property("weight").remove());
+        assertEquals(0, a.outE().has("weight", 42).count().next().intValue());
+
+        assertEquals(1, TinkerHelper.queryVertexCentricIndex((TinkerVertex) b, Direction.IN, "weight", "heavy", true, "heavy", true).count());
+        a.outE().has("weight", "heavy").sideEffect(t -> t.get().remove()).iterate();
+        assertEquals(0, TinkerHelper.queryVertexCentricIndex((TinkerVertex) a, Direction.OUT, "weight", "heavy", true, "heavy", true).count());
+        assertEquals(0, TinkerHelper.queryVertexCentricIndex((TinkerVertex) b, Direction.IN, "weight", "heavy", true, "heavy", true).count());
+        assertEquals(0, a.outE().has("weight", "heavy").count().next().intValue());
+
+        g.dropVertexCentricIndex("weight");
+        assertEquals(30, b.inE().has("weight", Compare.gte, 50).count().next().intValue());
+    }
+
+    @Test
+    public void shouldPushDownCounts() {
+        final TinkerGraph g = TinkerFactory.createModern();
+        g.createIndex("name", Vertex.class);
+        g.createCompositeIndex(Vertex.class, "name", "age");
+        final Vertex marko = g.v(1);
+
+        assertEquals(6, g.V().count().next().intValue());
+        assertEquals(6, g.E().count().next().intValue());
+        assertEquals(1, g.V().has("name", "marko").count().next().intValue());
+        assertEquals(0, g.V().has("name", "stephen").count().next().intValue());
+        assertEquals(1, g.V().has("name", "marko").has("age", 29).count().next().intValue());
+        assertEquals(0, g.V().has("name", "marko").has("age", 30).count().next().intValue());
+        assertEquals(2, g.V().has("age", Compare.gt, 30).count().next().intValue());
+
+        final Traversal<Vertex, Long> traversal = marko.outE("knows").count();
+        traversal.applyStrategies(TraversalEngine.STANDARD);
+        assertEquals(1, TraversalHelper.getStepsOfClass(TinkerDegreeStep.class, traversal).size());
+        assertEquals(2l, traversal.next().longValue());
+        assertEquals(3, marko.out().count().next().intValue());
+        assertEquals(1, g.v(4).in().count().next().intValue());
+        assertEquals(3, g.v(3).both("created").count().next().intValue());
+        assertEquals(0, g.v(2).out().count().next().intValue());
+        assertEquals(6, g.V().out().count().next().intValue());
+        // only the 3 vertices with out edges are emitted by the degree step
+        final Traversal<Vertex, Long> outCount = g.V().out().count();
+        outCount.applyStrategies(TraversalEngine.STANDARD);
+        final Step<?, ?> degreeStep = TraversalHelper.getStepsOfClass(TinkerDegreeStep.class, outCount).get(0);
+        assertEquals(3, StreamFactory.stream(degreeStep).count());
+        assertEquals(2, g.V().has("name", "marko").out("knows").count().next().intValue());
+        assertEquals(10, g.V().out("created").in("created").count().next().intValue());
+
+        // the counts follow removals
+        g.v(6).remove();
+        assertEquals(5, g.V().count().next().intValue());
+        assertEquals(5, g.E().count().next().intValue());
+        assertEquals(2, g.v(3).inE().count().next().intValue());
+        marko.remove();
+        assertEquals(0, g.V().has("name", "marko").count().next().intValue());
+        assertEquals(2, g.V().outE().count().next().intValue());
+    }
+
+    @Test
+    public void shouldExecuteVertexProgramWithMultipleWorkers() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final Random random = new Random(42);
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            vertices.add(g.addVertex());
+        }
+        for (final Vertex vertex : vertices) {
+            for (int i = 0; i < 5; i++) {
+                vertex.addEdge("link", vertices.get(random.nextInt(vertices.size())));
+            }
+        }
+
+        final Map<Object, Double> sequential = new HashMap<>();
+        ((TinkerGraphComputer) g.compute()).workers(1).program(PageRankVertexProgram.build().iterations(10).create()).submit().get()
+                .graph().V().forEachRemaining(v -> sequential.put(v.id(), v.<Double>value(PageRankVertexProgram.PAGE_RANK)));
+        final ComputerResult result = ((TinkerGraphComputer) g.compute()).workers(4).program(PageRankVertexProgram.build().iterations(10).create()).submit().get();
+        assertEquals(10, result.memory().getIteration());
+        result.graph().V().forEachRemaining(v -> assertEquals(sequential.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.0000001d));
+    }
+
+    @Test
+    public void shouldCombineMessagesSentToTheSameVertex() throws Exception {
+        final TinkerGraph g = TinkerFactory.createClassic();
+        final ComputerResult result = ((TinkerGraphComputer) g.compute()).workers(2).program(new CombinedMessageVertexProgram()).submit().get();
+        result.graph().V().forEachRemaining(v -> {
+            assertEquals(Long.valueOf(1l), v.<Long>value(CombinedMessageVertexProgram.MESSAGES));
+            assertEquals(Long.valueOf(1l + v.inE().count().next()), v.<Long>value(CombinedMessageVertexProgram.TOTAL));
+        });
+    }
+
+    @Test
+    public void shouldReceiveLocalMessagesOverTheAdjacency() throws Exception {
+        final TinkerGraph g = TinkerFactory.createClassic();
+        // the incident traversal with an identity step is not compiled and is evaluated per vertex instead
+        final Map<Object, Double> compiled = new HashMap<>();
+        g.compute().program(PageRankVertexProgram.build().incident(new KnowsTraversalSupplier()).create()).submit().get()
+                .graph().V().forEachRemaining(v -> compiled.put(v.id(), v.<Double>value(PageRankVertexProgram.PAGE_RANK)));
+        final ComputerResult result = g.compute().program(PageRankVertexProgram.build().incident(new KnowsIdentityTraversalSupplier()).create()).submit().get();
+        result.graph().V().forEachRemaining(v -> assertEquals(compiled.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.0000000001d));
+        assertTrue(compiled.get(g.V().has("name", "vadas").next().id()) > compiled.get(g.V().has("name", "lop").next().id()));
+    }
+
+    @Test
+    public void shouldSpillMapOutputToDisk() throws Exception {
+        final TinkerGraph g = TinkerFactory.createClassic();
+        final File directory = new File(tempPath + "spill");
+        FileUtils.deleteDirectory(directory);
+        final Map<Integer, Long> inMemory = ((TinkerGraphComputer) g.compute()).workers(2).mapReduce(new NameLengthMapReduce()).submit().get().memory().get(NameLengthMapReduce.NAME_LENGTHS);
+        // every emitted value is spilled as the two workers may each hold only one value
+        final Map<Integer, Long> spilled = ((TinkerGraphComputer) g.compute()).workers(2).spill(2, directory).mapReduce(new NameLengthMapReduce()).submit().get().memory().get(NameLengthMapReduce.NAME_LENGTHS);
+        assertEquals(4, inMemory.size());
+        assertEquals(Long.valueOf(3l), inMemory.get(5));
+        assertEquals(inMemory, spilled);
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void shouldMergeTheMemoryOfTheWorkers() throws Exception {
+        final TinkerGraph g = TinkerFactory.createModern();
+        final ComputerResult result = ((TinkerGraphComputer) g.compute()).workers(4).program(LambdaVertexProgram.build()
+                .setup(memory -> {
+                    memory.set("nameLengths", 0l);
+                    memory.set("people", true);
+                    memory.set("software", false);
+                })
+                .execute((vertex, messenger, memory) -> {
+                    memory.incr("nameLengths", vertex.<String>value("name").length());
+                    memory.and("people", vertex.label().equals("person"));
+                    memory.or("software", vertex.label().equals("software"));
+                })
+                .terminate(memory -> memory.getIteration() == 2)
+                .memoryComputeKeys("nameLengths", "people", "software").create()).submit().get();
+        assertEquals(Long.valueOf(3 * 28l), result.memory().get("nameLengths"));
+        assertFalse(result.memory().<Boolean>get("people"));
+        assertTrue(result.memory().<Boolean>get("software"));
+    }
+
+    @Test
+    public void shouldReceiveMessagesInTheIterationTheyAreSentWithDirtyIsolation() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex[] chain = new Vertex[20];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = g.addVertex(T.id, i);
+            if (i > 0) {
+                chain[i - 1].addEdge("next", chain[i]);
+                chain[i].addEdge("next", chain[i - 1]);
+            }
+        }
+        final ComputerResult bsp = ((TinkerGraphComputer) g.compute()).workers(1).program(PeerPressureVertexProgram.build().create()).submit().get();
+        // the vote of a vertex travels down the chain within an iteration rather than one vertex per iteration
+        final ComputerResult dirty = ((TinkerGraphComputer) g.compute()).workers(1).isolation(GraphComputer.Isolation.DIRTY_BSP).program(PeerPressureVertexProgram.build().create()).submit().get();
+        assertTrue(dirty.memory().getIteration() < bsp.memory().getIteration());
+        assertEquals(1, dirty.graph().V().toList().stream().map(v -> v.value(PeerPressureVertexProgram.CLUSTER)).distinct().count());
+
+        // a vertex program that does not support dirty isolation is executed with bulk synchronous isolation
+        final Map<Object, Double> ranks = new HashMap<>();
+        g.compute().program(PageRankVertexProgram.build().create()).submit().get()
+                .graph().V().forEachRemaining(v -> ranks.put(v.id(), v.<Double>value(PageRankVertexProgram.PAGE_RANK)));
+        g.compute().isolation(GraphComputer.Isolation.DIRTY_BSP).program(PageRankVertexProgram.build().create()).submit().get()
+                .graph().V().forEachRemaining(v -> assertEquals(ranks.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.0000001d));
+    }
+
+    @Test
+    public void shouldTerminatePageRankOnceTheRanksConverge() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex[] chain = new Vertex[50];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = g.addVertex(T.id, i);
+            if (i > 0) {
+                chain[i - 1].addEdge("next", chain[i]);
+                chain[i].addEdge("next", chain[i - 1]);
+            }
+        }
+        chain[0].addEdge("next", chain[25]);
+        final Map<Object, Double> ranks = new HashMap<>();
+        g.compute().program(PageRankVertexProgram.build().iterations(200).create()).submit().get()
+                .graph().V().forEachRemaining(v -> ranks.put(v.id(), v.<Double>value(PageRankVertexProgram.PAGE_RANK)));
+
+        final ComputerResult converged = g.compute().program(PageRankVertexProgram.build().iterations(200).epsilon(0.0000000001d).create()).submit().get();
+        assertTrue(converged.memory().getIteration() < 200);
+        converged.graph().V().forEachRemaining(v -> assertEquals(ranks.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.00000001d));
+
+        final ComputerResult delta = g.compute().program(PageRankVertexProgram.build().iterations(200).deltaThreshold(0.000000000001d).create()).submit().get();
+        assertTrue(delta.memory().getIteration() < 200);
+        delta.graph().V().forEachRemaining(v -> assertEquals(ranks.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.00000001d));
+
+        // a coarse threshold holds changes back until they add up rather than discarding them, so the ranks stay
+        // within a few thresholds of the exact ranks
+        for (final double threshold : Arrays.asList(0.0001d, 0.00001d)) {
+            final ComputerResult coarse = g.compute().program(PageRankVertexProgram.build().iterations(200).deltaThreshold(threshold).create()).submit().get();
+            assertTrue(coarse.memory().getIteration() < delta.memory().getIteration());
+            coarse.graph().V().forEachRemaining(v -> assertEquals(ranks.get(v.id()), v.<Double>value(PageRankVertexProgram.PAGE_RANK), threshold * 5));
+        }
+    }
+
+    @Test
+    public void shouldExecuteTraversalsInBatches() {
+        final Graph g = TinkerFactory.createModern();
+        final List<Supplier<Traversal<Vertex, ?>>> traversals = Arrays.asList(
+                () -> g.V().out().out().values("name"),
+                () -> g.V().has("age", Compare.gt, 27).out("created").values("name"),
+                () -> g.V().outE().inV().map(v -> v.get().id()),
+                () -> g.V().both().both().filter(v -> !v.get().label().equals("software")).path(),
+                () -> g.V().out().out().as("a").in().back("a").values("name"));
+        for (final int batchSize : Arrays.asList(1, 2, 3, BatchStrategy.DEFAULT_BATCH_SIZE)) {
+            for (final Supplier<Traversal<Vertex, ?>> supplier : traversals) {
+                final Traversal<Vertex, ?> traversal = supplier.get();
+                traversal.applyStrategies(TraversalEngine.STANDARD);
+                BatchStrategy.instance(batchSize).apply(traversal, TraversalEngine.STANDARD);
+                assertEquals(batchSize, ((AbstractStep) traversal.getSteps().get(1)).getBatchSize());
+                // batching may change the order of the results
+                final List<String> batched = new ArrayList<>();
+                traversal.forEachRemaining(end -> batched.add(end.toString()));
+                final List<String> expected = new ArrayList<>();
+                supplier.get().forEachRemaining(end -> expected.add(end.toString()));
+                Collections.sort(batched);
+                Collections.sort(expected);
+                assertEquals(expected, batched);
+            }
+        }
+    }
+
+    @Test
+    public void shouldMergeAndOrderTheTraversersOfATraverserSet() throws Exception {
+        final Traversal.SideEffects sideEffects = new DefaultTraversalSideEffects();
+        final TraverserSet<Integer> traverserSet = new TraverserSet<>();
+        for (int i = 0; i < 1000; i++) {
+            traverserSet.add(new SimpleTraverser<>(i % 100, sideEffects));
+        }
+        assertEquals(100, traverserSet.size());
+        traverserSet.forEach(traverser -> assertEquals(10l, traverser.bulk()));
+        assertTrue(traverserSet.remove(new SimpleTraverser<>(50, sideEffects)));
+        assertFalse(traverserSet.contains(new SimpleTraverser<>(50, sideEffects)));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), traverserSet.poll().get());
+        }
+        for (int i = 100; i < 200; i++) {
+            traverserSet.add(new SimpleTraverser<>(i, sideEffects));
+        }
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 10; i < 200; i++) {
+            if (i != 50)
+                expected.add(i);
+        }
+        assertEquals(expected, traverserSet.stream().map(Traverser::get).collect(Collectors.toList()));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(traverserSet);
+        }
+        try (final ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final TraverserSet<Integer> copy = (TraverserSet<Integer>) inputStream.readObject();
+            assertEquals(expected, copy.stream().map(Traverser::get).collect(Collectors.toList()));
+            assertEquals(10l, copy.peek().bulk());
+        }
+
+        traverserSet.sort((a, b) -> b.get().compareTo(a.get()));
+        Collections.reverse(expected);
+        assertEquals(expected, traverserSet.stream().map(Traverser::get).collect(Collectors.toList()));
+        traverserSet.add(new SimpleTraverser<>(150, sideEffects));
+        assertEquals(expected.size(), traverserSet.size());
+
+        traverserSet.clear();
+        assertTrue(traverserSet.isEmpty());
+        assertEquals(null, traverserSet.poll());
+        traverserSet.add(new SimpleTraverser<>(1, sideEffects));
+        assertEquals(Integer.valueOf(1), traverserSet.remove().get());
+
+        // a few traversers in the large table of the set only free their own slots
+        for (int i = 0; i < 10; i++) {
+            traverserSet.add(new SimpleTraverser<>(i, sideEffects));
+        }
+        traverserSet.poll();
+        traverserSet.remove(new SimpleTraverser<>(5, sideEffects));
+        traverserSet.clear();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(traverserSet.contains(new SimpleTraverser<>(i, sideEffects)));
+            traverserSet.add(new SimpleTraverser<>(i, sideEffects));
+        }
+        assertEquals(10, traverserSet.size());
+        traverserSet.forEach(traverser -> assertEquals(1l, traverser.bulk()));
+    }
+
+    @Test
+    public void shouldCollapseTraversersAfterVertexSteps() {
+        final TinkerGraph g = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            vertices.add(g.addVertex(T.id, i));
+        }
+        vertices.forEach(a -> vertices.forEach(b -> {
+            if (a != b)
+                a.addEdge("link", b);
+        }));
+
+        // the strategy is not registered by default
+        final Traversal<Vertex, Long> defaultCount = g.V().out().out().count();
+        defaultCount.applyStrategies(TraversalEngine.STANDARD);
+        assertFalse(defaultCount.getSteps().stream().anyMatch(step -> step instanceof CollapsingBarrierStep));
+
+        final Traversal<Vertex, Map<Object, Long>> groupCount = (Traversal) g.V().out().out().out().groupCount();
+        groupCount.applyStrategies(TraversalEngine.STANDARD);
+        CollapsingBarrierStrategy.instance().apply(groupCount, TraversalEngine.STANDARD);
+        assertEquals(3, groupCount.getSteps().stream().filter(step -> step instanceof CollapsingBarrierStep).count());
+        final Map<Object, Long> counts = groupCount.next();
+        assertEquals(20, counts.size());
+        counts.values().forEach(value -> assertEquals(Long.valueOf(19l * 19l * 19l), value));
+        final Traversal<Vertex, Long> collapsedCount = g.V().out().out().out().count();
+        collapsedCount.applyStrategies(TraversalEngine.STANDARD);
+        CollapsingBarrierStrategy.instance().apply(collapsedCount, TraversalEngine.STANDARD);
+        assertEquals(Long.valueOf(20l * 19l * 19l * 19l), collapsedCount.next());
+
+        // no barrier reads ahead of a lambda, a step that ignores bulk, a labeled step or a traversal that tracks paths
+        for (final Traversal<Vertex, ?> traversal : Arrays.<Traversal<Vertex, ?>>asList(
+                g.V().out().sideEffect(v -> {
+                }).out().count(),
+                g.V().out().out().fold(),
+                g.V().out().out().fold(0, (count, traverser) -> count + 1),
+                g.V().out().out().groupCount(traverser -> traverser.get().id()),
+                g.V().out().out().groupBy(traverser -> traverser.get().id()),
+                g.V().out().as("a").out().count(),
+                g.V().out().out().path())) {
+            traversal.applyStrategies(TraversalEngine.STANDARD);
+            CollapsingBarrierStrategy.instance().apply(traversal, TraversalEngine.STANDARD);
+            assertFalse(traversal.toString(), traversal.getSteps().stream().skip(2).anyMatch(step -> step instanceof CollapsingBarrierStep));
+        }
+
+        // fold() adds a traverser once whatever its bulk so it must see every walk
+        final TinkerGraph classic = TinkerFactory.createClassic();
+        final List<Object> unbarriered = classic.V().out().id().toList();
+        final Traversal<Vertex, List<Vertex>> fold = classic.V().out().fold();
+        fold.applyStrategies(TraversalEngine.STANDARD);
+        CollapsingBarrierStrategy.instance().apply(fold, TraversalEngine.STANDARD);
+        final List<Object> folded = fold.next().stream().map(Vertex::id).collect(Collectors.toList());
+        assertEquals(6, folded.size());
+        Collections.sort((List) unbarriered);
+        Collections.sort((List) folded);
+        assertEquals(unbarriered, folded);
+    }
+
+    @Test
+    public void shouldExecuteTraversalsOnPartitionsInParallel() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_CONCURRENT, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+        final Random random = new Random(42);
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            vertices.add(g.addVertex(T.id, i, "name", "v" + (i % 10)));
+        }
+        for (int i = 0; i < 5000; i++) {
+            vertices.get(random.nextInt(1000)).addEdge("link", vertices.get(random.nextInt(1000)));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final List<Supplier<Traversal<Vertex, ?>>> traversals = Arrays.asList(
+                    () -> g.V().out().out().values("name"),
+                    () -> g.V().has("name", "v1").out().both().id(),
+                    () -> g.V().out().aggregate("x").in().except("x").id());
+            for (final Supplier<Traversal<Vertex, ?>> supplier : traversals) {
+                final Traversal<Vertex, ?> traversal = parallel(supplier.get(), pool);
+                // the partitions are merged so the order of the results may differ
+                final List<String> ends = new ArrayList<>();
+                traversal.forEachRemaining(end -> ends.add(end.toString()));
+                final List<String> expected = new ArrayList<>();
+                supplier.get().forEachRemaining(end -> expected.add(end.toString()));
+                Collections.sort(ends);
+                Collections.sort(expected);
+                assertEquals(expected, ends);
+            }
+
+            final Map<Object, Long> groupCount = (Map) parallel(g.V().out().out().groupCount(), pool).next();
+            assertEquals(g.V().out().out().groupCount().cap().next(), groupCount);
+
+            final BulkSet<Object> store = (BulkSet) parallel(g.V().out().store("x").out().store("x").cap("x"), pool).next();
+            final BulkSet<Object> expected = (BulkSet) g.V().out().store("x").out().store("x").cap("x").next();
+            assertEquals(expected.longSize(), store.longSize());
+            expected.forEach(object -> assertEquals(expected.get(object), store.get(object)));
+
+            // the starts are read in rounds so a single result does not process every vertex
+            final AtomicInteger filtered = new AtomicInteger();
+            final ForkJoinPool single = new ForkJoinPool(1);
+            try {
+                parallel(g.V().filter(traverser -> filtered.incrementAndGet() > 0).out(), single).next();
+            } finally {
+                single.shutdown();
+            }
+            assertEquals(ParallelStep.PARTITIONS_PER_THREAD * ParallelStep.MIN_PARTITION_SIZE, filtered.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        // the graph of the traversal is read from many threads so it must support concurrent access
+        final Traversal<Vertex, Vertex> traversal = TinkerFactory.createClassic().V().out();
+        traversal.applyStrategies(TraversalEngine.STANDARD);
+        ParallelStrategy.instance().apply(traversal, TraversalEngine.STANDARD);
+        assertFalse(traversal.getSteps().stream().anyMatch(step -> step instanceof ParallelStep));
+    }
+
+    private static <S, E> Traversal<S, E> parallel(final Traversal<S, E> traversal, final ForkJoinPool pool) {
+        traversal.applyStrategies(TraversalEngine.STANDARD);
+        ParallelStrategy.instance(pool).apply(traversal, TraversalEngine.STANDARD);
+        assertTrue(traversal.toString(), traversal.getSteps().get(1) instanceof ParallelStep);
+        return traversal;
+    }
+
+    @Test
+    public void shouldShareTheTailOfExtendedPaths() {
+        Path tail = ImmutablePath.make();
+        for (int i = 0; i < 1000; i++) {
+            tail = tail.extend(i % 10 == 0 ? "a" : "~" + i, i);
+        }
+        final Path left = tail.extend("b", "left");
+        final Path right = tail.extend("b", "right");
+        assertEquals(1000, tail.size());
+        assertEquals(1001, left.size());
+        assertEquals(500, left.<Integer>get(500).intValue());
+        assertEquals(tail.objects(), left.objects().subList(0, 1000));
+        // the objects and labels are copies of the lists kept with the head
+        left.objects().clear();
+        left.labels().remove(0);
+        assertEquals(1001, left.objects().size());
+        assertEquals(1001, left.labels().size());
+        assertEquals("left", left.get("b"));
+        assertEquals("right", right.get("b"));
+        assertFalse(tail.hasLabel("b"));
+        assertEquals(100, left.<List<Integer>>get("a").size());
+        assertEquals(990, left.<List<Integer>>get("a").get(99).intValue());
+        assertEquals(7, left.<Integer>get("~7").intValue());
+        assertTrue(left.isSimple());
+        assertFalse(left.extend("c", 7).isSimple());
+
+        // a path that is read at every step takes the label index of the previous head over
+        Path indexed = ImmutablePath.make();
+        for (int i = 0; i < 100; i++) {
+            indexed = indexed.extend(i % 2 == 0 ? "a" : "b", i);
+            if (i > 1)
+                assertEquals(Integer.valueOf(i), indexed.<List<Integer>>get(i % 2 == 0 ? "a" : "b").get(i / 2));
+        }
+        final Path even = indexed.extend("a", "even");
+        final Path odd = indexed.extend("b", "odd");
+        assertEquals("even", even.<List<Object>>get("a").get(50));
+        assertEquals(50, even.<List<Object>>get("b").size());
+        assertEquals("odd", odd.<List<Object>>get("b").get(50));
+        assertEquals(50, odd.<List<Object>>get("a").size());
+        assertEquals(50, indexed.<List<Object>>get("a").size());
+        assertEquals(50, indexed.<List<Object>>get("b").size());
+
+        final Graph g = TinkerFactory.createClassic();
+        final List<Path> paths = g.V().out().out().path().toList();
+        assertEquals(2, paths.size());
+        paths.forEach(path -> {
+            assertEquals(3, path.size());
+            assertEquals("marko", path.<Vertex>get(0).value("name"));
+            assertEquals("josh", path.<Vertex>get(1).value("name"));
+        });
+        final List<Map<String, Vertex>> selects = g.V().as("a").out().out().as("b").<Vertex>select(Arrays.asList("a", "b")).toList();
+        assertEquals(2, selects.size());
+        assertEquals(new HashSet<>(Arrays.asList("lop", "ripple")), selects.stream().map(select -> select.get("b").<String>value("name")).collect(Collectors.toSet()));
+        selects.forEach(select -> assertEquals("marko", select.get("a").value("name")));
+        assertEquals(Arrays.asList("marko", "marko"), g.V().as("a").out().out().back("a").values("name").toList());
+    }
+
+    @Test
+    public void shouldOnlyExecuteTheActiveFrontier() throws Exception {
+        final TinkerGraph g = TinkerFactory.createClassic();
+        final ComputerResult result = g.compute().program(new FrontierVertexProgram()).submit().get();
+        // all 6 vertices, then marko's 3 out-neighbours and then josh's 2 out-neighbours
+        assertEquals(Long.valueOf(11l), result.memory().get(FrontierVertexProgram.EXECUTIONS));
+        assertEquals(new HashSet<>(Arrays.asList("vadas", "josh", "lop", "ripple")),
+                result.graph().V().has(FrontierVertexProgram.REACHED).<String>values("name").toSet());
+    }
+
+    @Test
+    public void shouldStoreComputeKeysInColumns() {
+        final TinkerGraph g = TinkerFactory.createClassic();
+        TinkerHelper.createGraphView(g, GraphComputer.Isolation.BSP, new HashSet<>(Arrays.asList("rank", "count")));
+        try {
+            final Vertex v = g.v(1);
+            v.singleProperty("rank", 0.5d);
+            v.singleProperty("rank", 0.25d);
+            assertEquals(0.25d, v.<Double>value("rank"), 0.0d);
+            assertEquals("marko", v.value("name"));
+            assertEquals(new HashSet<>(Arrays.asList("name", "age", "rank")), v.keys());
+
+            // a second value for the key and a value of another type leave the column
+            v.property("count", 1l);
+            v.property("count", 2l);
+            assertEquals(new HashSet<>(Arrays.asList(1l, 2l)), v.properties("count").value().toSet());
+            v.singleProperty("count", 3l);
+            assertEquals(Long.valueOf(3l), v.value("count"));
+            g.v(2).property("rank", "high");
+            assertEquals("high", g.v(2).value("rank"));
+            assertEquals(0.25d, v.<Double>value("rank"), 0.0d);
+
+            // a property on a value in a column moves the value out of the column
+            final VertexProperty<Double> rank = v.property("rank");
+            rank.property("source", "test");
+            assertEquals("test", rank.value("source"));
+            assertEquals("test", v.<Double>property("rank").value("source"));
+            assertEquals(0.25d, v.<Double>value("rank"), 0.0d);
+            v.property("rank", 0.5d, "source", "other");
+            assertEquals(new HashSet<>(Arrays.asList("test", "other")), StreamFactory.stream(v.iterators().<Double>propertyIterator("rank")).map(p -> p.<String>value("source")).collect(Collectors.toSet()));
+            v.singleProperty("rank", 0.25d);
+
+            v.property("rank").remove();
+            assertEquals(false, v.property("rank").isPresent());
+            assertEquals(new HashSet<>(Arrays.asList("name", "age", "count")), v.keys());
+        } finally {
+            TinkerHelper.dropView(g);
+        }
+        assertEquals(false, g.v(1).property("rank").isPresent());
+    }
+
+    @Test
+    public void shouldShareDictionaryEncodedKeysAndValues() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_VALUE_DICTIONARY, true);
+        final TinkerGraph g = TinkerGraph.open(conf);
+        final Vertex a = g.addVertex(new String("country"), new String("US"), "name", "marko");
+        final Vertex b = g.addVertex(new String("country"), new String("US"), "name", "vadas");
+        final Edge e = a.addEdge("knows", b, new String("since"), 2010);
+        final Edge f = b.addEdge("knows", a, new String("since"), 2011);
+
+        assertTrue(a.property("country").key() == b.property("country").key());
+        assertTrue(a.value("country") == b.value("country"));
+        assertTrue(e.property("since").key() == f.property("since").key());
+        assertEquals("marko", a.value("name"));
+        assertEquals(Arrays.asList("US", "marko"), StreamFactory.stream(a.iterators().propertyIterator()).map(p -> p.value()).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("US", "vadas"), b.properties("country", "name").value().toList());
+
+        a.property("country").remove();
+        assertEquals(Collections.singleton("name"), a.keys());
+        a.property("country", "DE");
+        a.singleProperty("name", "okram");
+        assertEquals(Arrays.asList("DE", "okram"), StreamFactory.stream(a.iterators().propertyIterator()).map(p -> p.value()).collect(Collectors.toList()));
+        assertEquals(2, g.V().has("country").count().next().intValue());
+        assertEquals(2, g.E().has("since", Compare.gt, 2000).count().next().intValue());
+    }
+
+    @Test
+    public void shouldBuildIndexInBackgroundWhileMutating() throws Exception {
+        final TinkerGraph g = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            vertices.add(g.addVertex("age", i % 100));
+        }
+        final Vertex multi = g.addVertex();
+        multi.property("age", 1000);
+        multi.property("age", 1001);
+
+        final Future<Void> build = g.createIndexAsync("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+        for (int i = 0; i < 1000; i++) {
+            vertices.get(i).singleProperty("age", 200);
+            vertices.get(i + 1000).remove();
+            g.addVertex("age", 300);
+            vertices.get(i + 2000).property("age", 400);
+        }
+        build.get();
+
+        assertEquals(1.0d, g.getIndexProgress("age", Vertex.class), 0.0d);
+        assertEquals(Collections.singleton("age"), g.getIndexedKeys(Vertex.class));
+        assertEquals(1000, g.vertexIndex.get("age", 200).size());
+        assertEquals(1000, g.vertexIndex.get("age", 300).size());
+        assertEquals(1000, g.vertexIndex.get("age", 400).size());
+        assertEquals(180, g.vertexIndex.get("age", 0).size());
+        assertEquals(Collections.singletonList(multi), g.vertexIndex.get("age", 1001));
+        assertEquals(18000, g.vertexIndex.range("age", 0, true, 100, false).size());
+        // vertices with several values in the range are emitted once
+        assertEquals(20000, g.vertexIndex.range("age", 0, true, 500, false).size());
+        assertEquals(Collections.singletonList(multi), g.vertexIndex.range("age", 1000, true, null, false));
+        assertEquals(Collections.singletonList(multi), g.vertexIndex.range("age", null, false, 1001, true).stream().filter(v -> v == multi).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldPersistToSnapshotAndLog() throws IOException {
+        final File directory = new File(tempPath + "shouldPersistToSnapshotAndLog");
+        FileUtils.deleteDirectory(directory);
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.CONFIG_DIRECTORY, directory.getAbsolutePath());
+
+        final TinkerGraph g = TinkerGraph.open(conf);
+        assertTrue(g.features().graph().supportsPersistence());
+        g.createIndex("name", Vertex.class);
+        g.createIndex("weight", Edge.class, TinkerGraph.IndexType.SORTED);
+        g.createCompositeIndex(Vertex.class, "name", "age");
+        final Vertex marko = g.addVertex(T.label, "person", "name", "marko", "age", 29);
+        final Vertex josh = g.addVertex(T.label, "person", "name", "josh", "age", 32);
+        marko.property("location", "san diego", "startTime", 1997).property("endTime", 2001);
+        marko.property("location", "santa cruz", "startTime", 2001);
+        marko.addEdge("knows", josh, "weight", 1.0d);
+        g.variables().set("creator", "marko");
+        g.close();
+
+        final TinkerGraph reopened = TinkerGraph.open(conf);
+        try {
+            assertEquals(2, reopened.V().count().next().intValue());
+            assertEquals(1, reopened.E().has("weight", Compare.gt, 0.5d).count().next().intValue());
+            assertEquals(Arrays.asList("san diego", "santa cruz"), reopened.v(marko.id()).values("location").order().toList());
+            assertEquals(2001, reopened.v(marko.id()).properties("location").has(T.value, "san diego").values("endTime").next());
+            assertEquals("marko", reopened.variables().get("creator").get());
+            assertTrue(TinkerHelper.isSortedIndex(reopened, Edge.class, "weight"));
+            assertTrue(reopened.getCompositeIndexedKeys(Vertex.class).contains(Arrays.asList("name", "age")));
+            assertEquals(1, reopened.V().has("name", "josh").has("age", 32).count().next().intValue());
+
+            // mutations after the snapshot are only in the log, which is neither flushed nor closed
+            final Vertex stephen = reopened.addVertex("name", "stephen");
+            reopened.v(josh.id()).addEdge("knows", stephen, "weight", 0.4d);
+            reopened.v(marko.id()).remove();
+            reopened.variables().remove("creator");
+            assertTrue(stephen.id() instanceof Long && !stephen.id().equals(marko.id()) && !stephen.id().equals(josh.id()));
+
+            // a torn record at the end of the log is discarded
+            try (final FileOutputStream out = new FileOutputStream(new File(directory, TinkerStorage.LOG_FILE), true)) {
+                out.write(new byte[]{0, 0, 0, 42, 1, 2});
+            }
+
+            final TinkerGraph recovered = TinkerGraph.open(conf);
+            try {
+                assertEquals(2, recovered.V().count().next().intValue());
+                assertEquals(1, recovered.E().count().next().intValue());
+                assertEquals(0.4d, recovered.E().has("weight", Compare.lt, 0.5d).values("weight").next());
+                assertEquals(0, recovered.V().has("name", "marko").count().next().intValue());
+                assertEquals(1, recovered.V().has("name", "stephen").count().next().intValue());
+                assertTrue(!recovered.variables().get("creator").isPresent());
+                final Vertex next = recovered.addVertex();
+                assertTrue(!next.id().equals(stephen.id()) && !next.id().equals(josh.id()));
+            } finally {
+                recovered.close();
+            }
+
+            final TinkerGraph last = TinkerGraph.open(conf);
+            try {
+                assertEquals(3, last.V().count().next().intValue());
+            } finally {
+                last.close();
+            }
+        } finally {
+            reopened.close();
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
     @Ignore
     @Test
     public void shouldUpdateVertexIndicesInNewGraph() {
@@ -547,4 +1561,174 @@ public class TinkerGraphTest {
             file.delete();
         }
     }
+
+    public static class NameLengthMapReduce implements MapReduce<Integer, Long, Integer, Long, Map<Integer, Long>> {
+
+        public static final String NAME_LENGTHS = "nameLengths";
+
+        @Override
+        public boolean doStage(final Stage stage) {
+            return true;
+        }
+
+        @Override
+        public void map(final Vertex vertex, final MapEmitter<Integer, Long> emitter) {
+            emitter.emit(vertex.<String>value("name").length(), 1l);
+        }
+
+        @Override
+        public void combine(final Integer key, final Iterator<Long> values, final ReduceEmitter<Integer, Long> emitter) {
+            this.reduce(key, values, emitter);
+        }
+
+        @Override
+        public void reduce(final Integer key, final Iterator<Long> values, final ReduceEmitter<Integer, Long> emitter) {
+            long count = 0l;
+            while (values.hasNext()) {
+                count = count + values.next();
+            }
+            emitter.emit(key, count);
+        }
+
+        @Override
+        public Map<Integer, Long> generateFinalResult(final Iterator<Pair<Integer, Long>> keyValues) {
+            final Map<Integer, Long> result = new HashMap<>();
+            keyValues.forEachRemaining(pair -> result.put(pair.getValue0(), pair.getValue1()));
+            return result;
+        }
+
+        @Override
+        public String getMemoryKey() {
+            return NAME_LENGTHS;
+        }
+    }
+
+    public static class KnowsTraversalSupplier implements Supplier<CountTraversal<Vertex, Edge>> {
+        public CountTraversal<Vertex, Edge> get() {
+            return GraphTraversal.<Vertex>of().outE("knows");
+        }
+    }
+
+    public static class KnowsIdentityTraversalSupplier implements Supplier<CountTraversal<Vertex, Edge>> {
+        public CountTraversal<Vertex, Edge> get() {
+            return GraphTraversal.<Vertex>of().outE("knows").identity();
+        }
+    }
+
+    /**
+     * Marko sends a message to his out-neighbours which forward it to their out-neighbours. Every vertex votes to
+     * halt so that only the receivers of the messages are executed.
+     */
+    public static class FrontierVertexProgram implements VertexProgram<Boolean> {
+
+        public static final String REACHED = "reached";
+        public static final String EXECUTIONS = "executions";
+
+        @Override
+        public Set<String> getElementComputeKeys() {
+            return Collections.singleton(REACHED);
+        }
+
+        @Override
+        public Set<String> getMemoryComputeKeys() {
+            return Collections.singleton(EXECUTIONS);
+        }
+
+        @Override
+        public void setup(final Memory memory) {
+            memory.set(EXECUTIONS, 0l);
+        }
+
+        @Override
+        public void execute(final Vertex vertex, final Messenger<Boolean> messenger, final Memory memory) {
+            memory.incr(EXECUTIONS, 1l);
+            if (memory.isInitialIteration()) {
+                if (vertex.value("name").equals("marko"))
+                    vertex.out().forEachRemaining(v -> messenger.sendMessage(MessageType.Global.of(v), true));
+            } else if (messenger.receiveMessages(MessageType.Global.of(vertex)).iterator().hasNext()) {
+                vertex.singleProperty(REACHED, true);
+                vertex.out().forEachRemaining(v -> messenger.sendMessage(MessageType.Global.of(v), true));
+            }
+            messenger.voteToHalt();
+        }
+
+        @Override
+        public boolean terminate(final Memory memory) {
+            return memory.getIteration() >= 2;
+        }
+
+        @Override
+        public Features getFeatures() {
+            return new Features() {
+                @Override
+                public boolean requiresGlobalMessageTypes() {
+                    return true;
+                }
+
+                @Override
+                public boolean requiresVertexPropertyAddition() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Every vertex sends one message to itself and one message to each of its out-adjacent vertices. The messages
+     * are summed by the combiner so that each vertex receives a single message.
+     */
+    public static class CombinedMessageVertexProgram implements VertexProgram<Long> {
+
+        public static final String MESSAGES = "messages";
+        public static final String TOTAL = "total";
+
+        private static final Set<String> COMPUTE_KEYS = new HashSet<>(Arrays.asList(MESSAGES, TOTAL));
+
+        @Override
+        public Set<String> getElementComputeKeys() {
+            return COMPUTE_KEYS;
+        }
+
+        @Override
+        public Optional<MessageCombiner<Long>> getMessageCombiner() {
+            return Optional.of((a, b) -> a + b);
+        }
+
+        @Override
+        public void setup(final Memory memory) {
+
+        }
+
+        @Override
+        public void execute(final Vertex vertex, final Messenger<Long> messenger, final Memory memory) {
+            if (memory.isInitialIteration()) {
+                messenger.sendMessage(MessageType.Global.of(vertex), 1l);
+                vertex.out().forEachRemaining(v -> messenger.sendMessage(MessageType.Global.of(v), 1l));
+            } else {
+                final List<Long> messages = StreamFactory.stream(messenger.receiveMessages(MessageType.Global.of(vertex))).collect(Collectors.toList());
+                vertex.singleProperty(MESSAGES, (long) messages.size());
+                vertex.singleProperty(TOTAL, messages.stream().reduce(0l, Long::sum));
+            }
+        }
+
+        @Override
+        public boolean terminate(final Memory memory) {
+            return memory.getIteration() >= 1;
+        }
+
+        @Override
+        public Features getFeatures() {
+            return new Features() {
+                @Override
+                public boolean requiresGlobalMessageTypes() {
+                    return true;
+                }
+
+                @Override
+                public boolean requiresVertexPropertyAddition() {
+                    return true;
+                }
+            };
+        }
+    }
 }